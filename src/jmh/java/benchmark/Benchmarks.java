@@ -0,0 +1,24 @@
+package benchmark;
+
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+/**
+ * Helpers shared by the benchmark states.
+ */
+final class Benchmarks {
+  private Benchmarks() {}
+
+  /**
+   * Turns off all logging, so that console output does not dominate the measurements.
+   */
+  static void silenceLogging() {
+    Logger root = LogManager.getLogManager().getLogger("");
+    root.setLevel(Level.OFF);
+    for (Handler h : root.getHandlers()) {
+      h.setLevel(Level.OFF);
+    }
+  }
+}
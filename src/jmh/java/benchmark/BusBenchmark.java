@@ -0,0 +1,113 @@
+package benchmark;
+
+import bus.Bus;
+import cache.Address;
+import cache.Cache;
+import cache.CacheProperties;
+import cache.coherence.CoherencePolicy;
+import cache.coherence.CoherenceState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.Processor;
+import statistics.ProcessorStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks for the snooping broadcasts, with every attached cache holding a shared copy of
+ * the target block.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusBenchmark {
+
+  /**
+   * A bus of caches sharing one block under the given policy.
+   */
+  @State(Scope.Thread)
+  public abstract static class SharedBlock {
+    @Param({"4", "16", "32"})
+    public int numCaches;
+
+    final List<Cache> caches = new ArrayList<>();
+    final Address address = new Address(0x80);
+
+    void attach(CoherencePolicy policy, CoherenceState sharedState) {
+      Benchmarks.silenceLogging();
+      Bus.reset();
+      Processor.reset();
+      CacheProperties.setCoherencePolicy(policy);
+      caches.clear();
+      for (int i = 0; i < numCaches; i++) {
+        Cache cache = new Cache(new ProcessorStatistics(i));
+        cache.setState(address, sharedState);
+        Bus.add(cache);
+        caches.add(cache);
+      }
+    }
+
+    /**
+     * Puts every cache but the origin back into the shared state.
+     */
+    void reshare(CoherenceState sharedState) {
+      for (int i = 1; i < caches.size(); i++) {
+        caches.get(i).setState(address, sharedState);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class InvalidationBus extends SharedBlock {
+    @Setup(Level.Trial)
+    public void setUp() {
+      attach(CoherencePolicy.MESI, CoherenceState.S);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class UpdateBus extends SharedBlock {
+    @Setup(Level.Trial)
+    public void setUp() {
+      attach(CoherencePolicy.DRAGON, CoherenceState.SC);
+    }
+  }
+
+  @Benchmark
+  public void broadcastRemoteRead(InvalidationBus bus) {
+    Bus.broadcastRemoteRead(bus.caches.get(0), bus.address);
+  }
+
+  /**
+   * Includes the cost of restoring the invalidated copies, so that every broadcast snoops hits.
+   */
+  @Benchmark
+  public void broadcastRemoteWrite(InvalidationBus bus) {
+    Bus.broadcastRemoteWrite(bus.caches.get(0), bus.address);
+    bus.reshare(CoherenceState.S);
+  }
+
+  @Benchmark
+  public void broadcastRemoteUpdate(UpdateBus bus) {
+    Bus.broadcastRemoteUpdate(bus.caches.get(0), bus.address);
+  }
+
+  @Benchmark
+  public boolean remoteCacheContains(InvalidationBus bus) {
+    return Bus.remoteCacheContains(bus.caches.get(0), bus.address);
+  }
+}
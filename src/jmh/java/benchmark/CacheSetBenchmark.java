@@ -0,0 +1,94 @@
+package benchmark;
+
+import bus.Bus;
+import cache.Address;
+import cache.Cache;
+import cache.CacheProperties;
+import cache.coherence.CoherencePolicy;
+import cache.coherence.CoherenceState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.Processor;
+import statistics.ProcessorStatistics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks for the cache set read and write paths. Misses run with the bus in functional
+ * mode, so that they measure the lookup, eviction and state update cost rather than bus timing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSetBenchmark {
+  private static final int MISS_ADDRESSES = 4096;
+
+  private Cache cache;
+  private Address hit;
+  private Address[] misses;
+  private int next = 0;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Benchmarks.silenceLogging();
+    Bus.reset();
+    Processor.reset();
+    CacheProperties.setCoherencePolicy(CoherencePolicy.MESI);
+    cache = new Cache(new ProcessorStatistics(0));
+    Bus.add(cache);
+    Bus.setFunctional(true);
+
+    hit = new Address(0x40);
+    cache.setState(hit, CoherenceState.M);
+
+    // Stride by the cache size so that every access conflicts with the previous one in its set:
+    misses = new Address[MISS_ADDRESSES];
+    for (int i = 0; i < MISS_ADDRESSES; i++) {
+      misses[i] = new Address(0x1000_0000 + i * CacheProperties.getCacheSize());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    Bus.reset();
+  }
+
+  @Benchmark
+  public void readHit() {
+    cache.procRead(hit);
+  }
+
+  @Benchmark
+  public void writeHit() {
+    cache.procWrite(hit);
+  }
+
+  @Benchmark
+  public void readMiss() {
+    Address address = misses[next];
+    next = (next + 1) % MISS_ADDRESSES;
+    cache.allocateBlockFor(address);
+    cache.procRead(address);
+  }
+
+  @Benchmark
+  public void writeMiss() {
+    Address address = misses[next];
+    next = (next + 1) % MISS_ADDRESSES;
+    cache.allocateBlockFor(address);
+    cache.procWrite(address);
+  }
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+import bus.Bus;
+import cache.CacheProperties;
+import cache.Instruction;
+import cache.coherence.CoherencePolicy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.MultiProcessor;
+import processor.Processor;
+import statistics.ProcessorStatistics;
+import trace.TraceGenerator;
+import trace.WorkloadModel;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end simulation throughput for every coherence policy on standard synthetic workloads.
+ * Besides simulations per second, the auxiliary counters report simulated cycles per second and
+ * memory accesses per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+  @Param({"MSI", "MESI", "MUSI", "DRAGON", "MOESI", "MESIF"})
+  public CoherencePolicy policy;
+
+  @Param({"SEQUENTIAL", "UNIFORM_RANDOM", "PRODUCER_CONSUMER", "FALSE_SHARING"})
+  public WorkloadModel workload;
+
+  @Param({"4"})
+  public int cores;
+
+  @Param({"10000"})
+  public int accessesPerCore;
+
+  private List<List<Instruction>> traces;
+
+  /**
+   * Per-thread counters that JMH reports as rates alongside the primary score.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Rates {
+    public long simulatedCycles;
+    public long accesses;
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Benchmarks.silenceLogging();
+    TraceGenerator generator = new TraceGenerator(workload, cores);
+    generator.setSeed(42L);
+    traces = generator.generateAll(accessesPerCore);
+  }
+
+  @Benchmark
+  public int simulate(Rates rates) {
+    Bus.reset();
+    Processor.reset();
+    CacheProperties.setCoherencePolicy(policy);
+    MultiProcessor multiProcessor = new MultiProcessor();
+    traces.forEach(multiProcessor::addProcessorFor);
+    multiProcessor.simulateProgram();
+
+    rates.simulatedCycles += Bus.getCycle();
+    for (ProcessorStatistics stats : multiProcessor.getStatistics()) {
+      rates.accesses += stats.getNumAccesses();
+    }
+    return Bus.getCycle();
+  }
+}
@@ -0,0 +1,78 @@
+package benchmark;
+
+import cache.Instruction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import trace.TraceFormat;
+import trace.TraceGenerator;
+import trace.TraceParser;
+import trace.WorkloadModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trace parsing throughput, from memory and from text and binary trace files on disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraceParsingBenchmark {
+  @Param({"100000"})
+  public int lines;
+
+  private List<String> text;
+  private Path directory;
+  private Path textFile;
+  private Path binaryFile;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    Benchmarks.silenceLogging();
+    TraceGenerator generator = new TraceGenerator(WorkloadModel.UNIFORM_RANDOM, 1);
+    generator.setSeed(42L);
+    directory = Files.createTempDirectory("benchmark");
+    textFile = generator.writeAll(directory, lines, TraceFormat.TEXT).get(0);
+    binaryFile = generator.writeAll(directory, lines, TraceFormat.BINARY).get(0);
+    text = Files.readAllLines(textFile);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(textFile);
+    Files.deleteIfExists(binaryFile);
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public List<Instruction> parseLines() {
+    return TraceParser.parseLines(text.stream());
+  }
+
+  @Benchmark
+  public List<Instruction> parseTextTrace() throws IOException {
+    return TraceParser.parseTrace(textFile);
+  }
+
+  @Benchmark
+  public List<Instruction> parseBinaryTrace() throws IOException {
+    return TraceParser.parseTrace(binaryFile);
+  }
+}
@@ -1,5 +1,12 @@
+import bus.ArbitrationPolicy;
+import bus.HomePolicy;
+import bus.MemoryUpdatePolicy;
+import bus.Topology;
+import cache.WritePolicy;
 import cache.coherence.CoherencePolicy;
 import com.lexicalscope.jewel.cli.Option;
+import processor.PageMapping;
+import processor.WarmupUnit;
 
 import java.util.List;
 
@@ -45,6 +52,233 @@ public interface CLIModel {
   )
   public List<CoherencePolicy> getPolicies();
 
+  @Option(
+      longName = "protocolFile",
+      description = "Protocol definition files to simulate the traces with, after the policies."
+  )
+  public List<String> getProtocolFiles();
+
+  public boolean isProtocolFiles();
+
+  @Option(
+      defaultValue="0",
+      longName = "warmup",
+      shortName = "w",
+      description = "The length of the warm-up phase, after which all statistics are reset."
+          + " A warm-up lasting the whole program is warned about and resets nothing."
+  )
+  public long getWarmup();
+
+  @Option(
+      defaultValue="INSTRUCTIONS",
+      longName = "warmupUnit",
+      description = "The unit of the warm-up length: INSTRUCTIONS (per processor) or CYCLES."
+  )
+  public WarmupUnit getWarmupUnit();
+
+  @Option(
+      longName = "functionalWarmup",
+      description = "Run the warm-up phase without bus timing (warm-up in instructions only)."
+  )
+  public boolean isFunctionalWarmup();
+
+  @Option(
+      defaultValue="0",
+      longName = "profileLines",
+      description = "Profile coherence events per cache line and report the given number of"
+          + " busiest lines (0 disables the profiler)."
+  )
+  public int getProfileLines();
+
+  @Option(
+      defaultValue="0",
+      longName = "falseSharing",
+      description = "Track the words each core accesses within a line to detect false sharing, and"
+          + " report the given number of worst lines (0 disables the detector)."
+  )
+  public int getFalseSharing();
+
+  @Option(
+      defaultValue="0",
+      longName = "sampleInterval",
+      description = "Sample bus utilization, queue depth, stall cycles, miss rate and bytes per"
+          + " cycle every this many cycles (0 disables sampling)."
+  )
+  public long getSampleInterval();
+
+  @Option(
+      defaultValue="samples.csv",
+      longName = "sampleFile",
+      description = "The file samples are written to, as CSV if it ends with .csv and JSON lines"
+          + " otherwise. The coherence policy is added to the file name."
+  )
+  public String getSampleFile();
+
+  @Option(
+      defaultValue="FIFO",
+      longName = "arbitration",
+      description = "The bus arbitration policy: FIFO, ROUND_ROBIN, FIXED_PRIORITY or AGE."
+  )
+  public ArbitrationPolicy getArbitration();
+
+  @Option(
+      defaultValue="FLUSH",
+      longName = "memoryUpdate",
+      description = "How memory is updated when a cache supplies a dirty block to another: FLUSH,"
+          + " PARALLEL or LAZY."
+  )
+  public MemoryUpdatePolicy getMemoryUpdate();
+
+  @Option(
+      defaultValue="0",
+      longName = "interventionLatency",
+      description = "The cycles a cache holding a dirty block takes to start supplying it."
+  )
+  public int getInterventionLatency();
+
+  @Option(
+      defaultValue="1",
+      longName = "flushBandwidth",
+      description = "The number of flushes memory writes at a time, alongside bus transactions."
+  )
+  public int getFlushBandwidth();
+
+  @Option(
+      defaultValue="1",
+      longName = "sockets",
+      description = "The number of sockets the cores are split between, each with a bus of its own,"
+          + " joined by an inter-socket link."
+  )
+  public int getSockets();
+
+  @Option(
+      defaultValue="INTERLEAVE",
+      longName = "homePolicy",
+      description = "How memory pages are given a home socket: INTERLEAVE or FIRST_TOUCH."
+  )
+  public HomePolicy getHomePolicy();
+
+  @Option(
+      defaultValue="40",
+      longName = "linkLatency",
+      description = "The cycles a transfer takes to cross the inter-socket link."
+  )
+  public int getLinkLatency();
+
+  @Option(
+      defaultValue="16",
+      longName = "linkBandwidth",
+      description = "The bytes the inter-socket link carries per cycle."
+  )
+  public int getLinkBandwidth();
+
+  @Option(
+      defaultValue="BUS",
+      longName = "interconnect",
+      description = "The interconnect joining the caches: BUS, or a network on chip with a router"
+          + " per cache, RING or MESH."
+  )
+  public Topology getInterconnect();
+
+  @Option(
+      defaultValue="2",
+      longName = "hopLatency",
+      description = "The cycles a message takes to cross a link of the network on chip."
+  )
+  public int getHopLatency();
+
+  @Option(
+      defaultValue="16",
+      longName = "nocBandwidth",
+      description = "The bytes a link of the network on chip carries per cycle."
+  )
+  public int getNocBandwidth();
+
+  @Option(
+      defaultValue="0",
+      longName = "writeBackBuffer",
+      description = "The number of dirty victims each cache can buffer while they are written back"
+          + " in idle bus cycles. 0 disables the buffer."
+  )
+  public int getWriteBackBuffer();
+
+  @Option(
+      defaultValue="0",
+      longName = "victimCache",
+      description = "The number of evicted blocks each cache's fully-associative victim cache"
+          + " holds. 0 disables the victim cache."
+  )
+  public int getVictimCache();
+
+  @Option(
+      defaultValue="WRITE_BACK",
+      longName = "writePolicy",
+      description = "How caches handle stores: WRITE_BACK, WRITE_THROUGH, NO_WRITE_ALLOCATE or"
+          + " WRITE_COMBINING."
+  )
+  public WritePolicy getWritePolicy();
+
+  @Option(
+      defaultValue="8",
+      longName = "writeBuffer",
+      description = "The number of blocks of stores each cache's write buffer holds."
+  )
+  public int getWriteBuffer();
+
+  @Option(
+      defaultValue="0",
+      longName = "sectorSize",
+      description = "The size, in bytes, of the sectors blocks are divided into, each filled and"
+          + " written back on its own. 0 (or the block size) leaves blocks whole."
+  )
+  public int getSectorSize();
+
+  @Option(
+      defaultValue="NONE",
+      longName = "pageMapping",
+      description = "Translate the traces' virtual addresses through per-core TLBs and a page table"
+          + " mapping pages to frames: IDENTITY, RANDOM or PAGE_COLORING. NONE, the default, treats"
+          + " addresses as physical."
+  )
+  public PageMapping getPageMapping();
+
+  @Option(
+      defaultValue="4096",
+      longName = "pageSize",
+      description = "The size, in bytes, of a page."
+  )
+  public int getPageSize();
+
+  @Option(
+      defaultValue="64",
+      longName = "tlbEntries",
+      description = "The number of translations each core's TLB holds."
+  )
+  public int getTlbEntries();
+
+  @Option(
+      defaultValue="30",
+      longName = "pageWalkCycles",
+      description = "The number of cycles a page walk after a TLB miss takes."
+  )
+  public int getPageWalkCycles();
+
+  @Option(
+      longName = "eventTrace",
+      description = "Record coherence events into a binary ring buffer in this file (decode it with"
+          + " the decode subcommand). The coherence policy is added to the file name."
+  )
+  public String getEventTrace();
+
+  public boolean isEventTrace();
+
+  @Option(
+      defaultValue="1048576",
+      longName = "eventCapacity",
+      description = "The number of events the event trace holds before the oldest are overwritten."
+  )
+  public long getEventCapacity();
+
   @Option(
       helpRequest = true,
       description = "Display help and exit.",
@@ -0,0 +1,38 @@
+import com.lexicalscope.jewel.cli.Option;
+
+public interface DecoderCLIModel {
+  @Option(
+      shortName = "f",
+      longName = "file",
+      description = "The event trace to decode."
+  )
+  public String getFile();
+
+  @Option(
+      defaultValue = "0x0",
+      longName = "from",
+      description = "Only print events at or above this address."
+  )
+  public String getFrom();
+
+  @Option(
+      defaultValue = "0xffffffffffffffff",
+      longName = "to",
+      description = "Only print events at or below this address."
+  )
+  public String getTo();
+
+  @Option(
+      defaultValue = "-1",
+      shortName = "c",
+      longName = "cache",
+      description = "Only print events of this cache (processor) ID; -1 prints every cache."
+  )
+  public int getCache();
+
+  @Option(
+      helpRequest = true,
+      description = "Display help and exit.",
+      shortName = "h")
+  public boolean isHelp();
+}
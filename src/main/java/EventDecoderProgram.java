@@ -0,0 +1,47 @@
+import com.lexicalscope.jewel.cli.ArgumentValidationException;
+import com.lexicalscope.jewel.cli.CliFactory;
+import statistics.EventDecoder;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prints the events of a recorded event trace (the "decode" subcommand).
+ */
+public class EventDecoderProgram {
+  public static void main(String[] args) throws IOException {
+    DecoderCLIModel model = null;
+    try {
+      model = CliFactory.parseArguments(DecoderCLIModel.class, args);
+    } catch (ArgumentValidationException e) {
+      System.out.println(e.getMessage());
+      System.exit(0);
+    }
+
+    long from = 0;
+    long to = -1L; // The highest unsigned address.
+    try {
+      from = parseAddress(model.getFrom());
+      to = parseAddress(model.getTo());
+    } catch (NumberFormatException e) {
+      Logger.getLogger(EventDecoderProgram.class.getName())
+          .log(Level.SEVERE, "Invalid address range, exiting.");
+      System.exit(0);
+    }
+
+    EventDecoder decoder = new EventDecoder(from, to, model.getCache());
+    long printed = decoder.decode(Paths.get(model.getFile()), System.out);
+    Logger.getLogger(EventDecoderProgram.class.getName())
+        .log(Level.INFO, "Printed " + printed + " events.");
+  }
+
+  /**
+   * Parses an unsigned 64-bit address given in decimal or as 0x-prefixed hex.
+   */
+  private static long parseAddress(String value) {
+    return value.startsWith("0x") || value.startsWith("0X")
+        ? Long.parseUnsignedLong(value.substring(2), 16) : Long.parseUnsignedLong(value);
+  }
+}
@@ -0,0 +1,122 @@
+import com.lexicalscope.jewel.cli.Option;
+import trace.TraceFormat;
+import trace.WorkloadModel;
+
+public interface GeneratorCLIModel {
+  @Option(
+      shortName = "m",
+      longName = "model",
+      description = "The workload model: SEQUENTIAL, STRIDED, UNIFORM_RANDOM, ZIPFIAN, MIGRATORY,"
+          + " PRODUCER_CONSUMER, FALSE_SHARING, LOCK_PINGPONG, LOCK_ATOMIC or LOCK_LLSC."
+  )
+  public WorkloadModel getModel();
+
+  @Option(
+      defaultValue = "4",
+      shortName = "n",
+      longName = "cores",
+      description = "The number of cores (trace files) to generate."
+  )
+  public int getCores();
+
+  @Option(
+      defaultValue = "1000000",
+      shortName = "l",
+      longName = "accesses",
+      description = "The number of memory accesses in each core's trace."
+  )
+  public long getAccesses();
+
+  @Option(
+      defaultValue = "65536",
+      longName = "footprint",
+      description = "The size, in bytes, of the memory region each core accesses."
+  )
+  public long getFootprint();
+
+  @Option(
+      defaultValue = "16",
+      longName = "blockSize",
+      shortName = "bs",
+      description = "The cache block size, in bytes, that sharing patterns are laid out for."
+  )
+  public int getBlockSize();
+
+  @Option(
+      defaultValue = "64",
+      longName = "stride",
+      description = "The distance, in bytes, between consecutive accesses of the STRIDED model."
+  )
+  public int getStride();
+
+  @Option(
+      defaultValue = "0.3",
+      longName = "writeRatio",
+      shortName = "wr",
+      description = "The fraction of accesses that are stores, where the model allows it."
+  )
+  public double getWriteRatio();
+
+  @Option(
+      defaultValue = "0.99",
+      longName = "zipfExponent",
+      description = "The skew of the ZIPFIAN model, between 0 and 1."
+  )
+  public double getZipfExponent();
+
+  @Option(
+      longName = "shared",
+      description = "All cores access the same region instead of private ones."
+  )
+  public boolean isShared();
+
+  @Option(
+      defaultValue = "0",
+      longName = "computeEvery",
+      description = "Insert an OTHER instruction after every this many accesses (0 for never)."
+  )
+  public long getComputeEvery();
+
+  @Option(
+      defaultValue = "10",
+      longName = "computeCycles",
+      description = "The number of cycles each inserted OTHER instruction takes."
+  )
+  public long getComputeCycles();
+
+  @Option(
+      defaultValue = "0",
+      longName = "barrierEvery",
+      description = "Insert a barrier, which every core waits at until all of them reach it, after"
+          + " every this many accesses (0 for never)."
+  )
+  public long getBarrierEvery();
+
+  @Option(
+      defaultValue = "1",
+      longName = "seed",
+      description = "The seed of the generator. The same seed always produces the same traces."
+  )
+  public long getSeed();
+
+  @Option(
+      defaultValue = "TEXT",
+      longName = "format",
+      description = "The trace format to write: TEXT (.data) or BINARY (.bin)."
+  )
+  public TraceFormat getFormat();
+
+  @Option(
+      defaultValue = ".",
+      shortName = "o",
+      longName = "output",
+      description = "The directory to write the trace files to."
+  )
+  public String getOutput();
+
+  @Option(
+      helpRequest = true,
+      description = "Display help and exit.",
+      shortName = "h")
+  public boolean isHelp();
+}
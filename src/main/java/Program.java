@@ -1,26 +1,46 @@
 import bus.Bus;
+import bus.Topology;
 import com.lexicalscope.jewel.cli.ArgumentValidationException;
 import com.lexicalscope.jewel.cli.CliFactory;
 import statistics.BusStatistics;
+import statistics.PolicyComparison;
 import cache.*;
-import cache.coherence.CoherencePolicy;
-import javafx.util.Pair;
+import cache.coherence.Protocol;
+import cache.coherence.ProtocolParser;
+import monitoring.SimulationMonitor;
+import processor.MultiProcessor;
+import processor.PageTable;
+import processor.Processor;
+import processor.Synchronizer;
 import statistics.ProcessorStatistics;
+import statistics.TimeSeriesSampler;
+import trace.TraceFormat;
+import trace.TraceParser;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class Program {
   public static void main(String[] args) throws IOException {
+    // The "generate" subcommand writes synthetic traces instead of simulating:
+    if (args.length > 0 && args[0].equals("generate")) {
+      TraceGeneratorProgram.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+    // The "decode" subcommand prints a recorded event trace:
+    if (args.length > 0 && args[0].equals("decode")) {
+      EventDecoderProgram.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+
     CLIModel model = null;
     try {
       model = CliFactory.parseArguments(CLIModel.class, args);
@@ -59,6 +79,15 @@ public class Program {
       CacheProperties.setCacheSize(model.getCacheSize());
       CacheProperties.setBlockSize(model.getBlockSize());
       CacheProperties.setAssociativity(model.getAssociativity());
+      CacheProperties.setSectorSize(model.getSectorSize());
+      PageTable.setMapping(model.getPageMapping());
+      PageTable.setPageSize(model.getPageSize());
+      PageTable.setTlbEntries(model.getTlbEntries());
+      PageTable.setWalkCycles(model.getPageWalkCycles());
+      CacheProperties.setWriteBackBufferEntries(model.getWriteBackBuffer());
+      CacheProperties.setVictimCacheEntries(model.getVictimCache());
+      CacheProperties.setWritePolicy(model.getWritePolicy());
+      CacheProperties.setWriteBufferEntries(model.getWriteBuffer());
     } catch (Exception invalidCacheSetting) {
       Logger.getLogger(Program.class.getName())
           .log(Level.SEVERE, "Invalid cache configuration, exiting.");
@@ -66,20 +95,41 @@ public class Program {
       System.exit(0);
     }
 
+    // Read the protocol definition files:
+    List<Protocol> protocols = new ArrayList<>();
+    model.getPolicies().forEach(p -> protocols.add(p.getProtocol()));
+    if (model.isProtocolFiles()) {
+      for (String file : model.getProtocolFiles()) {
+        try {
+          protocols.add(ProtocolParser.parse(Paths.get(file)));
+        } catch (IOException e) {
+          Logger.getLogger(Program.class.getName())
+              .log(Level.SEVERE, "Invalid protocol definition, exiting: " + e.getMessage());
+          System.exit(0);
+        }
+      }
+    }
+
     // Parse the trace files' instructions:
     List<List<Instruction>> instructions = new ArrayList<>(traces.size());
     for (Path trace : traces) {
       Logger.getLogger(Program.class.getName())
           .log(Level.INFO, "Parsing instructions from " + trace);
-      instructions.add(parseTrace(trace));
+      instructions.add(TraceParser.parseTrace(trace));
     }
 
     Logger.getLogger(Program.class.getName()).log(Level.INFO, "Running the simulation.");
+    SimulationMonitor.register();
 
     // Run the simulation:
     final boolean silent = model.isSilent();
     final String tracePath = String.join(":", model.getFiles());
-    model.getPolicies().forEach(p -> simulate(instructions, p, silent, tracePath));
+    final CLIModel settings = model;
+    PolicyComparison comparison = new PolicyComparison();
+    protocols.forEach(p -> simulate(instructions, p, silent, tracePath, settings, comparison));
+    if (!silent && comparison.size() > 1) {
+      System.out.println(comparison.report());
+    }
   }
 
   private static List<Path> getMatchingFiles(List<String> tracePatterns) {
@@ -92,7 +142,7 @@ public class Program {
       } else if (Files.isDirectory(p)) {
         try {
           traces.addAll(Files.list(p)
-              .filter(sub -> sub.toString().endsWith(".data"))
+              .filter(sub -> TraceFormat.of(sub) != null)
               .collect(Collectors.toCollection(ArrayList::new)));
         } catch (IOException e) {
           e.printStackTrace();
@@ -106,26 +156,116 @@ public class Program {
     return traces;
   }
 
+  /**
+   * Inserts the coherence policy into the file name, before its extension.
+   */
+  private static Path withPolicy(Path file, Protocol p) {
+    String name = file.getFileName().toString();
+    int dot = name.lastIndexOf('.');
+    String withPolicy = dot < 0
+        ? name + "-" + p
+        : name.substring(0, dot) + "-" + p + name.substring(dot);
+    return file.resolveSibling(withPolicy);
+  }
+
   private static void simulate(List<List<Instruction>> instructions,
-                               CoherencePolicy p,
+                               Protocol p,
                                boolean silent,
-                               String tracePath) {
+                               String tracePath,
+                               CLIModel settings,
+                               PolicyComparison comparison) {
+    Bus.setArbitrationPolicy(settings.getArbitration());
+    Bus.setMemoryUpdatePolicy(settings.getMemoryUpdate());
+    Bus.setInterventionLatency(settings.getInterventionLatency());
+    Bus.setFlushBandwidth(settings.getFlushBandwidth());
+    Bus.setSockets(settings.getSockets());
+    Bus.setHomePolicy(settings.getHomePolicy());
+    Bus.setSocketLink(settings.getLinkLatency(), settings.getLinkBandwidth());
+    Bus.setTopology(settings.getInterconnect(), settings.getHopLatency(),
+        settings.getNocBandwidth());
     Bus.reset();
+    Bus.getLineProfiler().setEnabled(settings.getProfileLines() > 0);
     Processor.reset();
+    PageTable.reset();
+    if (settings.getFalseSharing() > 0) {
+      Bus.getFalseSharingDetector().enable(instructions.size());
+    } else {
+      Bus.getFalseSharingDetector().disable();
+    }
     Logger.getLogger(Program.class.getName()).log(Level.INFO, "Running with coherence policy " + p);
-    CacheProperties.setCoherencePolicy(p);
+    CacheProperties.setProtocol(p);
     MultiProcessor multiProcessor = new MultiProcessor();
     instructions.forEach(multiProcessor::addProcessorFor);
+    multiProcessor.setWarmup(settings.getWarmup(), settings.getWarmupUnit(),
+        settings.isFunctionalWarmup());
+    TimeSeriesSampler sampler = null;
+    if (settings.getSampleInterval() > 0) {
+      Path sampleFile = withPolicy(Paths.get(settings.getSampleFile()), p);
+      try {
+        sampler = new TimeSeriesSampler(sampleFile, settings.getSampleInterval());
+        multiProcessor.setSampler(sampler);
+      } catch (IOException e) {
+        Logger.getLogger(Program.class.getName())
+            .log(Level.SEVERE, "Could not open the sample file " + sampleFile, e);
+      }
+    }
+    if (settings.isEventTrace()) {
+      Path eventFile = withPolicy(Paths.get(settings.getEventTrace()), p);
+      try {
+        Bus.getEventRecorder().open(eventFile, settings.getEventCapacity());
+      } catch (IOException e) {
+        Logger.getLogger(Program.class.getName())
+            .log(Level.SEVERE, "Could not open the event trace " + eventFile, e);
+      }
+    }
     multiProcessor.simulateProgram();
+    if (sampler != null) {
+      try {
+        sampler.close();
+      } catch (IOException e) {
+        Logger.getLogger(Program.class.getName())
+            .log(Level.SEVERE, "Could not finish writing the samples.", e);
+      }
+    }
+    try {
+      Bus.getEventRecorder().close();
+    } catch (IOException e) {
+      Logger.getLogger(Program.class.getName())
+          .log(Level.SEVERE, "Could not finish writing the event trace.", e);
+    }
 
     BusStatistics busStats = Bus.getStatistics();
     List<ProcessorStatistics> procStats = multiProcessor.getStatistics();
     ProcessorStatistics summary = procStats.stream()
         .reduce(new ProcessorStatistics(),ProcessorStatistics::combine);
+    comparison.add(p.getName(), busStats);
 
     if (!silent) {
       System.out.println(busStats.toString());
+      System.out.println(busStats.getArbitrationReport());
+      if (Bus.getTopology() == Topology.BUS && Bus.getSockets() > 1) {
+        System.out.println(busStats.getUtilizationReport("socket"));
+      }
+      if (Bus.getTopology() != Topology.BUS) {
+        System.out.println(busStats.getUtilizationReport("router"));
+        System.out.println(busStats.getNetworkReport(Bus.getLinkNames()));
+      }
       System.out.println(summary.toString());
+      Synchronizer synchronizer = multiProcessor.getSynchronizer();
+      if (synchronizer.getBarriersCompleted() > 0 || synchronizer.getDeadlocks() > 0) {
+        System.out.println("Barriers completed: " + synchronizer.getBarriersCompleted()
+            + "\nMismatched barriers or events released: " + synchronizer.getDeadlocks());
+      }
+      for (ProcessorStatistics stats : procStats) {
+        System.out.println("Processor " + stats.getId() + ":\n" + stats.getCpiStack()
+            + "\n" + stats.getLatencyReport());
+      }
+      if (Bus.getLineProfiler().isEnabled()) {
+        System.out.println(Bus.getLineProfiler().report(settings.getProfileLines()));
+      }
+      if (Bus.getFalseSharingDetector().isEnabled()) {
+        System.out.println(Bus.getFalseSharingDetector().report(settings.getFalseSharing()));
+      }
     } else {
       String output = String.join(" ",
           p.toString(),
@@ -145,36 +285,4 @@ public class Program {
       System.out.print(output);
     }
   }
-
-  private static List<Instruction> parseTrace(Path trace) throws IOException {
-    Pattern pattern = Pattern.compile("(\\d)\\s+0x([\\d a-f]+)\\s*");
-    return Files.lines(trace)
-        .map(instr -> {
-          Matcher m = pattern.matcher(instr);
-          if (m.matches()) {
-            return new Pair<>(m.group(1), m.group(2));
-          } else {
-            Logger.getLogger(Program.class.getName())
-                .log(Level.WARNING, "Could not parseTrace instruction: {}", instr);
-            return new Pair<>("3", "-1");
-          }
-        })
-        .map(instr -> {
-          switch (instr.getKey()) {
-            case "0":
-              return new Instruction(InstructionType.LOAD, Long.parseLong(instr.getValue(), 16));
-            case "1":
-              return new Instruction(InstructionType.STORE, Long.parseLong(instr.getValue(), 16));
-            case "2":
-              return new Instruction(InstructionType.OTHER, Long.parseLong(instr.getValue(), 16));
-            default:
-              Logger.getLogger(Program.class.getName())
-                  .log(Level.WARNING, "Invalid instruction: {}, cache.Address: {}",
-                      new Object[] {instr.getKey(), instr.getValue()});
-              return new Instruction(InstructionType.INVALID, Long.parseLong(instr.getValue(), 16));
-
-          }
-        })
-        .collect(Collectors.toCollection(ArrayList::new));
-  }
 }
@@ -0,0 +1,51 @@
+import com.lexicalscope.jewel.cli.ArgumentValidationException;
+import com.lexicalscope.jewel.cli.CliFactory;
+import trace.TraceGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes synthetic trace files, one per core (the "generate" subcommand).
+ */
+public class TraceGeneratorProgram {
+  public static void main(String[] args) throws IOException {
+    GeneratorCLIModel model = null;
+    try {
+      model = CliFactory.parseArguments(GeneratorCLIModel.class, args);
+    } catch (ArgumentValidationException e) {
+      System.out.println(e.getMessage());
+      System.exit(0);
+    }
+
+    TraceGenerator generator = new TraceGenerator(model.getModel(), model.getCores());
+    generator.setBlockSize(model.getBlockSize());
+    generator.setFootprint(model.getFootprint());
+    generator.setStride(model.getStride());
+    generator.setWriteRatio(model.getWriteRatio());
+    generator.setZipfExponent(model.getZipfExponent());
+    generator.setShared(model.isShared());
+    generator.setComputeGap(model.getComputeEvery(), model.getComputeCycles());
+    generator.setBarrierInterval(model.getBarrierEvery());
+    generator.setSeed(model.getSeed());
+
+    Path output = Paths.get(model.getOutput());
+    Files.createDirectories(output);
+
+    Logger.getLogger(TraceGeneratorProgram.class.getName()).log(Level.INFO,
+        "Generating " + model.getCores() + " " + model.getModel() + " traces in " + output);
+    long start = System.nanoTime();
+    List<Path> files = generator.writeAll(output, model.getAccesses(), model.getFormat());
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    files.forEach(System.out::println);
+    Logger.getLogger(TraceGeneratorProgram.class.getName()).log(Level.INFO,
+        "Generated " + model.getAccesses() * files.size() + " accesses in " + elapsedMillis
+            + " ms.");
+  }
+}
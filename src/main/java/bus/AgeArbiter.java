@@ -0,0 +1,48 @@
+package bus;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Grants the bus to the job that was enqueued first. Jobs enqueued in the same cycle go to the core
+ * that was granted the bus least recently, rather than always to the lowest core ID.
+ */
+public class AgeArbiter extends PerCoreArbiter {
+  private long[] lastGrant = new long[0]; // The grant number at which each core was last granted.
+  private long grants = 0;
+
+  @Override
+  int chooseCore(Predicate<BusJob> eligible) {
+    if (lastGrant.length < queues.size()) {
+      lastGrant = Arrays.copyOf(lastGrant, queues.size());
+    }
+
+    int chosen = -1;
+    for (int core = 0; core < queues.size(); core++) {
+      BusJob head = queues.get(core).peek();
+      if (isWaiting(core, eligible)) {
+        if (chosen < 0) {
+          chosen = core;
+        } else {
+          long headAge = head.getEnqueuedAtCycle();
+          long chosenAge = queues.get(chosen).peek().getEnqueuedAtCycle();
+          if (headAge < chosenAge
+              || (headAge == chosenAge && lastGrant[core] < lastGrant[chosen])) {
+            chosen = core;
+          }
+        }
+      }
+    }
+    if (chosen >= 0) {
+      lastGrant[chosen] = ++grants;
+    }
+    return chosen;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    lastGrant = new long[0];
+    grants = 0;
+  }
+}
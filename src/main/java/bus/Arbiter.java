@@ -0,0 +1,29 @@
+package bus;
+
+import java.util.function.Predicate;
+
+/**
+ * Decides the order in which queued jobs are granted the bus.
+ */
+public interface Arbiter {
+  /**
+   * Adds a job to the queue of jobs waiting for the bus.
+   */
+  void add(BusJob job);
+
+  /**
+   * Removes and returns the job to grant the bus to next, passing over the jobs that are not
+   * eligible to start, or returns null if no waiting job is. A core's jobs are granted in the
+   * order they were enqueued, so one held job holds its core's later jobs. Only called when the
+   * queue is not empty.
+   */
+  BusJob next(Predicate<BusJob> eligible);
+
+  int size();
+
+  default boolean isEmpty() {
+    return size() == 0;
+  }
+
+  void clear();
+}
@@ -0,0 +1,25 @@
+package bus;
+
+/**
+ * The bus arbitration policies that can be simulated.
+ */
+public enum ArbitrationPolicy {
+  FIFO, // Jobs are granted in the order they were enqueued.
+  ROUND_ROBIN, // Cores take turns, starting after the core granted last.
+  FIXED_PRIORITY, // The core with the lowest ID always goes first.
+  AGE; // The oldest job goes first, with ties going to the core granted least recently.
+
+  public Arbiter createArbiter() {
+    switch (this) {
+      case ROUND_ROBIN:
+        return new RoundRobinArbiter();
+      case FIXED_PRIORITY:
+        return new FixedPriorityArbiter();
+      case AGE:
+        return new AgeArbiter();
+      case FIFO:
+      default:
+        return new FifoArbiter();
+    }
+  }
+}
@@ -1,19 +1,55 @@
 package bus;
 
 import cache.Cache;
+import cache.CycleCountdown;
 import cache.Address;
 import cache.coherence.CoherenceState;
+import cache.CacheProperties;
+import cache.WriteBuffer;
+import processor.PageTable;
 import statistics.BusStatistics;
+import statistics.EventRecorder;
+import statistics.EventType;
+import statistics.FalseSharingDetector;
+import statistics.LineProfiler;
 
 import java.util.*;
 
 public class Bus {
-  private static Deque<BusJob> jobQueue = new ArrayDeque<>();
+  private static ArbitrationPolicy arbitrationPolicy = ArbitrationPolicy.FIFO;
 
   /*
-    The job currently using the bus.
+   * Sockets: the caches are split evenly between the sockets in ID order, and each socket has a
+   * bus of its own for its caches' jobs. Snoops reach the caches of every socket, but data,
+   * invalidations and updates crossing to another socket pay for the link between the sockets,
+   * as does memory held in another socket. Other sockets are only snooped over the link when they
+   * hold the block, as a snoop filter would allow. Jobs of different sockets for the same block
+   * are ordered by when they finish, as the state changes of a job take effect then.
    */
-  private static BusJob currentJob = BusJob.EMPTY_JOB;
+  private static int sockets = 1;
+  private static SnoopDomain[] domains = { new SnoopDomain(arbitrationPolicy) };
+  private static int linkLatency = 40;
+  private static int linkBandwidth = 16;
+  private static SocketLink link = new SocketLink(linkLatency, linkBandwidth);
+  private static HomePolicy homePolicy = HomePolicy.INTERLEAVE;
+  private static final Map<Long, Integer> firstTouchHomes = new HashMap<>(); // By page.
+
+  /*
+   * A network on chip in place of the buses: every cache has a router, and its jobs are carried
+   * out alongside the other caches' jobs. The blocks are sliced over the caches by address, and a
+   * block's home node keeps its directory entry and reaches memory. A job sends its request to the
+   * home node, which forwards it to a cache supplying the data or reads memory, and sends the
+   * invalidations or updates to the other caches holding the block, which acknowledge them to the
+   * requester. The caches still see every job's snoops, but are only sent messages for the blocks
+   * they hold, as a directory would allow. The home node takes a block's jobs one at a time, so a
+   * job waits while another cache's job for the block is in flight. The sockets do not apply.
+   */
+  private static Topology topology = Topology.BUS;
+  private static int hopLatency = 2;
+  private static int networkBandwidth = 16;
+  private static Network network = null; // Built as the caches are attached.
+  private static final int CONTROL_BYTES = CacheProperties.WORD_SIZE; // A message's address.
+  private static final int NO_REQUEST = -1; // A job's request has not been sent to the home node.
 
   /**
    * The caches attached to the bus.
@@ -25,59 +61,436 @@ public class Bus {
    */
   private static final BusStatistics stats = new BusStatistics();
 
-  private static boolean flushing = false; // Is the bus currently being used to flush to memory?
-  private static FlushJob flushJob;
+  /**
+   * Optional per-block statistics, disabled by default.
+   */
+  private static final LineProfiler lineProfiler = new LineProfiler();
+
+  /**
+   * Optional word-level false sharing detection, disabled by default.
+   */
+  private static final FalseSharingDetector falseSharingDetector = new FalseSharingDetector();
+
+  /**
+   * Optional binary recording of coherence events, disabled until it is opened.
+   */
+  private static final EventRecorder eventRecorder = new EventRecorder();
+
+  private static int flushBandwidth = 1; // The number of flushes memory writes at a time.
+  private static FlushQueue flushQueue = new FlushQueue(flushBandwidth); // The waiting flushes.
+
+  /*
+   * Interventions: a cache holding a dirty block supplies it to the requester after
+   * interventionLatency cycles plus the transfer, and memory is updated according to the policy.
+   */
+  private static MemoryUpdatePolicy memoryUpdatePolicy = MemoryUpdatePolicy.FLUSH;
+  private static int interventionLatency = 0;
+  // The blocks waiting for a lazy memory update, in order, and the progress of the first:
+  private static final Set<Long> lazyUpdates = new LinkedHashSet<>();
+  private static CycleCountdown lazyUpdateCountdown = new CycleCountdown(0);
+
+  /*
+   * The caches' write-back buffers are drained one victim at a time in idle bus cycles of their
+   * sockets, taking the caches in turn:
+   */
+  private static Cache drainingCache = null; // The cache whose victim is being written.
+  private static long drainingBlock = 0L; // The block address of the victim being written.
+  private static int nextDrainCache = 0; // The index of the cache to drain next.
+  private static CycleCountdown drainCountdown = new CycleCountdown(0);
+  // The caches' write buffers are drained the same way, after the write-back buffers:
+  private static Cache storingCache = null; // The cache whose stores are being written.
+  private static WriteBuffer.Entry storingEntry = null; // The block of stores being written.
+  private static int nextStoreCache = 0; // The index of the cache whose stores to write next.
+  private static CycleCountdown storeCountdown = new CycleCountdown(0);
 
   private static int cycleCounter = 0;
 
+  /*
+   * In functional mode, jobs complete the moment they are enqueued and flushes are applied
+   * immediately, so coherence state evolves without modelling any bus timing (used for warm-up).
+   */
+  private static boolean functional = false;
+
   /*
    * The number of cycles it takes to perform certain actions over the bus:
    */
   public static final int READ_FROM_MEM_CYCLES = 100; // It takes 100 cycles to read a block from memory.
   public static final int WRITE_TO_MEM_CYCLES = 100; // It takes 100 cycles to write a block to memory.
   public static final int READ_WORD_CYCLES = 1; // It takes one cycle to send one word over the bus.
+  // A locked job holds the bus one more word cycle for the atomic to modify and write its word:
+  public static final int LOCKED_WRITE_CYCLES = READ_WORD_CYCLES;
 
   public static void tick() {
-    if (flushing) {
-      // Prioritize flushing data when necessary
-      flushJob.tick();
-      if (flushJob.finished()) {
-        flushing = false;
+    // Flushes are written to memory alongside the bus transactions:
+    if (flushQueue.tick()) {
+      stats.incrementFlushCycles();
+    }
+
+    // The bus is busy in a cycle that any socket's bus is busy, and idle when all of them are:
+    boolean anyBusy = false;
+    boolean anyIdle = false;
+    boolean allIdle = true;
+    for (int d = 0; d < domains.length; d++) {
+      domains[d].tick();
+      if (domains[d].isBusy()) {
+        anyBusy = true;
+        stats.incrementDomainBusyCycles(d);
       }
-      cycleCounter++;
+      anyIdle |= domains[d].isIdle();
+      allIdle &= domains[d].isIdle();
+    }
+    if (anyBusy) {
+      stats.incrementBusyCycles();
+    } else if (allIdle) {
+      stats.incrementIdleCycles();
+    }
+    stats.incrementCycles();
+    if (anyIdle && !tickWriteBackDrain() && !tickWriteBufferDrain()) {
+      tickLazyUpdate();
+    }
+
+    cycleCounter++;
+  }
+
+  /*
+   * Spends an idle bus cycle writing the oldest block waiting for a lazy memory update.
+   */
+  private static void tickLazyUpdate() {
+    if (lazyUpdates.isEmpty()) {
       return;
     }
+    if (lazyUpdateCountdown.isFinished()) {
+      lazyUpdateCountdown = new CycleCountdown(WRITE_TO_MEM_CYCLES);
+    }
+    lazyUpdateCountdown.tick();
+    if (lazyUpdateCountdown.isFinished()) {
+      Iterator<Long> oldest = lazyUpdates.iterator();
+      oldest.next();
+      oldest.remove();
+      stats.setPendingMemoryUpdates(lazyUpdates.size());
+      stats.incrementLazyMemoryUpdates();
+      stats.addBytesWritten(CacheProperties.getBlockSize());
+    }
+  }
 
-    // Get the next job if the current job is isFinished:
-    if (currentJob.isFinished()) {
-      // First check if it has a successor:
-      currentJob.getSuccessor().ifPresent(successor -> {
-        currentJob = successor;
-        currentJob.start();
-        });
+  /*
+   * Spends an idle bus cycle writing a victim from a write-back buffer to memory, returning false
+   * if no buffer had a victim waiting. A victim taken over by another cache's write while it is
+   * being written is dropped from the buffer already, and is not counted.
+   */
+  private static boolean tickWriteBackDrain() {
+    if (drainingCache != null && !isIdle(drainingCache)) {
+      return false; // Wait for the socket's bus to be idle again.
+    }
+    if (drainingCache == null) {
+      for (int i = 0; i < caches.size() && drainingCache == null; i++) {
+        Cache cache = caches.get((nextDrainCache + i) % caches.size());
+        if (isIdle(cache) && !cache.getWriteBackBuffer().isEmpty()) {
+          drainingCache = cache;
+          drainingBlock = cache.getWriteBackBuffer().oldest();
+          nextDrainCache = (nextDrainCache + i + 1) % caches.size();
+          drainCountdown = new CycleCountdown(WRITE_TO_MEM_CYCLES);
+        }
+      }
+      if (drainingCache == null) {
+        return false;
+      }
+    }
+    drainCountdown.tick();
+    if (drainCountdown.isFinished()) {
+      if (drainingCache.getWriteBackBuffer().remove(drainingBlock)) {
+        stats.incrementWriteBackBufferDrains();
+        stats.addBytesWritten(CacheProperties.getBlockSize());
+        homeAccessCycles(drainingCache, drainingBlock, CacheProperties.getBlockSize(), false);
+      }
+      drainingCache = null;
+    }
+    return true;
+  }
+
+  /*
+   * Spends an idle bus cycle writing a block of stores from a write buffer to memory, returning
+   * false if no buffer had stores ready. Stores that bypassed the cache invalidate the other copies
+   * of the block once they are written.
+   */
+  private static boolean tickWriteBufferDrain() {
+    if (storingEntry != null && !isIdle(storingCache)) {
+      return false; // Wait for the socket's bus to be idle again.
+    }
+    if (storingEntry == null) {
+      for (int i = 0; i < caches.size() && storingEntry == null; i++) {
+        Cache cache = caches.get((nextStoreCache + i) % caches.size());
+        if (!isIdle(cache)) {
+          continue;
+        }
+        storingEntry = cache.getWriteBuffer().takeNext();
+        if (storingEntry != null) {
+          storingCache = cache;
+          nextStoreCache = (nextStoreCache + i + 1) % caches.size();
+          storeCountdown = new CycleCountdown(WRITE_TO_MEM_CYCLES);
+        }
+      }
+      if (storingEntry == null) {
+        return false;
+      }
+    }
+    storeCountdown.tick();
+    if (storeCountdown.isFinished()) {
+      if (storingEntry.isBypassed()) {
+        broadcastRemoteWrite(storingCache, storingEntry.getAddress());
+      }
+      int bytes = storingEntry.getWordCount() * CacheProperties.WORD_SIZE;
+      stats.addBytesWritten(bytes);
+      stats.recordWriteBufferWrite(storingEntry.isFullLine());
+      homeAccessCycles(storingCache, storingEntry.getAddress().getBlockAddress(), bytes, false);
+      storingEntry = null;
+      storingCache = null;
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether a block of the cache's buffered stores is being written to memory.
+   */
+  public static boolean isWritingStoresOf(Cache cache) {
+    return storingCache == cache;
+  }
+
+  /**
+   * Returns the number of cycles a BusRd takes to bring the block in, and counts where the data
+   * came from: a dirty owner (an intervention), a clean copy in another cache or memory.
+   */
+  static int dataTransferCycles(Cache local, Address address) {
+    return dataTransferCycles(local, address, NO_REQUEST);
+  }
+
+  /**
+   * Returns the number of cycles a BusRdX takes to bring the block in while the copies in other
+   * sockets are invalidated. On a network on chip, the one request sent to the home node both
+   * finds the data and sends the invalidations.
+   */
+  static int exclusiveTransferCycles(Cache local, Address address) {
+    int atHome = NO_REQUEST;
+    if (network != null && !local.getWriteBackBuffer().contains(address.getBlockAddress())) {
+      atHome = requestAtHome(local, address);
+    }
+    return Math.max(dataTransferCycles(local, address, atHome),
+        remoteSnoopCycles(local, address, atHome));
+  }
+
+  /*
+   * Brings the block in as dataTransferCycles does, given the cycle the job's request reached the
+   * home node of a network on chip, or NO_REQUEST if it is still to be sent.
+   */
+  private static int dataTransferCycles(Cache local, Address address, int atHome) {
+    if (local.getWriteBackBuffer().contains(address.getBlockAddress())) {
+      // The victim is reclaimed from the cache's own write-back buffer, which still writes it back:
+      stats.incrementWriteBackBufferReclaims();
+      return CacheProperties.getWordsPerSector();
+    }
+    if (remoteCacheSupplies(local, address)) {
+      boolean dirty = caches.stream()
+          .anyMatch(c -> c.getId() != local.getId() && c.isDirty(address));
+      int cycles = CacheProperties.getWordsPerSector();
+      if (dirty) {
+        stats.incrementInterventions();
+        cycles += interventionLatency;
+      } else {
+        stats.incrementCacheToCacheTransfers();
+      }
+      if (network != null) {
+        // Forwarded by the home node to the supplier, a dirty owner if there is one:
+        Cache supplier = caches.stream()
+            .filter(c -> c.getId() != local.getId() && c.suppliesData(address))
+            .filter(c -> !dirty || c.isDirty(address))
+            .findFirst().orElse(local);
+        int home = homeNode(address.getBlockAddress());
+        int forwarded = network.send(home, supplier.getId(), CONTROL_BYTES,
+            atHome != NO_REQUEST ? atHome : requestAtHome(local, address));
+        return network.send(supplier.getId(), local.getId(), CacheProperties.getSectorSize(),
+            forwarded + (dirty ? interventionLatency : 0));
+      }
+      if (sockets > 1 && caches.stream().noneMatch(c -> c.getId() != local.getId()
+          && socketOf(c) == socketOf(local) && c.suppliesData(address))) {
+        // Only a cache in another socket has the data, it crosses the link:
+        stats.incrementCrossSocketTransfers();
+        cycles += link.transfer(CacheProperties.getSectorSize());
+      }
+      return cycles;
+    }
+    stats.incrementMemoryReads();
+    if (network != null) {
+      // The home node reads memory and sends the data back:
+      int home = homeNode(address.getBlockAddress());
+      stats.recordMemoryAccess(true, home != local.getId());
+      return network.send(home, local.getId(), CacheProperties.getSectorSize(),
+          (atHome != NO_REQUEST ? atHome : requestAtHome(local, address)) + READ_FROM_MEM_CYCLES);
+    }
+    return READ_FROM_MEM_CYCLES
+        + homeAccessCycles(local, address.getBlockAddress(), CacheProperties.getSectorSize(), true);
+  }
 
-      // Next check the regular queue:
-      if (currentJob.isFinished() && !jobQueue.isEmpty()) {
-        currentJob = jobQueue.pop();
-        currentJob.start();
+  /**
+   * Returns the number of cycles it takes to send a word invalidating or updating the block to
+   * the other sockets holding it, which is 0 if no other socket holds the block. On a network on
+   * chip, the word goes through the block's home node to every other cache holding the block,
+   * which acknowledges it to the requester. Sent alongside the data the job brings in, if any.
+   */
+  static int remoteSnoopCycles(Cache local, Address address) {
+    return remoteSnoopCycles(local, address, NO_REQUEST);
+  }
+
+  /*
+   * Sends the word as remoteSnoopCycles does, given the cycle the job's request reached the home
+   * node of a network on chip, or NO_REQUEST if it is still to be sent.
+   */
+  private static int remoteSnoopCycles(Cache local, Address address, int atHome) {
+    if (network != null) {
+      int home = homeNode(address.getBlockAddress());
+      int cycles = 0;
+      for (Cache c : caches) {
+        if (c.getId() != local.getId() && c.contains(address)) {
+          if (atHome == NO_REQUEST) {
+            atHome = requestAtHome(local, address);
+          }
+          int received = network.send(home, c.getId(), CacheProperties.WORD_SIZE, atHome);
+          cycles = Math.max(cycles,
+              network.send(c.getId(), local.getId(), CONTROL_BYTES, received));
+        }
       }
+      return cycles;
     }
+    if (sockets == 1 || caches.stream()
+        .noneMatch(c -> socketOf(c) != socketOf(local) && c.contains(address))) {
+      return 0;
+    }
+    stats.incrementCrossSocketSnoops();
+    return link.transfer(CacheProperties.WORD_SIZE);
+  }
+
+  /*
+   * Sends the job's request to the block's home node, returning the cycle it arrives in.
+   */
+  private static int requestAtHome(Cache local, Address address) {
+    return network.send(local.getId(), homeNode(address.getBlockAddress()), CONTROL_BYTES, 0);
+  }
+
+  /**
+   * Returns the number of cycles it takes to write the bytes of a victim back to memory.
+   */
+  static int memoryWriteCycles(Cache local, Address address, int bytes) {
+    return WRITE_TO_MEM_CYCLES + homeAccessCycles(local, address.getBlockAddress(), bytes, false);
+  }
+
+  /*
+   * Counts an access by the cache to the memory of the block, returning the cycles the link adds
+   * to it: none if the block's home is the cache's own socket, the transfer of the bytes over the
+   * link otherwise.
+   */
+  private static int homeAccessCycles(Cache cache, long blockAddress, int bytes, boolean read) {
+    if (network != null) {
+      int home = homeNode(blockAddress);
+      stats.recordMemoryAccess(read, home != cache.getId());
+      return read ? network.send(home, cache.getId(), bytes, 0)
+          : network.send(cache.getId(), home, bytes, 0);
+    }
+    if (sockets == 1 || homeOf(cache, blockAddress) == socketOf(cache)) {
+      stats.recordMemoryAccess(read, false);
+      return 0;
+    }
+    stats.recordMemoryAccess(read, true);
+    return link.transfer(bytes);
+  }
 
-    if (!currentJob.isFinished()) {
-      currentJob.tick();
+  /*
+   * Returns the socket whose memory holds the block, making it the accessing cache's socket if
+   * the block's page is touched first under a first-touch policy.
+   */
+  private static int homeOf(Cache cache, long blockAddress) {
+    long page = Long.divideUnsigned(blockAddress << CacheProperties.getOffsetSize(),
+        PageTable.getPageSize());
+    if (homePolicy == HomePolicy.FIRST_TOUCH) {
+      return firstTouchHomes.computeIfAbsent(page, p -> socketOf(cache));
     }
+    return (int)Long.remainderUnsigned(page, sockets);
+  }
 
-    cycleCounter++;
+  /*
+   * Returns the node of the network on chip whose slice of the address space holds the block.
+   */
+  private static int homeNode(long blockAddress) {
+    return (int)Long.remainderUnsigned(blockAddress, caches.size());
+  }
+
+  /**
+   * Returns the socket the cache belongs to. The caches are split evenly between the sockets in
+   * ID order, so every cache must have been attached.
+   */
+  public static int socketOf(Cache cache) {
+    return sockets == 1 ? 0 : (int)((long)cache.getId() * sockets / caches.size());
+  }
+
+  /*
+   * Returns the index of the bus (or router) carrying out the cache's jobs.
+   */
+  private static int domainOf(Cache cache) {
+    return network != null ? cache.getId() : socketOf(cache);
+  }
+
+  private static boolean isIdle(Cache cache) {
+    return domains[domainOf(cache)].isIdle();
+  }
+
+  /**
+   * Returns whether a flush of the block is waiting to be written or being written.
+   */
+  static boolean isFlushing(Address address) {
+    return flushQueue.contains(address);
+  }
+
+  /**
+   * Returns whether another router of the network on chip is carrying out a job for the block.
+   * The block's home node orders its jobs: one waits until the job in flight is done.
+   */
+  static boolean isServedElsewhere(SnoopDomain domain, Address address) {
+    if (network == null) {
+      return false;
+    }
+    for (SnoopDomain other : domains) {
+      if (other != domain && other.isServing(address)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   public static void enqueue(BusJob job) {
-    jobQueue.addLast(job);
+    if (functional) {
+      job.complete();
+    } else {
+      domains[domainOf(job.getOrigin())].enqueue(job);
+    }
+  }
+
+  /**
+   * Returns the number of jobs waiting for the bus, summed over the sockets' buses.
+   */
+  public static int getQueueDepth() {
+    return Arrays.stream(domains).mapToInt(SnoopDomain::getQueueDepth).sum();
   }
 
   public static boolean remoteCacheContains(Cache local, Address address) {
     return numRemoteCachesContaining(local, address) > 0;
   }
 
+  /**
+   * Returns whether another cache would supply the block's data for a read, cache to cache.
+   */
+  public static boolean remoteCacheSupplies(Cache local, Address address) {
+    return caches.stream()
+        .anyMatch(c -> c.getId() != local.getId() && c.suppliesData(address));
+  }
+
   private static int numRemoteCachesContaining(Cache local, Address address) {
     /*
        The long to int cast's safe since there will never be more than int.max number of caches.
@@ -89,21 +502,80 @@ public class Bus {
   }
 
   public static void broadcastRemoteWrite(Cache origin, Address address)  {
+    lineProfiler.recordInvalidationSent(address);
+    if (falseSharingDetector.isEnabled()) {
+      recordSharing(origin, address, true);
+    }
     caches.stream()
         .filter(c -> c.getId() != origin.getId()) // A cache doesn't broadcast to itself.
-        .forEach(c -> c.remoteWrite(address));
+        .forEach(c -> {
+          CoherenceState before = eventRecorder.isEnabled() ? c.getState(address) : null;
+          c.remoteWrite(address);
+          recordSnoop(c, address, EventType.SNOOP_RDX, before);
+        });
   }
 
   public static void broadcastRemoteRead(Cache origin, Address address)  {
     caches.stream()
         .filter(c -> c.getId() != origin.getId()) // A cache doesn't broadcast to itself.
-        .forEach(c -> c.remoteRead(address));
+        .forEach(c -> {
+          CoherenceState before = eventRecorder.isEnabled() ? c.getState(address) : null;
+          c.remoteRead(address);
+          recordSnoop(c, address, EventType.SNOOP_RD, before);
+        });
   }
 
   public static void broadcastRemoteUpdate(Cache origin, Address address) {
+    lineProfiler.recordUpdate(address);
+    if (falseSharingDetector.isEnabled()) {
+      recordSharing(origin, address, false);
+    }
     caches.stream()
         .filter(c -> c.getId() != origin.getId()) // A cache doesn't broadcast to itself.
-        .forEach(c -> c.remoteUpdate(address));
+        .forEach(c -> {
+          CoherenceState before = eventRecorder.isEnabled() ? c.getState(address) : null;
+          c.remoteUpdate(address);
+          recordSnoop(c, address, EventType.SNOOP_UPD, before);
+        });
+  }
+
+  /*
+   * Records a snoop that found the address in the cache. Snoops of caches without a copy are not
+   * recorded.
+   */
+  private static void recordSnoop(Cache cache, Address address, EventType type,
+                                  CoherenceState before) {
+    if (eventRecorder.isEnabled() && before != CoherenceState.I) {
+      eventRecorder.record(cycleCounter, cache.getId(), type, address, before,
+          cache.getState(address));
+    }
+  }
+
+  /*
+   * Passes a write's effect on every remote copy of the address to the false sharing detector. An
+   * invalidated copy has to be read in again over the bus (and written back first if it is dirty),
+   * while an update costs the word sent, charged once per broadcast.
+   */
+  private static void recordSharing(Cache origin, Address address, boolean invalidating) {
+    boolean updateCharged = false;
+    for (Cache c : caches) {
+      if (c.getId() != origin.getId() && c.contains(address)) {
+        if (invalidating) {
+          int bytes = CacheProperties.getBlockSize();
+          int cycles = CacheProperties.getWordsPerBlock() * READ_WORD_CYCLES;
+          if (c.isDirty(address)) {
+            bytes += CacheProperties.getBlockSize();
+            cycles += WRITE_TO_MEM_CYCLES;
+          }
+          falseSharingDetector.recordInvalidation(address, origin.getId(), c.getId(), bytes,
+              cycles);
+        } else {
+          falseSharingDetector.recordUpdate(address, origin.getId(), c.getId(),
+              updateCharged ? 0 : CacheProperties.WORD_SIZE, updateCharged ? 0 : READ_WORD_CYCLES);
+          updateCharged = true;
+        }
+      }
+    }
   }
 
   /**
@@ -113,13 +585,46 @@ public class Bus {
    * @param finalState the state the block will be in once it is done being flushed.
    */
   public static void flush(Cache cache, Address address, CoherenceState finalState) {
-    cache.startFlush(address); // Make the cache block while flushing if it isn't already blocking.
-    if (!flushing) {
-      flushJob = new FlushJob(address);
-      flushing = true;
+    lineProfiler.recordFlush(address);
+    if (eventRecorder.isEnabled()) {
+      eventRecorder.record(cycleCounter, cache.getId(), EventType.FLUSH, address,
+          cache.getState(address), finalState);
+    }
+    if (functional) {
+      cache.finishFlush(address, finalState);
+      stats.incrementFlushes();
+      return;
+    }
+    switch (memoryUpdatePolicy) {
+      case PARALLEL:
+        // Memory was written along with the cache-to-cache transfer:
+        homeAccessCycles(cache, address.getBlockAddress(), cache.getWriteBackBytes(address), false);
+        cache.cleanSectors(address);
+        cache.setState(address, finalState);
+        stats.incrementParallelMemoryUpdates();
+        return;
+      case LAZY:
+        if (lazyUpdates.add(address.getBlockAddress())) {
+          stats.setPendingMemoryUpdates(lazyUpdates.size());
+          // Counted now, the writer is not known once the update is written:
+          homeAccessCycles(cache, address.getBlockAddress(), CacheProperties.getBlockSize(), false);
+        } else {
+          stats.incrementCoalescedMemoryUpdates();
+        }
+        cache.cleanSectors(address);
+        cache.setState(address, finalState);
+        return;
+      default:
+        break;
+    }
+    int bytes = cache.getWriteBackBytes(address);
+    if (flushQueue.add(cache, address, finalState)) {
+      homeAccessCycles(cache, address.getBlockAddress(), bytes, false);
+    } else {
+      stats.incrementCoalescedFlushes();
     }
-    flushJob.addCacheToFlush(cache, address, finalState);
     stats.incrementFlushes();
+    stats.updateMaxFlushQueueDepth(flushQueue.size());
   }
 
   /**
@@ -127,22 +632,172 @@ public class Bus {
    */
   public static void add(Cache cache) {
     caches.add(cache);
+    if (topology != Topology.BUS) {
+      network = new Network(topology, caches.size(), hopLatency, networkBandwidth);
+      domains = Arrays.copyOf(domains, caches.size());
+      domains[caches.size() - 1] = new SnoopDomain(arbitrationPolicy);
+    }
+  }
+
+  /**
+   * Sets the number of sockets the caches are split between, each with a bus of its own. Takes
+   * effect at the next reset.
+   */
+  public static void setSockets(int count) {
+    sockets = Math.max(1, count);
+  }
+
+  public static int getSockets() {
+    return sockets;
+  }
+
+  /**
+   * Sets how memory pages are given a home socket.
+   */
+  public static void setHomePolicy(HomePolicy policy) {
+    homePolicy = policy;
+  }
+
+  /**
+   * Sets the cycles a transfer takes to cross the link between the sockets, and the bytes the
+   * link carries per cycle. Takes effect at the next reset.
+   */
+  public static void setSocketLink(int latency, int bandwidth) {
+    linkLatency = Math.max(0, latency);
+    linkBandwidth = Math.max(1, bandwidth);
+  }
+
+  /**
+   * Sets the interconnect joining the caches, and for a network on chip the cycles a message takes
+   * per link and the bytes a link carries per cycle. Takes effect at the next reset.
+   */
+  public static void setTopology(Topology interconnect, int cyclesPerHop, int bandwidth) {
+    topology = interconnect;
+    hopLatency = Math.max(0, cyclesPerHop);
+    networkBandwidth = Math.max(1, bandwidth);
+  }
+
+  public static Topology getTopology() {
+    return topology;
+  }
+
+  /**
+   * Returns the names of the network on chip's links, in the order its statistics are kept.
+   */
+  public static List<String> getLinkNames() {
+    List<String> names = new ArrayList<>();
+    for (int i = 0; network != null && i < network.getLinkCount(); i++) {
+      names.add(network.getLinkName(i));
+    }
+    return names;
+  }
+
+  /**
+   * Sets the policy used to choose between waiting jobs. Takes effect at the next reset.
+   */
+  public static void setArbitrationPolicy(ArbitrationPolicy policy) {
+    arbitrationPolicy = policy;
   }
 
   public static BusStatistics getStatistics() {
     return stats;
   }
 
+  public static LineProfiler getLineProfiler() {
+    return lineProfiler;
+  }
+
+  public static FalseSharingDetector getFalseSharingDetector() {
+    return falseSharingDetector;
+  }
+
+  public static EventRecorder getEventRecorder() {
+    return eventRecorder;
+  }
+
   public static int getCycle() {
     return cycleCounter;
   }
 
+  /**
+   * Enables or disables functional mode, in which bus jobs and flushes complete instantly.
+   */
+  public static void setFunctional(boolean isFunctional) {
+    functional = isFunctional;
+  }
+
+  public static boolean isFunctional() {
+    return functional;
+  }
+
+  /**
+   * Sets how memory is updated after an intervention.
+   */
+  public static void setMemoryUpdatePolicy(MemoryUpdatePolicy policy) {
+    memoryUpdatePolicy = policy;
+  }
+
+  /**
+   * Sets the number of cycles a dirty owner takes to start supplying a block, on top of the
+   * transfer itself.
+   */
+  public static void setInterventionLatency(int cycles) {
+    interventionLatency = Math.max(0, cycles);
+  }
+
+  /**
+   * Sets the number of flushes memory writes at a time. Takes effect from the next reset.
+   */
+  public static void setFlushBandwidth(int flushes) {
+    flushBandwidth = Math.max(1, flushes);
+  }
+
+  /**
+   * Returns the number of blocks waiting to be flushed or being flushed.
+   */
+  public static int getFlushQueueDepth() {
+    return flushQueue.size();
+  }
+
+  /**
+   * Returns the number of victims waiting in the caches' write-back buffers.
+   */
+  public static int getBufferedWriteBacks() {
+    return caches.stream().mapToInt(c -> c.getWriteBackBuffer().size()).sum();
+  }
+
+  /**
+   * Returns the number of blocks still waiting for a lazy memory update.
+   */
+  public static int getPendingMemoryUpdates() {
+    return lazyUpdates.size();
+  }
+
   public static void reset() {
-    jobQueue.clear();
+    int buses = topology == Topology.BUS ? sockets : 0; // A network adds one per cache.
+    domains = new SnoopDomain[buses];
+    for (int s = 0; s < buses; s++) {
+      domains[s] = new SnoopDomain(arbitrationPolicy);
+    }
+    network = null;
+    link = new SocketLink(linkLatency, linkBandwidth);
+    firstTouchHomes.clear();
+    lazyUpdates.clear();
+    lazyUpdateCountdown = new CycleCountdown(0);
+    drainingCache = null;
+    nextDrainCache = 0;
+    drainCountdown = new CycleCountdown(0);
+    storingCache = null;
+    storingEntry = null;
+    nextStoreCache = 0;
+    storeCountdown = new CycleCountdown(0);
     caches.clear();
-    flushing = false;
-    currentJob = BusJob.EMPTY_JOB;
+    flushQueue = new FlushQueue(flushBandwidth);
     cycleCounter = 0;
+    functional = false;
     stats.reset();
+    stats.setPendingMemoryUpdates(0);
+    lineProfiler.reset();
+    falseSharingDetector.reset();
   }
 }
@@ -5,6 +5,8 @@ import cache.CacheProperties;
 import cache.CycleCountdown;
 import cache.Address;
 import cache.coherence.CoherenceState;
+import monitoring.BusTransactionEvent;
+import statistics.EventType;
 
 import java.util.Optional;
 import java.util.logging.Level;
@@ -24,7 +26,8 @@ public class BusJob {
   private final Address target; // The memory address being acted upon.
   private final BusAction action; // The type of bus operation being performed.
 
-  private int startedAtCycle = -1; // The cycle of the bus in which the job was started.
+  private int enqueuedAtCycle = -1; // The bus cycle in which the job was created and enqueued.
+  private int startedAtCycle = -1; // The bus cycle in which the job was granted the bus.
 
   private final StateEvaluator finalStateEval; // Determines the final state of the calling block.
 
@@ -35,8 +38,10 @@ public class BusJob {
   private CycleCountdown cycleCountdown;
 
   private final BusJob successor;
+  private boolean follows = false; // Whether the job is the successor of another.
 
   private int bytesTransferred = 0;
+  private boolean locked = false; // Whether the job holds the bus locked for an atomic.
 
   public BusJob(Cache origin, Address target, BusAction action, StateEvaluator finalState) {
     this.origin = origin;
@@ -48,7 +53,7 @@ public class BusJob {
     if (action == BusAction.NONE) {
       started = true;
     }
-    startedAtCycle = Bus.getCycle();
+    enqueuedAtCycle = Bus.getCycle();
   }
 
   public BusJob(Cache origin, Address target, BusAction action, StateEvaluator finalState,
@@ -59,39 +64,41 @@ public class BusJob {
     this.finalStateEval = finalState;
     this.cycleCountdown = new CycleCountdown(0);
     this.successor = successorJob;
-    this.startedAtCycle = Bus.getCycle();
+    this.enqueuedAtCycle = Bus.getCycle();
+    if (successorJob != null) {
+      successorJob.follows = true;
+    }
   }
 
   public void start() {
     if (!started) {
+      startedAtCycle = Bus.getCycle();
+      if (!follows) {
+        // A successor is not queued, it starts once its predecessor finishes:
+        origin.getStatistics().recordBusQueueDelay(Bus.getCycle() - enqueuedAtCycle);
+        Bus.getStatistics().addBusWait(origin.getId(), Bus.getCycle() - enqueuedAtCycle);
+      }
       switch (action) {
         case BUSRD:
-          bytesTransferred = CacheProperties.getBlockSize();
-          if (Bus.remoteCacheContains(origin, target)) {
-            // At least one cache contains the block, get it from a cache:
-            cycleCountdown = new CycleCountdown(CacheProperties.getWordsPerBlock());
-          } else {
-            // The block is not cached: read, it from main memory:
-            cycleCountdown = new CycleCountdown(Bus.READ_FROM_MEM_CYCLES);
-          }
+          bytesTransferred = CacheProperties.getSectorSize(); // The whole block if not sectored.
+          // From another cache if one supplies the block, from main memory otherwise:
+          cycleCountdown = new CycleCountdown(Bus.dataTransferCycles(origin, target));
           break;
         case BUSRDX:
-          bytesTransferred = CacheProperties.getBlockSize();
-          if (Bus.remoteCacheContains(origin, target)) {
-            // At least one cache contains the block, get it from a cache:
-            cycleCountdown = new CycleCountdown(CacheProperties.getWordsPerBlock());// * numRemote);
-          } else {
-            // The block is not cached: read, it from main memory:
-            cycleCountdown = new CycleCountdown(Bus.READ_FROM_MEM_CYCLES);
-          }
+          bytesTransferred = CacheProperties.getSectorSize();
+          // From another cache if one supplies the block, from main memory otherwise, while the
+          // copies in other sockets are invalidated:
+          cycleCountdown = new CycleCountdown(Bus.exclusiveTransferCycles(origin, target));
           break;
         case BUSUPD:
           bytesTransferred = CacheProperties.WORD_SIZE;
-          cycleCountdown = new CycleCountdown(Bus.READ_WORD_CYCLES);
+          cycleCountdown = new CycleCountdown(Math.max(Bus.READ_WORD_CYCLES,
+              Bus.remoteSnoopCycles(origin, target)));
           break;
         case EVICTLRU:
-          bytesTransferred = CacheProperties.getBlockSize();
-          cycleCountdown = new CycleCountdown(Bus.WRITE_TO_MEM_CYCLES);
+          bytesTransferred = origin.getEvictionBytes(target);
+          cycleCountdown = new CycleCountdown(Bus.memoryWriteCycles(origin, target,
+              bytesTransferred));
           break;
         case NONE:
           // Do nothing.
@@ -99,10 +106,50 @@ public class BusJob {
         default:
           // Do nothing.
       }
+      if (locked && !hasSuccessor()) {
+        // The bus stays locked while the atomic modifies and writes the word it acquired:
+        cycleCountdown = new CycleCountdown(cycleCountdown.getCyclesRemaining()
+            + Bus.LOCKED_WRITE_CYCLES);
+      }
       started = true;
     }
   }
 
+  /**
+   * Makes the job (and its successor) hold the bus locked for an atomic read-modify-write. Must be
+   * called before the job starts.
+   */
+  public void lockBus() {
+    locked = true;
+    if (hasSuccessor()) {
+      successor.lockBus();
+    }
+  }
+
+  public boolean isLocked() {
+    return locked;
+  }
+
+  public Address getTarget() {
+    return target;
+  }
+
+  public Cache getOrigin() {
+    return origin;
+  }
+
+  public int getEnqueuedAtCycle() {
+    return enqueuedAtCycle;
+  }
+
+  public boolean isStarted() {
+    return started;
+  }
+
+  public BusAction getAction() {
+    return action;
+  }
+
   public void tick() {
     if (!started) {
       start();
@@ -116,6 +163,19 @@ public class BusJob {
     }
   }
 
+  /**
+   * Starts and immediately finishes the job and its successor, skipping the bus cycles it would
+   * normally occupy. Only used when the bus is in functional mode.
+   */
+  public void complete() {
+    start();
+    cycleCountdown = new CycleCountdown(0);
+    onFinish();
+    if (hasSuccessor()) {
+      successor.complete();
+    }
+  }
+
   private boolean hasSuccessor() {
     return getSuccessor().isPresent();
   }
@@ -134,6 +194,7 @@ public class BusJob {
 
   private void onFinish() {
     if (isFinished()) {
+      CoherenceState before = Bus.getEventRecorder().isEnabled() ? origin.getState(target) : null;
       Bus.getStatistics().addBytesWritten(bytesTransferred);
       switch (action) {
         case EVICTLRU:
@@ -142,19 +203,28 @@ public class BusJob {
         case BUSRDX:
           Bus.broadcastRemoteWrite(origin, target);
           origin.setState(target, finalStateEval.apply(origin, target));
+          origin.fillSector(target, true);
           Bus.getStatistics().incrementBusWrites();
-          Bus.getStatistics().addWriteLatency(Bus.getCycle() - startedAtCycle + 1);
+          Bus.getStatistics().addWriteLatency(Bus.getCycle() - enqueuedAtCycle + 1);
+          origin.getStatistics().recordWriteLatency(Bus.getCycle() - enqueuedAtCycle + 1);
           break;
         case BUSRD:
           Bus.broadcastRemoteRead(origin, target);
           origin.setState(target, finalStateEval.apply(origin, target));
+          origin.fillSector(target, false);
           Bus.getStatistics().incrementBusReads();
+          if (!hasSuccessor()) {
+            // A read with a successor is the first half of a write miss.
+            origin.getStatistics().recordReadMissLatency(Bus.getCycle() - enqueuedAtCycle + 1);
+          }
           break;
         case BUSUPD:
           Bus.broadcastRemoteUpdate(origin, target);
           origin.setState(target, finalStateEval.apply(origin, target));
+          origin.fillSector(target, true);
           Bus.getStatistics().incrementBusUpdates();
-          Bus.getStatistics().addWriteLatency(Bus.getCycle() - startedAtCycle + 1);
+          Bus.getStatistics().addWriteLatency(Bus.getCycle() - enqueuedAtCycle + 1);
+          origin.getStatistics().recordWriteLatency(Bus.getCycle() - enqueuedAtCycle + 1);
           break;
         default:
           // All cases should be enumerated above, log the action:
@@ -162,7 +232,35 @@ public class BusJob {
               .log(Level.WARNING, "Did not handle bus job final case for" + action.toString());
           break;
       }
+      if (before != null) {
+        recordEvent(before);
+      }
+      BusTransactionEvent.emit(action.name(), origin.getId(), target.getBlockAddress(),
+          enqueuedAtCycle, startedAtCycle, Bus.getCycle(), bytesTransferred);
+    }
+  }
+
+  /*
+   * Records the change in the origin's state caused by the job. Evictions are recorded by the
+   * cache set, which knows which block was evicted.
+   */
+  private void recordEvent(CoherenceState before) {
+    EventType type;
+    switch (action) {
+      case BUSRD:
+        type = EventType.BUS_RD;
+        break;
+      case BUSRDX:
+        type = EventType.BUS_RDX;
+        break;
+      case BUSUPD:
+        type = EventType.BUS_UPD;
+        break;
+      default:
+        return;
     }
+    Bus.getEventRecorder().record(Bus.getCycle(), origin.getId(), type, target, before,
+        origin.getState(target));
   }
 
   public String toString() {
@@ -0,0 +1,47 @@
+package bus;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Grants the bus to jobs in the order they were enqueued.
+ */
+public class FifoArbiter implements Arbiter {
+  private final Deque<BusJob> jobQueue = new ArrayDeque<>();
+
+  @Override
+  public void add(BusJob job) {
+    jobQueue.addLast(job);
+  }
+
+  @Override
+  public BusJob next(Predicate<BusJob> eligible) {
+    Set<Integer> heldCores = new HashSet<>();
+    for (Iterator<BusJob> jobs = jobQueue.iterator(); jobs.hasNext(); ) {
+      BusJob job = jobs.next();
+      int core = job.getOrigin().getId();
+      if (!heldCores.contains(core)) {
+        if (eligible.test(job)) {
+          jobs.remove();
+          return job;
+        }
+        heldCores.add(core);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int size() {
+    return jobQueue.size();
+  }
+
+  @Override
+  public void clear() {
+    jobQueue.clear();
+  }
+}
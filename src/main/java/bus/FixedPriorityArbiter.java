@@ -0,0 +1,18 @@
+package bus;
+
+import java.util.function.Predicate;
+
+/**
+ * Always grants the bus to the waiting core with the lowest ID.
+ */
+public class FixedPriorityArbiter extends PerCoreArbiter {
+  @Override
+  int chooseCore(Predicate<BusJob> eligible) {
+    for (int core = 0; core < queues.size(); core++) {
+      if (isWaiting(core, eligible)) {
+        return core;
+      }
+    }
+    return -1;
+  }
+}
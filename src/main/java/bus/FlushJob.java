@@ -5,6 +5,7 @@ import cache.CacheProperties;
 import cache.CycleCountdown;
 import cache.Address;
 import cache.coherence.CoherenceState;
+import monitoring.FlushEvent;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -12,13 +13,16 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Special class for flushing blocks from the cache to memory.
+ * Special class for flushing blocks from the cache to memory. Queued by the FlushQueue, one per
+ * block, with every cache flushing the block.
  */
 public class FlushJob {
   private final Address address;
   private Map<Cache, CoherenceState> stateOnFinish = new HashMap<>();
   private CycleCountdown cycleCountdown;
   private boolean started = false;
+  private int startedAtCycle = -1;
+  private int bytes = 0; // The most any of the caches has to write, e.g. its dirty sectors.
 
   public FlushJob(Address address) {
     this.address = address;
@@ -35,7 +39,9 @@ public class FlushJob {
         // Done, set the states of all the cache blocks:
         stateOnFinish.entrySet()
             .forEach(entry -> entry.getKey().finishFlush(address, entry.getValue()));
-        Bus.getStatistics().addBytesWritten(CacheProperties.getBlockSize());
+        Bus.getStatistics().addBytesWritten(bytes);
+        FlushEvent.emit(address.getBlockAddress(), stateOnFinish.size(), startedAtCycle,
+            Bus.getCycle());
       }
     }
   }
@@ -43,18 +49,24 @@ public class FlushJob {
   private void start() {
     if (!started) {
       cycleCountdown = new CycleCountdown(Bus.WRITE_TO_MEM_CYCLES);
+      startedAtCycle = Bus.getCycle();
       started = true;
     }
   }
 
-  public void addCacheToFlush(Cache c, Address address, CoherenceState finalState) {
+  /**
+   * Adds the cache to the caches flushing the block. Returns false if the cache was already
+   * flushing it, in which case only its final state is updated.
+   */
+  public boolean addCacheToFlush(Cache c, Address address, CoherenceState finalState) {
     if (!this.address.equals(address)) {
       Logger.getLogger(getClass().getName())
           .log(Level.SEVERE, "Attempted to flush different blocks simultaneously: "
           + address.toString() + ", " + this.address.toString());
-    } else {
-      stateOnFinish.put(c, finalState);
+      return false;
     }
+    bytes = Math.max(bytes, c.getWriteBackBytes(address));
+    return stateOnFinish.put(c, finalState) == null;
   }
 
   public boolean finished() {
@@ -0,0 +1,72 @@
+package bus;
+
+import cache.Address;
+import cache.Cache;
+import cache.coherence.CoherenceState;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The write-back queue between the bus and memory. Flushes are queued per block, so flushes of a
+ * block that is already waiting (e.g. from several caches) are coalesced into one write. Memory
+ * accepts up to bandwidth writes at a time, oldest first, while unrelated bus transactions
+ * continue; only a transaction for a block that is still waiting has to wait for its write.
+ */
+class FlushQueue {
+  private final Map<Long, FlushJob> jobs = new LinkedHashMap<>(); // By block address, oldest first.
+  private final int bandwidth; // The number of writes memory accepts at a time.
+
+  FlushQueue(int bandwidth) {
+    this.bandwidth = Math.max(1, bandwidth);
+  }
+
+  /**
+   * Queues the cache's flush of the block and makes the cache wait for it. Returns false if it was
+   * coalesced with a queued flush of the same block.
+   */
+  boolean add(Cache cache, Address address, CoherenceState finalState) {
+    long block = address.getBlockAddress();
+    FlushJob job = jobs.get(block);
+    boolean added = job == null;
+    if (added) {
+      job = new FlushJob(address);
+      jobs.put(block, job);
+    }
+    if (job.addCacheToFlush(cache, address, finalState)) {
+      cache.startFlush(address); // Make the cache block until the flush is written.
+    }
+    return added;
+  }
+
+  /**
+   * Returns whether a flush of the block is waiting or being written.
+   */
+  boolean contains(Address address) {
+    return !jobs.isEmpty() && jobs.containsKey(address.getBlockAddress());
+  }
+
+  /**
+   * Advances the oldest writes by a cycle and removes the finished ones. Returns whether any write
+   * was in progress.
+   */
+  boolean tick() {
+    if (jobs.isEmpty()) {
+      return false;
+    }
+    Iterator<FlushJob> oldest = jobs.values().iterator();
+    for (int i = 0; i < bandwidth && oldest.hasNext(); i++) {
+      FlushJob job = oldest.next();
+      job.tick();
+      if (job.finished()) {
+        oldest.remove();
+      }
+    }
+    return true;
+  }
+
+  int size() {
+    return jobs.size();
+  }
+}
@@ -0,0 +1,9 @@
+package bus;
+
+/**
+ * How the pages of memory are given a home socket, whose memory holds them.
+ */
+public enum HomePolicy {
+  INTERLEAVE, // The pages are spread over the sockets in turn.
+  FIRST_TOUCH // A page lives in the socket of the first cache to read or write it in memory.
+}
@@ -0,0 +1,11 @@
+package bus;
+
+/**
+ * How memory is brought up to date when a cache holding a dirty block answers another cache's
+ * request for it (an intervention).
+ */
+public enum MemoryUpdatePolicy {
+  FLUSH, // The owner flushes the block to memory through the flush queue and waits for it.
+  PARALLEL, // Memory takes the data from the cache-to-cache transfer, at no extra bus cost.
+  LAZY // Memory is written later, during cycles in which the bus is idle.
+}
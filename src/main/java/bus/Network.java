@@ -0,0 +1,126 @@
+package bus;
+
+/**
+ * A network on chip joining the caches, one router per cache, with directed links between
+ * neighbouring routers. A message takes the hop latency for every link it crosses, and holds each
+ * link for as long as the link's bandwidth takes to send its bytes; messages that find a link held
+ * wait their turn. Links are booked for the cycle a message reaches them, so messages sent to go
+ * later in a transaction book their links ahead.
+ */
+class Network {
+  // The directions of a mesh router's links, and the number of links per router:
+  private static final int EAST = 0;
+  private static final int WEST = 1;
+  private static final int SOUTH = 2;
+  private static final int NORTH = 3;
+  private static final int MESH_DIRECTIONS = 4;
+  // The directions of a ring router's links:
+  private static final int CLOCKWISE = 0;
+  private static final int COUNTER_CLOCKWISE = 1;
+  private static final int RING_DIRECTIONS = 2;
+
+  private final Topology topology;
+  private final int nodes; // The number of caches, router i serving cache i.
+  private final int width; // The routers per row of a mesh, as square as the nodes allow.
+  private final int height;
+  private final int hopLatency; // The cycles a message takes to cross a link.
+  private final int bandwidth; // The bytes a link carries per cycle.
+  private final long[] freeAtCycle; // The bus cycle each link is free from.
+
+  Network(Topology topology, int nodes, int hopLatency, int bandwidth) {
+    this.topology = topology;
+    this.nodes = Math.max(1, nodes);
+    this.width = (int)Math.ceil(Math.sqrt(this.nodes));
+    this.height = (this.nodes + width - 1) / width;
+    this.hopLatency = Math.max(0, hopLatency);
+    this.bandwidth = Math.max(1, bandwidth);
+    this.freeAtCycle = new long[getLinkCount()];
+  }
+
+  /**
+   * Sends the bytes from one node to another, leaving after the given number of cycles, and
+   * returns the number of cycles from now until they have arrived. In functional mode messages
+   * take no time and leave the links free.
+   */
+  int send(int from, int to, int bytes, int departAfter) {
+    if (Bus.isFunctional()) {
+      return 0;
+    }
+    long now = Bus.getCycle();
+    long time = now + departAfter;
+    int occupancy = (bytes + bandwidth - 1) / bandwidth;
+    int hops = 0;
+    for (int at = from; at != to; at = next(at, to)) {
+      int link = linkTowards(at, to);
+      long start = Math.max(time, freeAtCycle[link]);
+      freeAtCycle[link] = start + occupancy;
+      Bus.getStatistics().addLinkBusyCycles(link, occupancy);
+      time = start + hopLatency;
+      hops++;
+    }
+    Bus.getStatistics().recordNetworkMessage(hops, bytes);
+    return (int)(time - now) + (hops == 0 ? 0 : occupancy);
+  }
+
+  /*
+   * Returns the link a message at the router takes on its way to the destination: the shorter
+   * way round a ring, clockwise on a tie, or along X and then along Y in a mesh.
+   */
+  private int linkTowards(int at, int to) {
+    if (topology == Topology.RING) {
+      int clockwiseHops = Math.floorMod(to - at, nodes);
+      return at * RING_DIRECTIONS
+          + (clockwiseHops <= nodes / 2 ? CLOCKWISE : COUNTER_CLOCKWISE);
+    }
+    int direction;
+    if (to % width != at % width) {
+      direction = to % width > at % width ? EAST : WEST;
+    } else {
+      direction = to / width > at / width ? SOUTH : NORTH;
+    }
+    return at * MESH_DIRECTIONS + direction;
+  }
+
+  private int next(int at, int to) {
+    return target(linkTowards(at, to));
+  }
+
+  /*
+   * Returns the router the link leads to.
+   */
+  private int target(int link) {
+    if (topology == Topology.RING) {
+      int from = link / RING_DIRECTIONS;
+      return Math.floorMod(from + (link % RING_DIRECTIONS == CLOCKWISE ? 1 : -1), nodes);
+    }
+    int from = link / MESH_DIRECTIONS;
+    switch (link % MESH_DIRECTIONS) {
+      case EAST:
+        return from + 1;
+      case WEST:
+        return from - 1;
+      case SOUTH:
+        return from + width;
+      case NORTH:
+      default:
+        return from - width;
+    }
+  }
+
+  /**
+   * Returns the number of links, some of which lead off the edges of a mesh and are never used.
+   * A mesh that the nodes do not fill has routers without a cache, which messages pass through.
+   */
+  int getLinkCount() {
+    return topology == Topology.RING
+        ? nodes * RING_DIRECTIONS : width * height * MESH_DIRECTIONS;
+  }
+
+  /**
+   * Returns the routers the link joins, e.g. "3 -> 4".
+   */
+  String getLinkName(int link) {
+    int from = link / (topology == Topology.RING ? RING_DIRECTIONS : MESH_DIRECTIONS);
+    return from + " -> " + target(link);
+  }
+}
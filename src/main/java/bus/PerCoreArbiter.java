@@ -0,0 +1,60 @@
+package bus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Base class for arbiters that choose between cores, keeping one FIFO queue per core (cache ID).
+ */
+abstract class PerCoreArbiter implements Arbiter {
+  final List<Deque<BusJob>> queues = new ArrayList<>();
+  private int size = 0;
+
+  /**
+   * Returns the ID of the core whose oldest job is granted next, choosing between the cores whose
+   * oldest job is eligible, or -1 if there is none. At least one queue is non-empty.
+   */
+  abstract int chooseCore(Predicate<BusJob> eligible);
+
+  /**
+   * Returns whether the core has a job waiting that is eligible to be granted the bus.
+   */
+  boolean isWaiting(int core, Predicate<BusJob> eligible) {
+    BusJob oldest = queues.get(core).peek();
+    return oldest != null && eligible.test(oldest);
+  }
+
+  @Override
+  public void add(BusJob job) {
+    int core = job.getOrigin().getId();
+    while (queues.size() <= core) {
+      queues.add(new ArrayDeque<>());
+    }
+    queues.get(core).addLast(job);
+    size++;
+  }
+
+  @Override
+  public BusJob next(Predicate<BusJob> eligible) {
+    int core = chooseCore(eligible);
+    if (core < 0) {
+      return null;
+    }
+    size--;
+    return queues.get(core).pop();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    queues.clear();
+    size = 0;
+  }
+}
@@ -0,0 +1,29 @@
+package bus;
+
+import java.util.function.Predicate;
+
+/**
+ * Grants the bus to each core with a waiting job in turn.
+ */
+public class RoundRobinArbiter extends PerCoreArbiter {
+  private int lastGranted = -1;
+
+  @Override
+  int chooseCore(Predicate<BusJob> eligible) {
+    int numCores = queues.size();
+    for (int i = 1; i <= numCores; i++) {
+      int core = (lastGranted + i) % numCores;
+      if (isWaiting(core, eligible)) {
+        lastGranted = core;
+        return core;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    lastGranted = -1;
+  }
+}
@@ -0,0 +1,106 @@
+package bus;
+
+import cache.Address;
+
+/**
+ * A socket's bus: the jobs of the socket's caches are arbitrated and carried out on it, alongside
+ * the other sockets' buses. A job's snoops still reach the caches of every socket, so coherence
+ * is kept across the sockets as on a single bus. On a network on chip, each cache's router is
+ * one.
+ */
+class SnoopDomain {
+  private final Arbiter jobQueue; // The jobs waiting for the bus.
+  private BusJob currentJob = BusJob.EMPTY_JOB; // The job currently using the bus.
+  private boolean busy = false; // Whether the bus carried out a job in its last cycle.
+  private boolean idle = false; // Whether the bus had no job to carry out in its last cycle.
+  private boolean heldForFlush = false; // Whether a job was passed over for its block's flush.
+
+  SnoopDomain(ArbitrationPolicy policy) {
+    jobQueue = policy.createArbiter();
+  }
+
+  /**
+   * Advances the bus by a cycle. Waiting jobs that cannot start yet are passed over for the next
+   * job that can, and a bus with only such jobs waiting (or a successor that cannot start) is
+   * neither busy nor idle.
+   */
+  void tick() {
+    // Get the next job if the current job is isFinished (it is started when it first ticks):
+    if (currentJob.isFinished()) {
+      // First check if it has a successor:
+      currentJob.getSuccessor().ifPresent(successor -> currentJob = successor);
+
+      // Next check the regular queue:
+      if (currentJob.isFinished() && !jobQueue.isEmpty()) {
+        heldForFlush = false;
+        BusJob next = jobQueue.next(this::canStart);
+        if (next != null) {
+          currentJob = next;
+        }
+      }
+    }
+
+    busy = false;
+    idle = false;
+    if (!currentJob.isStarted() && Bus.isFlushing(currentJob.getTarget())) {
+      // A successor follows its predecessor, hold the bus until the block's flush is written:
+      Bus.getStatistics().incrementFlushConflictCycles();
+    } else if (!currentJob.isFinished()) {
+      currentJob.tick();
+      busy = true;
+      if (currentJob.isLocked()) {
+        // The jobs waiting for the bus are held up by the atomic:
+        Bus.getStatistics().recordBusLockCycle(jobQueue.size());
+      }
+    } else if (!jobQueue.isEmpty()) {
+      // Every waiting job is held for its block:
+      if (heldForFlush) {
+        Bus.getStatistics().incrementFlushConflictCycles();
+      } else {
+        Bus.getStatistics().incrementHomeConflictCycles();
+      }
+    } else {
+      idle = true;
+    }
+  }
+
+  /*
+   * Returns whether the job can be granted the bus: memory is stale until a flush of its block is
+   * written, and the block's home node takes its jobs one at a time.
+   */
+  private boolean canStart(BusJob job) {
+    if (Bus.isFlushing(job.getTarget())) {
+      heldForFlush = true;
+      return false;
+    }
+    return !Bus.isServedElsewhere(this, job.getTarget());
+  }
+
+  /**
+   * Returns whether a job for the block, or the successor of one, is being carried out.
+   */
+  boolean isServing(Address address) {
+    return currentJob.isStarted() && !currentJob.successorFinished()
+        && currentJob.getTarget().getBlockAddress() == address.getBlockAddress();
+  }
+
+  boolean isBusy() {
+    return busy;
+  }
+
+  boolean isIdle() {
+    return idle;
+  }
+
+  void enqueue(BusJob job) {
+    jobQueue.add(job);
+    Bus.getStatistics().updateMaxQueueDepth(jobQueue.size());
+  }
+
+  /**
+   * Returns the number of jobs waiting for the bus.
+   */
+  int getQueueDepth() {
+    return jobQueue.size();
+  }
+}
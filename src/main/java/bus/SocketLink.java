@@ -0,0 +1,33 @@
+package bus;
+
+/**
+ * The link joining the sockets' buses. A transfer reaches the other side after the link's
+ * latency, and holds the link for as long as its bandwidth takes to send the bytes; transfers that
+ * find the link held wait their turn.
+ */
+class SocketLink {
+  private final int latency; // The cycles a transfer takes to cross the link.
+  private final int bandwidth; // The bytes the link carries per cycle.
+  private long freeAtCycle = 0; // The bus cycle the link is free to carry the next transfer from.
+
+  SocketLink(int latency, int bandwidth) {
+    this.latency = Math.max(0, latency);
+    this.bandwidth = Math.max(1, bandwidth);
+  }
+
+  /**
+   * Sends the bytes across the link, returning the number of cycles until they have arrived. In
+   * functional mode transfers take no time and leave the link free.
+   */
+  int transfer(int bytes) {
+    if (Bus.isFunctional()) {
+      return 0;
+    }
+    long now = Bus.getCycle();
+    long start = Math.max(now, freeAtCycle);
+    int occupancy = (bytes + bandwidth - 1) / bandwidth;
+    freeAtCycle = start + occupancy;
+    Bus.getStatistics().recordLinkTransfer(bytes, occupancy, start - now);
+    return (int)(start - now) + latency + occupancy;
+  }
+}
@@ -0,0 +1,10 @@
+package bus;
+
+/**
+ * The interconnects joining the caches that can be simulated.
+ */
+public enum Topology {
+  BUS, // A shared bus per socket, snooped by every cache.
+  RING, // A bidirectional ring of routers, taking the shorter way round.
+  MESH // A 2D mesh of routers, routed along X first and then Y.
+}
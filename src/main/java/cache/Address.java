@@ -1,54 +1,57 @@
 package cache;
 
+/**
+ * A 64-bit memory address. Only the raw address is stored, in a single long, and the tag, index
+ * and offset are cut out of it with shifts and masks when asked for, so an address costs a cache
+ * block no more than the primitive itself.
+ */
 public class Address {
-  private final int rawAddress;
-  private final int tag;
-  private final int offset;
-  private final int index;
-
-  private static final int masks[] = {
-      0x00000000, 0x00000001, 0x00000003, 0x00000007,
-      0x0000000f, 0x0000001f, 0x0000003f, 0x0000007f,
-      0x000000ff, 0x000001ff, 0x000003ff, 0x000007ff,
-      0x00000fff, 0x00001fff, 0x00003fff, 0x00007fff,
-      0x0000ffff, 0x0001ffff, 0x0003ffff, 0x0007ffff,
-      0x000fffff, 0x001fffff, 0x003fffff, 0x007fffff,
-      0x00ffffff, 0x01ffffff, 0x03ffffff, 0x07ffffff,
-      0x0fffffff, 0x1fffffff, 0x3fffffff, 0x7fffffff,
-      0xffffffff };
-
-  public Address(int rawAddress) {
-    int offsetSize = CacheProperties.getOffsetSize();
-    int indexSize = CacheProperties.getIndexSize();
-    int tagSize = CacheProperties.getTagSize();
+  private final long rawAddress;
 
+  public Address(long rawAddress) {
     this.rawAddress = rawAddress;
-    this.offset = rawAddress & masks[offsetSize];
-    this.index = (rawAddress >> offsetSize) & masks[indexSize];
-    this.tag = (rawAddress >> (indexSize + offsetSize)) & masks[tagSize];
   }
 
-  public int getTag() {
-    return tag;
+  private static long mask(int bits) {
+    return bits >= Long.SIZE ? -1L : (1L << bits) - 1;
+  }
+
+  public long getTag() {
+    return (rawAddress >>> (CacheProperties.getIndexSize() + CacheProperties.getOffsetSize()))
+        & mask(CacheProperties.getTagSize());
   }
 
   public int getOffset() {
-    return offset;
+    return (int)(rawAddress & mask(CacheProperties.getOffsetSize()));
   }
 
   public int getIndex() {
-    return index;
+    return (int)((rawAddress >>> CacheProperties.getOffsetSize())
+        & mask(CacheProperties.getIndexSize()));
   }
 
-  public int getAddress() {
+  public long getAddress() {
     return rawAddress;
   }
 
+  /**
+   * Returns the address of the block containing this address, i.e. the address without its offset
+   * bits, treating the raw address as unsigned.
+   */
+  public long getBlockAddress() {
+    return rawAddress >>> CacheProperties.getOffsetSize();
+  }
+
   @Override
   public boolean equals(Object other) {
       return other instanceof Address && getTag() == ((Address)other).getTag();
   }
 
+  @Override
+  public int hashCode() {
+    return Long.hashCode(getTag());
+  }
+
   public String toString() {
     return "tag: " + getTag();
   }
@@ -1,12 +1,16 @@
 package cache;
 
 import bus.Bus;
+import bus.BusAction;
 import bus.BusJob;
+import cache.coherence.CacheBlock;
 import cache.coherence.CoherenceState;
+import statistics.CycleCategory;
 import statistics.ProcessorStatistics;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,8 +21,16 @@ public class Cache {
   private List<CacheSet> sets; // The cache blocks, organized into sets.
 
   private BusJob busJob = BusJob.EMPTY_JOB; // The job the proc wants to/is performing on the bus.
-  private boolean isFlushing = false; // Is the cache in the process of flushing a block?
-  private Address flushTarget = new Address(-1); // The block being flushed.
+  private int flushesPending = 0; // The number of blocks the cache is waiting to finish flushing.
+  private int flushStartCycle = 0; // The bus cycle in which the cache started waiting on flushes.
+  private final WriteBackBuffer writeBackBuffer; // Dirty victims waiting to be written back.
+  private final VictimCache victimCache; // Blocks recently evicted from the sets.
+  private final WritePolicy writePolicy; // How the cache handles stores.
+  private final WriteBuffer writeBuffer; // Stores on their way to memory.
+  private long reservation = NO_RESERVATION; // The block a load-linked reserved, if any.
+  private boolean lockingBus = false; // Whether jobs set now hold the bus for an atomic.
+
+  private static final long NO_RESERVATION = -1L; // Block addresses are never negative.
 
   private final int id; // The unique cache ID.
   private static int idGenerator = 0; // A cache ID generator.
@@ -27,6 +39,11 @@ public class Cache {
     this.id = idGenerator;
     idGenerator++;
     this.stats = statistics;
+    this.writeBackBuffer = new WriteBackBuffer(CacheProperties.getWriteBackBufferEntries());
+    this.victimCache = new VictimCache(this, CacheProperties.getVictimCacheEntries());
+    this.writePolicy = CacheProperties.getWritePolicy();
+    this.writeBuffer = new WriteBuffer(CacheProperties.getWriteBufferEntries(),
+        writePolicy.combines());
 
     int numSets = CacheProperties.getNumSets();
     this.sets = new ArrayList<>(numSets);
@@ -49,18 +66,222 @@ public class Cache {
 
   public void procWrite(Address address) {
     getSet(address).write(address);
+    if (writePolicy.writesThrough() && !Bus.isFunctional()) {
+      bufferStore(address, false);
+    }
+  }
+
+  /**
+   * Returns whether a store to the address would bypass the cache: a store miss of a cache that
+   * does not allocate on writes, under an invalidation-based protocol.
+   */
+  public boolean bypassesStore(Address address) {
+    return !writePolicy.allocatesOnWrite() && !contains(address)
+        && CacheProperties.getProtocol().isInvalidationBased();
   }
 
-  public void remoteRead(Address address) { getSet(address).remoteRead(address); }
+  /**
+   * Returns whether a store to the address can be carried out now, i.e. whether the write buffer
+   * has room for it if the store goes through the buffer.
+   */
+  public boolean acceptsStore(Address address) {
+    return !(writePolicy.writesThrough() || bypassesStore(address))
+        || writeBuffer.accepts(address);
+  }
+
+  /**
+   * Sends a store that bypasses the cache to memory through the write buffer. The other copies of
+   * the block are invalidated once it is written.
+   */
+  public void writeAround(Address address) {
+    if (Bus.isFunctional()) {
+      Bus.broadcastRemoteWrite(this, address);
+    } else {
+      bufferStore(address, true);
+    }
+  }
+
+  /**
+   * Carries out the write of an atomic read-modify-write, which always allocates. If the block has
+   * to be acquired over the bus, the bus job locks the bus until the modified word is written, so
+   * no other job can come between the read and the write. Returns whether the bus was needed.
+   */
+  public boolean procAtomicWrite(Address address) {
+    lockingBus = true;
+    procWrite(address);
+    lockingBus = false;
+    return hasPendingJob();
+  }
+
+  /**
+   * Places the reservation of a load-linked on the address's block, replacing any other.
+   */
+  public void reserve(Address address) {
+    reservation = address.getBlockAddress();
+  }
+
+  /**
+   * Returns whether a store-conditional to the address would succeed: the block is still reserved,
+   * and has not been written by another cache or left the cache since it was reserved.
+   */
+  public boolean holdsReservation(Address address) {
+    return reservation == address.getBlockAddress() && contains(address);
+  }
+
+  public void clearReservation() {
+    reservation = NO_RESERVATION;
+  }
+
+  /**
+   * Returns whether stores of the cache are still on their way to memory, in the write buffer or
+   * being written from it.
+   */
+  public boolean hasBufferedStores() {
+    return !writeBuffer.isEmpty() || Bus.isWritingStoresOf(this);
+  }
+
+  private void bufferStore(Address address, boolean bypassed) {
+    if (!writeBuffer.add(address, bypassed)) {
+      Bus.getStatistics().incrementCoalescedStores();
+    }
+    Bus.getStatistics().updateMaxWriteBufferDepth(writeBuffer.size());
+  }
+
+  public void remoteRead(Address address) {
+    getSet(address).remoteRead(address);
+    if (victimCache.remoteRead(address)) {
+      Bus.getStatistics().incrementVictimCacheSnoops();
+    }
+    if (writeBackBuffer.contains(address.getBlockAddress())) {
+      // The buffered victim supplied the data, and still has to be written back:
+      Bus.getStatistics().incrementWriteBackBufferSnoops();
+    }
+  }
 
   public void remoteWrite(Address address) {
+    breakReservation(address);
     getSet(address).remoteWrite(address);
+    if (victimCache.remoteWrite(address)) {
+      Bus.getStatistics().incrementVictimCacheSnoops();
+    }
+    if (writeBackBuffer.remove(address.getBlockAddress())) {
+      // The writer takes the dirty data over, so the victim no longer needs writing back:
+      Bus.getStatistics().incrementWriteBackBufferSnoops();
+    }
+  }
+
+  public void remoteUpdate(Address address) {
+    breakReservation(address);
+    getSet(address).remoteUpdate(address);
+    if (victimCache.remoteUpdate(address)) {
+      Bus.getStatistics().incrementVictimCacheSnoops();
+    }
+  }
+
+  /*
+   * Clears the reservation if another cache wrote the reserved block.
+   */
+  private void breakReservation(Address address) {
+    if (reservation == address.getBlockAddress()) {
+      reservation = NO_RESERVATION;
+      Bus.getStatistics().incrementBrokenReservations();
+    }
   }
 
-  public void remoteUpdate(Address address) { getSet(address).remoteUpdate(address); }
+  /**
+   * Swaps the address's block back into its set if the set misses and the victim cache holds it,
+   * returning whether it did. The set's LRU block (if the set is full) takes the block's place in
+   * the victim cache.
+   */
+  public boolean swapInFromVictimCache(Address address) {
+    if (!victimCache.isEnabled() || getSet(address).contains(address)) {
+      return false;
+    }
+    Optional<CacheBlock> entry = victimCache.find(address);
+    if (!entry.isPresent()) {
+      if (getSet(address).hasUnusedBlock()) {
+        // The miss goes to the bus now (a full set is probed again once it has evicted a block):
+        Bus.getStatistics().incrementVictimCacheProbes();
+      }
+      return false;
+    }
+    Bus.getStatistics().incrementVictimCacheProbes();
+    // The hit saves reading the block over the bus, and writing it back first if it is dirty:
+    int saved = CacheProperties.getBlockSize() * (entry.get().writeBackOnEvict() ? 2 : 1);
+    getSet(address).swapIn(entry.get());
+    victimCache.touch(entry.get());
+    Bus.getStatistics().recordVictimCacheHit(saved);
+    return true;
+  }
+
+  /**
+   * Returns whether the cache has a bus job (or its successor) that has not finished.
+   */
+  public boolean hasPendingJob() {
+    return !busJob.isFinished() || !busJob.successorFinished();
+  }
+
+  /**
+   * Marks the sector of the address as holding data once a bus job brought it in, and as dirty if
+   * the job was a write.
+   */
+  public void fillSector(Address address, boolean written) {
+    getSet(address).fillSector(address, written);
+  }
+
+  /**
+   * Returns the number of bytes writing the address's block back to memory transfers.
+   */
+  public int getWriteBackBytes(Address address) {
+    if (!getSet(address).contains(address) && victimCache.contains(address)) {
+      return victimCache.find(address).get().getWriteBackBytes();
+    }
+    return getSet(address).getWriteBackBytes(address);
+  }
+
+  /**
+   * Returns the number of bytes writing back the block evicted to make room for the address
+   * transfers.
+   */
+  public int getEvictionBytes(Address address) {
+    return getSet(address).getEvictionBytes();
+  }
+
+  /**
+   * Marks the address's block clean, once memory has been brought up to date.
+   */
+  public void cleanSectors(Address address) {
+    if (!getSet(address).contains(address) && victimCache.contains(address)) {
+      victimCache.find(address).ifPresent(CacheBlock::cleanSectors);
+    } else {
+      getSet(address).cleanSectors(address);
+    }
+  }
 
   public boolean isBlocking() {
-    return !busJob.isFinished() || !busJob.successorFinished() || isFlushing;
+    return !busJob.isFinished() || !busJob.successorFinished() || flushesPending > 0;
+  }
+
+  /**
+   * Returns what the cache is currently blocking on, or COMPUTE if it is not blocking.
+   */
+  public CycleCategory getBlockingCategory() {
+    if (flushesPending > 0) {
+      return CycleCategory.FLUSH;
+    }
+    BusJob job = busJob;
+    if (job.isFinished() && job.getSuccessor().isPresent()) {
+      job = job.getSuccessor().get();
+    }
+    if (job.isFinished()) {
+      return CycleCategory.COMPUTE;
+    } else if (job.getAction() == BusAction.EVICTLRU) {
+      return CycleCategory.EVICTION;
+    } else if (!job.isStarted()) {
+      return CycleCategory.BUS_QUEUE;
+    } else {
+      return CycleCategory.BUS_TRANSFER;
+    }
   }
 
   /**
@@ -74,7 +295,51 @@ public class Cache {
   Returns whether the cache contains a copy of the given memory address.
  */
   public boolean contains(Address address) {
-    return getSet(address).contains(address);
+    return getSet(address).contains(address) || victimCache.contains(address);
+  }
+
+  /**
+   * Returns the coherence state of the address in the cache, which is I if it isn't cached.
+   */
+  public CoherenceState getState(Address address) {
+    if (!getSet(address).contains(address) && victimCache.contains(address)) {
+      return victimCache.getState(address);
+    }
+    return getSet(address).getState(address);
+  }
+
+  /**
+   * Returns whether the cache holds a copy of the address that differs from memory.
+   */
+  public boolean isDirty(Address address) {
+    return getSet(address).isDirty(address)
+        || victimCache.isDirty(address)
+        || writeBackBuffer.contains(address.getBlockAddress());
+  }
+
+  /**
+   * Returns whether the cache would answer another cache's read of the address with the data.
+   */
+  public boolean suppliesData(Address address) {
+    return getSet(address).suppliesData(address)
+        || victimCache.suppliesData(address)
+        || writeBackBuffer.contains(address.getBlockAddress());
+  }
+
+  public WriteBackBuffer getWriteBackBuffer() {
+    return writeBackBuffer;
+  }
+
+  public VictimCache getVictimCache() {
+    return victimCache;
+  }
+
+  public WriteBuffer getWriteBuffer() {
+    return writeBuffer;
+  }
+
+  public WritePolicy getWritePolicy() {
+    return writePolicy;
   }
 
   /**
@@ -83,7 +348,7 @@ public class Cache {
    * @param address the memory address that requires a block in the cache.
    */
   public boolean hasBlockAvailableFor(Address address) {
-    return contains(address) || getSet(address).hasUnusedBlock();
+    return getSet(address).contains(address) || getSet(address).hasUnusedBlock();
   }
 
   /**
@@ -107,6 +372,9 @@ public class Cache {
 
   public void setJob(BusJob job) {
     if (busJob.isFinished()) {
+      if (lockingBus) {
+        job.lockBus();
+      }
       busJob = job;
       Bus.enqueue(job);
     } else {
@@ -115,21 +383,34 @@ public class Cache {
   }
 
   public void setState(Address address, CoherenceState state) {
-    getSet(address).setState(address, state);
+    if (!getSet(address).contains(address) && victimCache.contains(address)) {
+      // A flush of a victim cache entry finishing:
+      victimCache.setState(address, state);
+    } else {
+      getSet(address).setState(address, state);
+    }
   }
 
+  /**
+   * Makes the cache block until the flush of the address finishes. Flushes of several blocks
+   * (queued by the bus at once) may be pending.
+   */
   public void startFlush(Address address) {
-    if (!isFlushing || address.equals(flushTarget)) {
-      flushTarget = address;
-      isFlushing = true;
-    } else {
-      Logger.getLogger(getClass().getName()).log(Level.SEVERE, "More than one flush in the cache!");
+    if (flushesPending == 0) {
+      flushStartCycle = Bus.getCycle();
     }
+    flushesPending++;
   }
 
   public void finishFlush(Address address, CoherenceState finalState) {
+    cleanSectors(address);
     setState(address, finalState);
-    isFlushing = false;
+    if (flushesPending > 0) {
+      flushesPending--;
+      if (flushesPending == 0) {
+        stats.recordFlushStall(Bus.getCycle() - flushStartCycle + 1);
+      }
+    }
   }
 
   public ProcessorStatistics getStatistics() {
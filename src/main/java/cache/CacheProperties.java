@@ -1,6 +1,7 @@
 package cache;
 
 import cache.coherence.CoherencePolicy;
+import cache.coherence.Protocol;
 
 /**
  * A collection of related cache properties. It is important to set these properties before
@@ -16,6 +17,7 @@ public class CacheProperties {
   private static int cacheSize = 4096; // The number of bytes in a processor cache.
   private static int associativity = 1; // The number of cache blocks per cache set.
   private static CoherencePolicy policy = CoherencePolicy.MSI; // The cache's coherence policy.
+  private static Protocol protocol = policy.getProtocol(); // The transition table of the policy.
 
   /**
    * An address is split ordered left to right for most significant to least significant bits is
@@ -25,18 +27,24 @@ public class CacheProperties {
    * The number of bits in the index, i, is such that 2 to the power of i equals the number of
    * sets in the cache. The number of bits in the offsets, o, is such that 2 to the power of o
    * equals the number of bytes in a block. The number of bits in the tag, t, equals the number of
-   * bits in a memory address minus (o + i). For this system, since a memory address is 32 bits,
-   * this is equivalent to 32 - (o + i).
+   * bits in a memory address minus (o + i). For this system, since a memory address is 64 bits,
+   * this is equivalent to 64 - (o + i).
    *
    * These are used by the cache to sort memory addresses into the appropriate cache entries.
    */
 
-  private static int tagSize = 20; // The number of the bits used for the tag of the address.
+  private static int tagSize = 52; // The number of the bits used for the tag of the address.
   private static int indexSize = 8; // The number of the bits used for the index of the address.
   private static int offsetSize = 4; // The number of the bits used for the offset of the address.
 
   public static final int WORD_SIZE = 4; // The number of bytes in a word of data.
 
+  private static int writeBackBufferEntries = 0; // The dirty victims a cache can buffer.
+  private static int victimCacheEntries = 0; // The blocks each cache's victim cache holds.
+  private static WritePolicy writePolicy = WritePolicy.WRITE_BACK; // How caches handle stores.
+  private static int writeBufferEntries = 8; // The blocks each cache's write buffer holds.
+  private static int sectorSize = 0; // The bytes of a sector of a block, 0 if blocks are whole.
+
   private CacheProperties() {}
 
   /**
@@ -61,6 +69,28 @@ public class CacheProperties {
     return getNumBlocks() / getAssociativity();
   }
 
+  /**
+   * Returns whether blocks are divided into sectors that are filled and written back separately.
+   */
+  public static boolean isSectored() {
+    return sectorSize > 0 && sectorSize < blockSize;
+  }
+
+  /**
+   * Returns the number of bytes of a sector, the whole block if blocks are not sectored.
+   */
+  public static int getSectorSize() {
+    return isSectored() ? sectorSize : blockSize;
+  }
+
+  public static int getSectorsPerBlock() {
+    return getBlockSize() / getSectorSize();
+  }
+
+  public static int getWordsPerSector() {
+    return getSectorSize() / WORD_SIZE;
+  }
+
   public static int getTagSize() {
     return tagSize;
   }
@@ -84,12 +114,71 @@ public class CacheProperties {
     return associativity;
   }
 
+  public static int getWriteBackBufferEntries() {
+    return writeBackBufferEntries;
+  }
+
+  /**
+   * Sets the number of dirty victims each cache can hold in its write-back buffer, 0 to disable
+   * the buffer. Applies to caches created afterwards.
+   */
+  public static void setWriteBackBufferEntries(int entries) {
+    writeBackBufferEntries = Math.max(0, entries);
+  }
+
+  public static int getVictimCacheEntries() {
+    return victimCacheEntries;
+  }
+
+  /**
+   * Sets the number of evicted blocks each cache's fully-associative victim cache holds, 0 to
+   * disable it. Applies to caches created afterwards.
+   */
+  public static void setVictimCacheEntries(int entries) {
+    victimCacheEntries = Math.max(0, entries);
+  }
+
+  public static WritePolicy getWritePolicy() {
+    return writePolicy;
+  }
+
+  /**
+   * Sets how caches handle stores. Applies to caches created afterwards.
+   */
+  public static void setWritePolicy(WritePolicy policy) {
+    writePolicy = policy;
+  }
+
+  public static int getWriteBufferEntries() {
+    return writeBufferEntries;
+  }
+
+  /**
+   * Sets the number of blocks each cache's write buffer holds stores of. Applies to caches
+   * created afterwards.
+   */
+  public static void setWriteBufferEntries(int entries) {
+    writeBufferEntries = Math.max(1, entries);
+  }
+
   public static CoherencePolicy getCoherencePolicy() {
     return policy;
   }
 
   public static void setCoherencePolicy(CoherencePolicy p) {
     policy = p;
+    protocol = p.getProtocol();
+  }
+
+  public static Protocol getProtocol() {
+    return protocol;
+  }
+
+  /**
+   * Uses a protocol that is not one of the built-in policies, e.g. one read from a definition file.
+   */
+  public static void setProtocol(Protocol p) {
+    protocol = p;
   }
 
   /*
@@ -101,6 +190,23 @@ public class CacheProperties {
     updateCacheAddressing();
   }
 
+  /**
+   * Divides blocks into sectors of the given number of bytes, each with its own valid and dirty
+   * bits, under the block's single tag and coherence state. 0 (or the block size) leaves blocks
+   * whole. Set after the block size.
+   */
+  public static void setSectorSize(int size) throws Exception {
+    if (size > 0 && size < blockSize) {
+      if (size % WORD_SIZE != 0 || blockSize % size != 0) {
+        throw new Exception("Sector size must be a multiple of the word size that divides the"
+            + " block size.");
+      } else if (blockSize / size > Long.SIZE) {
+        throw new Exception("Blocks can have at most " + Long.SIZE + " sectors.");
+      }
+    }
+    sectorSize = Math.max(0, size);
+  }
+
   /*
     Cache size is assumed to be given in bytes and is set to max(blockSize, size).
    */
@@ -140,6 +246,6 @@ public class CacheProperties {
     int numBlocks = cacheSize / blockSize;
     indexSize = Integer.numberOfTrailingZeros(numBlocks / associativity);
     offsetSize = Integer.numberOfTrailingZeros(blockSize);
-    tagSize = 32 - (offsetSize + indexSize);
+    tagSize = Long.SIZE - (offsetSize + indexSize);
   }
 }
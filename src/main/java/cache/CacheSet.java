@@ -1,8 +1,11 @@
 package cache;
 
+import bus.Bus;
 import bus.BusAction;
 import bus.BusJob;
 import cache.coherence.*;
+import monitoring.EvictionEvent;
+import statistics.EventType;
 import statistics.ProcessorStatistics;
 
 import java.util.HashMap;
@@ -39,6 +42,31 @@ public class CacheSet {
         .findAny();
   }
 
+  /**
+   * Returns whether the address is present in a block that would have to be written back to memory.
+   */
+  public boolean isDirty(Address address) {
+    return getBlockContaining(address)
+        .map(block -> block.writeBackOnEvict() && block.isSectorDirty(address))
+        .orElse(false);
+  }
+
+  /**
+   * Returns the state of the address in the set, which is I if no block contains it.
+   */
+  public CoherenceState getState(Address address) {
+    return getBlockContaining(address).map(CacheBlock::getState).orElse(CoherenceState.I);
+  }
+
+  /**
+   * Returns whether the set holds the address in a state that supplies the data to other caches.
+   */
+  public boolean suppliesData(Address address) {
+    return getBlockContaining(address)
+        .map(block -> block.suppliesData() && block.hasSector(address))
+        .orElse(false);
+  }
+
   public boolean hasUnusedBlock() {
     return blocks.keySet().stream().anyMatch(CacheBlock::isInvalid);
   }
@@ -67,10 +95,12 @@ public class CacheSet {
       } else {
         cache.getStatistics().incrementPrivateAccesses();
       }
+      fetchMissingSector(target, address);
       blocks.put(target, 0L); // Update the block to be the most recently used.
     } else {
       Optional<CacheBlock> empty = getEmptyBlock();
       if (empty.isPresent()) {
+        empty.get().clearSectors();
         empty.get().readBlock(address);
         blocks.put(empty.get(), 0L); // Update the block to be the most recently used.
       } else {
@@ -91,10 +121,13 @@ public class CacheSet {
         cache.getStatistics().incrementPrivateAccesses();
       }
       target.writeBlock(address);
+      target.markSectorDirty(address);
+      fetchMissingSector(target, address);
       blocks.put(target, 0L); // Update the block to be the most recently used.
     } else {
       Optional<CacheBlock> empty = getEmptyBlock();
       if (empty.isPresent()) {
+        empty.get().clearSectors();
         empty.get().writeBlock(address);
         blocks.put(empty.get(), 0L); // Update the block to be the most recently used.
       } else {
@@ -104,6 +137,42 @@ public class CacheSet {
     }
   }
 
+  /*
+   * Reads in the sector of the address if the block holds its tag but not the sector (a sector
+   * miss), keeping the block's state. A bus job the access already issued brings the sector in.
+   */
+  private void fetchMissingSector(CacheBlock block, Address address) {
+    if (!block.hasSector(address) && !block.isInvalid() && !cache.hasPendingJob()) {
+      Bus.getStatistics().incrementSectorMisses();
+      cache.setJob(new BusJob(cache, address, BusAction.BUSRD, Cache::getState));
+    }
+  }
+
+  /**
+   * Marks the sector of the address as holding data, and as dirty if a write brought it in.
+   */
+  public void fillSector(Address address, boolean written) {
+    getBlockContaining(address).ifPresent(block -> {
+      block.fillSector(address);
+      if (written) {
+        block.markSectorDirty(address);
+      }
+    });
+  }
+
+  /**
+   * Returns the number of bytes writing the address's block back to memory transfers.
+   */
+  public int getWriteBackBytes(Address address) {
+    return getBlockContaining(address)
+        .map(CacheBlock::getWriteBackBytes)
+        .orElse(CacheProperties.getBlockSize());
+  }
+
+  public void cleanSectors(Address address) {
+    getBlockContaining(address).ifPresent(CacheBlock::cleanSectors);
+  }
+
   public void remoteWrite(Address address) {
     getBlockContaining(address).ifPresent(block -> block.remoteWrite(address));
   }
@@ -124,6 +193,7 @@ public class CacheSet {
       // Need to allocate a block. Assume one is available:
       Optional<CacheBlock> optEmpty = getEmptyBlock();
       if (optEmpty.isPresent()) {
+        optEmpty.get().clearSectors();
         optEmpty.get().setAddress(address);
         optEmpty.get().setState(state);
       } else {
@@ -146,23 +216,77 @@ public class CacheSet {
    */
   public void finishLruEviction() {
     CacheBlock lru = getLru();
+    if (Bus.getEventRecorder().isEnabled() && !lru.isInvalid()) {
+      Bus.getEventRecorder().record(Bus.getCycle(), cache.getId(), EventType.EVICT,
+          lru.getAddress(), lru.getState(), CoherenceState.I);
+    }
+    if (!lru.isInvalid()) {
+      EvictionEvent.emit(cache.getId(), lru.getAddress().getBlockAddress(),
+          lru.getState().toString(), Bus.getCycle());
+      if (cache.getVictimCache().isEnabled()) {
+        cache.getVictimCache().insert(lru);
+      }
+    }
     lru.invalidate();
     updateLRU();
     blocks.put(lru, 0L);
   }
 
+  /**
+   * Swaps a victim cache entry into the set, in exchange for an unused block or the LRU block.
+   */
+  public void swapIn(CacheBlock entry) {
+    CacheBlock target = getEmptyBlock().orElseGet(this::getLru);
+    target.swapWith(entry);
+    updateLRU();
+    blocks.put(target, 0L); // Update the block to be the most recently used.
+  }
+
+  /*
+   * Returns the block leaving the cache to make room: the LRU block, or, with a victim cache, the
+   * victim cache entry the LRU block displaces (none if an entry is free).
+   */
+  private Optional<CacheBlock> getVictim() {
+    return cache.getVictimCache().isEnabled()
+        ? cache.getVictimCache().getDisplaced() : Optional.of(getLru());
+  }
+
+  /**
+   * Returns the number of bytes writing back the block that leaves the set next transfers.
+   */
+  public int getEvictionBytes() {
+    return getVictim().map(CacheBlock::getWriteBackBytes).orElse(CacheProperties.getBlockSize());
+  }
+
   public void startEvictionFor(Address address) {
+    Optional<CacheBlock> victim = getVictim();
     /*
-     * True if there is no empty block and evicting the LRU block would require (by the coherence
-     * protocol) the data to be flushed to main memory.
+     * True if there is no empty block and evicting the victim would require (by the coherence
+     * protocol) the data to be flushed to main memory. Only then does the eviction pay for a
+     * write-back, a victim memory already holds is dropped.
      */
-    boolean evictionRequiresFlush = !hasUnusedBlock() && getLru().writeBackOnEvict();
+    boolean evictionRequiresFlush = !hasUnusedBlock()
+        && !cache.getWritePolicy().writesThrough() // Memory is kept up to date by the stores.
+        && victim.map(CacheBlock::writeBackOnEvict).orElse(false);
 
+    WriteBackBuffer buffer = cache.getWriteBackBuffer();
     if (!evictionRequiresFlush) {
+      // Nothing has to be written back:
+      finishLruEviction();
+    } else if (buffer.contains(victim.get().getAddress().getBlockAddress())) {
+      // An older copy of the victim is still waiting to be written back, this one replaces it:
+      finishLruEviction();
+    } else if (buffer.isEnabled() && !buffer.isFull() && !Bus.isFunctional()) {
+      // Park the dirty victim in the write-back buffer so the miss can go ahead:
+      buffer.add(victim.get().getAddress().getBlockAddress());
+      Bus.getStatistics().incrementWriteBackBufferInserts();
+      finishLruEviction();
+    } else {
+      if (buffer.isEnabled()) {
+        Bus.getStatistics().incrementWriteBackBufferFullStalls();
+      }
       BusJob job = new BusJob(cache, address, BusAction.EVICTLRU, (local, a) -> CoherenceState.I);
       cache.setJob(job);
-    } else {
-      finishLruEviction();
     }
   }
 }
@@ -7,7 +7,9 @@ public class Instruction {
   /*
     The instruction type and the value being used. If the type type is STORE or LOAD, then the value
     is the memory address. If the type type is "OTHER", then the value is the number of cycles
-    required to process the instruction.
+    required to process the instruction. Atomic and synchronization types also carry the memory
+    address, except for FENCE, which has no operand. BARRIER, SIGNAL and WAIT carry the number of
+    the barrier or event.
   */
   public Instruction(InstructionType type, long value) {
     this.type = type;
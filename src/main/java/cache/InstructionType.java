@@ -1,5 +1,26 @@
 package cache;
 
 public enum InstructionType {
-    LOAD, STORE, OTHER, INVALID
+    LOAD(true), STORE(true), OTHER(false),
+    ATOMIC(true), // A read-modify-write of the address, e.g. a swap or fetch-and-add.
+    LOAD_LINKED(true), // A load that places a reservation on the address's block.
+    STORE_CONDITIONAL(true), // A store that only succeeds if the reservation still holds.
+    FENCE(false), // Waits for the stores in the write buffer to be written. The value is ignored.
+    BARRIER(false), // Waits until every core has reached the barrier of the same number.
+    SIGNAL(false), // Signals the event of the number, once and for all.
+    WAIT(false), // Waits until the event of the number has been signalled by some core.
+    INVALID(true);
+
+    private final boolean hasAddress;
+
+    InstructionType(boolean hasAddress) {
+        this.hasAddress = hasAddress;
+    }
+
+    /**
+     * Returns whether the value of an instruction of the type is a memory address.
+     */
+    public boolean hasAddress() {
+        return hasAddress;
+    }
 }
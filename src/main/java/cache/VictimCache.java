@@ -0,0 +1,110 @@
+package cache;
+
+import cache.coherence.CacheBlock;
+import cache.coherence.CoherencePolicy;
+import cache.coherence.CoherenceState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A small fully-associative cache beside a cache's sets, holding the blocks evicted from them. A
+ * miss that finds its block here swaps it back into its set, in exchange for the set's LRU block.
+ * Its blocks keep their coherence states and answer snoops like the blocks of the sets. With no
+ * entries, the victim cache is disabled.
+ */
+public class VictimCache {
+  private final List<CacheBlock> blocks; // The entries, most recently used first.
+
+  public VictimCache(Cache cache, int entries) {
+    blocks = new ArrayList<>(Math.max(0, entries));
+    for (int i = 0; i < entries; i++) {
+      blocks.add(CoherencePolicy.createBlock(cache));
+    }
+  }
+
+  public boolean isEnabled() {
+    return !blocks.isEmpty();
+  }
+
+  /**
+   * Optionally returns the entry holding the address. Entries are matched by block address, since
+   * blocks of every set share the victim cache.
+   */
+  public Optional<CacheBlock> find(Address address) {
+    long block = address.getBlockAddress();
+    return blocks.stream()
+        .filter(b -> !b.isInvalid() && b.getAddress().getBlockAddress() == block)
+        .findFirst();
+  }
+
+  public boolean contains(Address address) {
+    return find(address).isPresent();
+  }
+
+  public CoherenceState getState(Address address) {
+    return find(address).map(CacheBlock::getState).orElse(CoherenceState.I);
+  }
+
+  public boolean isDirty(Address address) {
+    return find(address).map(CacheBlock::writeBackOnEvict).orElse(false);
+  }
+
+  public boolean suppliesData(Address address) {
+    return find(address).map(CacheBlock::suppliesData).orElse(false);
+  }
+
+  /**
+   * Returns the entry the next victim would displace, or none if an entry is unused.
+   */
+  public Optional<CacheBlock> getDisplaced() {
+    if (blocks.stream().anyMatch(CacheBlock::isInvalid)) {
+      return Optional.empty();
+    }
+    return Optional.of(blocks.get(blocks.size() - 1));
+  }
+
+  /**
+   * Copies a block evicted from a set into the victim cache, displacing the least recently used
+   * entry if none is unused. A displaced dirty entry must have been written back already.
+   */
+  public void insert(CacheBlock victim) {
+    CacheBlock entry = blocks.stream()
+        .filter(CacheBlock::isInvalid)
+        .findFirst()
+        .orElse(blocks.get(blocks.size() - 1));
+    entry.copyFrom(victim);
+    touch(entry);
+  }
+
+  /**
+   * Makes the entry the most recently used.
+   */
+  public void touch(CacheBlock entry) {
+    blocks.remove(entry);
+    blocks.add(0, entry);
+  }
+
+  public void setState(Address address, CoherenceState state) {
+    find(address).ifPresent(b -> b.setState(state));
+  }
+
+  public boolean remoteRead(Address address) {
+    Optional<CacheBlock> entry = find(address);
+    entry.ifPresent(b -> b.remoteRead(address));
+    return entry.isPresent();
+  }
+
+  public boolean remoteWrite(Address address) {
+    Optional<CacheBlock> entry = find(address);
+    entry.ifPresent(b -> b.remoteWrite(address));
+    return entry.isPresent();
+  }
+
+  public boolean remoteUpdate(Address address) {
+    Optional<CacheBlock> entry = find(address);
+    entry.ifPresent(b -> b.remoteUpdate(address));
+    return entry.isPresent();
+  }
+}
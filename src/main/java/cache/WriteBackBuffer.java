@@ -0,0 +1,69 @@
+package cache;
+
+/**
+ * A cache's write-back buffer: dirty victims wait here, oldest first, to be written to memory in
+ * cycles the bus is idle, so that the miss that evicted them does not wait for the write. The
+ * buffer holds the only up-to-date copy of its blocks, so it answers snoops for them. With no
+ * entries, the buffer is disabled and dirty victims are written back before the miss starts.
+ */
+public class WriteBackBuffer {
+  private final long[] blocks; // The block addresses of the victims, oldest first.
+  private int size = 0;
+
+  public WriteBackBuffer(int entries) {
+    blocks = new long[Math.max(0, entries)];
+  }
+
+  public boolean isEnabled() {
+    return blocks.length > 0;
+  }
+
+  public boolean isFull() {
+    return size == blocks.length;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds a victim to the buffer, which must not be full.
+   */
+  public void add(long block) {
+    blocks[size++] = block;
+  }
+
+  public boolean contains(long block) {
+    for (int i = 0; i < size; i++) {
+      if (blocks[i] == block) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the block address of the oldest victim. The buffer must not be empty.
+   */
+  public long oldest() {
+    return blocks[0];
+  }
+
+  /**
+   * Removes the victim from the buffer, returning whether it was there.
+   */
+  public boolean remove(long block) {
+    for (int i = 0; i < size; i++) {
+      if (blocks[i] == block) {
+        System.arraycopy(blocks, i + 1, blocks, i, size - i - 1);
+        size--;
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,122 @@
+package cache;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache's buffer of stores on their way to memory, one entry per block holding the words
+ * written, oldest first. Stores to a block that is already waiting are coalesced into its entry.
+ * The bus drains the buffer in idle cycles: a plain buffer writes its oldest entry as soon as it
+ * can, while a combining buffer only writes full lines until it fills up.
+ */
+public class WriteBuffer {
+  private final Map<Long, Entry> entries = new LinkedHashMap<>(); // By block address, oldest first.
+  private final int capacity; // The number of blocks the buffer holds.
+  private final boolean combining;
+  private boolean released = false; // Whether partial lines are written without waiting.
+
+  /**
+   * The words of a block waiting to be written.
+   */
+  public static class Entry {
+    private final Address address;
+    private final boolean bypassed; // The stores missed, so the other copies must be invalidated.
+    private final BitSet words = new BitSet(); // A bit per word written.
+
+    Entry(Address address, boolean bypassed) {
+      this.address = address;
+      this.bypassed = bypassed;
+    }
+
+    public Address getAddress() {
+      return address;
+    }
+
+    public boolean isBypassed() {
+      return bypassed;
+    }
+
+    public int getWordCount() {
+      return words.cardinality();
+    }
+
+    public boolean isFullLine() {
+      return getWordCount() == CacheProperties.getWordsPerBlock();
+    }
+  }
+
+  public WriteBuffer(int capacity, boolean combining) {
+    this.capacity = Math.max(1, capacity);
+    this.combining = combining;
+  }
+
+  /**
+   * Returns whether a store to the address can be buffered now, i.e. whether its block already
+   * has an entry or the buffer has room for one.
+   */
+  public boolean accepts(Address address) {
+    return entries.size() < capacity || entries.containsKey(address.getBlockAddress());
+  }
+
+  /**
+   * Adds the stored word to its block's entry. Returns false if the store was coalesced into an
+   * entry that was already waiting.
+   */
+  public boolean add(Address address, boolean bypassed) {
+    Entry entry = entries.get(address.getBlockAddress());
+    boolean added = entry == null;
+    if (added) {
+      entry = new Entry(address, bypassed);
+      entries.put(address.getBlockAddress(), entry);
+    }
+    entry.words.set(address.getOffset() / CacheProperties.WORD_SIZE);
+    return added;
+  }
+
+  /**
+   * Stops a combining buffer from holding partial lines back until it has drained, e.g. once no
+   * more stores will come or for a fence.
+   */
+  public void releasePartialLines() {
+    released = true;
+  }
+
+  public boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Removes and returns the entry to write next, or null if none should be written yet.
+   */
+  public Entry takeNext() {
+    if (entries.isEmpty()) {
+      return null;
+    }
+    Iterator<Entry> oldest = entries.values().iterator();
+    if (combining && !released) {
+      while (oldest.hasNext()) {
+        Entry entry = oldest.next();
+        if (entry.isFullLine()) {
+          oldest.remove();
+          return entry;
+        }
+      }
+      if (entries.size() < capacity) {
+        return null; // Wait for the partial lines to fill up.
+      }
+      oldest = entries.values().iterator();
+    }
+    Entry entry = oldest.next();
+    oldest.remove();
+    if (entries.isEmpty()) {
+      released = false;
+    }
+    return entry;
+  }
+}
@@ -0,0 +1,45 @@
+package cache;
+
+/**
+ * How a cache handles stores. Store misses that do not allocate, and words written through, go to
+ * memory through the cache's write buffer, which the bus drains in idle cycles. Only
+ * invalidation-based protocols support stores that do not allocate: under an update-based
+ * protocol every store allocates.
+ */
+public enum WritePolicy {
+  WRITE_BACK(true, false, false), // Stores allocate, and dirty blocks are written back on eviction.
+  WRITE_THROUGH(true, true, false), // Stores allocate, and every store is also written to memory.
+  NO_WRITE_ALLOCATE(false, false, false), // Store misses bypass the cache, written one by one.
+  WRITE_COMBINING(false, false, true); // Store misses bypass the cache, combined into full lines.
+
+  private final boolean allocates;
+  private final boolean writesThrough;
+  private final boolean combines;
+
+  WritePolicy(boolean allocates, boolean writesThrough, boolean combines) {
+    this.allocates = allocates;
+    this.writesThrough = writesThrough;
+    this.combines = combines;
+  }
+
+  /**
+   * Returns whether a store miss brings the block into the cache.
+   */
+  public boolean allocatesOnWrite() {
+    return allocates;
+  }
+
+  /**
+   * Returns whether every store is written to memory, so that evicted blocks are never dirty.
+   */
+  public boolean writesThrough() {
+    return writesThrough;
+  }
+
+  /**
+   * Returns whether the write buffer holds partial lines back, waiting for the rest of the line.
+   */
+  public boolean combines() {
+    return combines;
+  }
+}
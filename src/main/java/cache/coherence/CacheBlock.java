@@ -2,34 +2,63 @@ package cache.coherence;
 
 import cache.Address;
 import cache.Cache;
+import cache.CacheProperties;
 
-public abstract class CacheBlock {
+/**
+ * A block of a cache. Its state changes are driven by the transition table of a coherence
+ * protocol.
+ */
+public class CacheBlock {
   protected Cache cache; // A reference to the cache that contains this block.
   protected CoherenceState state;
   protected Address address; // Contains the tag currently contained in the block.
+  private final Protocol protocol; // The coherence protocol the block follows.
+  private long validSectors = 0L; // A bit per sector holding data, if blocks are sectored.
+  private long dirtySectors = 0L; // A bit per sector written since it was last clean.
 
-  protected CacheBlock(Cache cache, Address address) {
+  protected CacheBlock(Cache cache, Address address, Protocol protocol) {
     this.cache = cache;
     this.address = address;
+    this.protocol = protocol;
     this.state = CoherenceState.I;
   }
 
-  public abstract void readBlock(Address address);
-  public abstract void writeBlock(Address address);
+  public void readBlock(Address address) {
+    protocol.handle(this, ProtocolEvent.READ, address);
+  }
+
+  public void writeBlock(Address address) {
+    protocol.handle(this, ProtocolEvent.WRITE, address);
+  }
 
   /**
    * Signal that a BusRd operation has isFinished for the given address.
    */
-  public abstract void remoteRead(Address address);
+  public void remoteRead(Address address) {
+    protocol.handle(this, ProtocolEvent.REMOTE_READ, address);
+  }
 
   /**
    * Signal that a BusRdX operation has isFinished for the given address.
    */
-  public abstract void remoteWrite(Address address);
+  public void remoteWrite(Address address) {
+    protocol.handle(this, ProtocolEvent.REMOTE_WRITE, address);
+  }
 
-  public abstract void remoteUpdate(Address address);
+  public void remoteUpdate(Address address) {
+    protocol.handle(this, ProtocolEvent.REMOTE_UPDATE, address);
+  }
 
-  public abstract boolean isShared();
+  public boolean isShared() {
+    return protocol.isShared(state);
+  }
+
+  /**
+   * Returns whether the block answers other caches' reads with its data.
+   */
+  public boolean suppliesData() {
+    return protocol.suppliesData(state);
+  }
 
   public boolean isInvalid() {
     return state == CoherenceState.I;
@@ -47,16 +76,103 @@ public abstract class CacheBlock {
    * Returns whether the block is currently in a state that requires a write back to memory if the
    * block is evicted.
    */
-  public abstract boolean writeBackOnEvict();
+  public boolean writeBackOnEvict() {
+    return protocol.writeBackOnEvict(state);
+  }
 
   public void invalidate() {
     setState(CoherenceState.I);
   }
 
+  public CoherenceState getState() {
+    return state;
+  }
+
+  public Address getAddress() {
+    return address;
+  }
+
   public void setAddress(Address address) {
     this.address = address;
   }
 
+  private static long sectorBit(Address address) {
+    return 1L << (address.getOffset() / CacheProperties.getSectorSize());
+  }
+
+  /**
+   * Returns whether the sector of the address holds data. Always true if blocks are not sectored.
+   */
+  public boolean hasSector(Address address) {
+    return !CacheProperties.isSectored() || (validSectors & sectorBit(address)) != 0;
+  }
+
+  /**
+   * Marks the sector of the address as holding data, once it has been brought in over the bus.
+   */
+  public void fillSector(Address address) {
+    validSectors |= sectorBit(address);
+  }
+
+  public void markSectorDirty(Address address) {
+    dirtySectors |= sectorBit(address);
+  }
+
+  public boolean isSectorDirty(Address address) {
+    return !CacheProperties.isSectored() || (dirtySectors & sectorBit(address)) != 0;
+  }
+
+  /**
+   * Marks every sector clean, e.g. once the block has been written to memory.
+   */
+  public void cleanSectors() {
+    dirtySectors = 0L;
+  }
+
+  /**
+   * Marks every sector invalid, for a block taking a new address.
+   */
+  public void clearSectors() {
+    validSectors = 0L;
+    dirtySectors = 0L;
+  }
+
+  /**
+   * Returns the number of bytes writing the block back to memory transfers: its dirty sectors, or
+   * the whole block if blocks are not sectored. A block is written back one sector at least.
+   */
+  public int getWriteBackBytes() {
+    if (!CacheProperties.isSectored()) {
+      return CacheProperties.getBlockSize();
+    }
+    return Math.max(1, Long.bitCount(dirtySectors)) * CacheProperties.getSectorSize();
+  }
+
+  /**
+   * Takes the address, state and sectors of the other block, e.g. moving it to a victim cache.
+   */
+  public void copyFrom(CacheBlock other) {
+    address = other.address;
+    state = other.state;
+    validSectors = other.validSectors;
+    dirtySectors = other.dirtySectors;
+  }
+
+  /**
+   * Exchanges the address, state and sectors of the two blocks.
+   */
+  public void swapWith(CacheBlock other) {
+    Address otherAddress = other.address;
+    CoherenceState otherState = other.state;
+    long otherValid = other.validSectors;
+    long otherDirty = other.dirtySectors;
+    other.copyFrom(this);
+    address = otherAddress;
+    state = otherState;
+    validSectors = otherValid;
+    dirtySectors = otherDirty;
+  }
+
   public boolean contains(Address address) {
     return this.state != CoherenceState.I
         && address.getTag() == this.address.getTag();
@@ -1,31 +1,159 @@
 package cache.coherence;
 
+import bus.BusAction;
 import cache.Address;
 import cache.Cache;
 import cache.CacheProperties;
 
+import static cache.coherence.CoherenceState.*;
+import static cache.coherence.ProtocolEvent.*;
+
+/**
+ * The built-in coherence protocols. Each is defined below as a transition table; protocols defined
+ * elsewhere (e.g. read from a file with ProtocolParser) are used with CacheProperties.setProtocol.
+ */
 public enum CoherencePolicy {
-  MSI,
-  MESI,
-  MUSI,
-  DRAGON;
+  MSI(msi()),
+  MESI(mesi()),
+  MUSI(musi()),
+  DRAGON(dragon()),
+  MOESI(moesi()),
+  MESIF(mesif());
+
+  private final Protocol protocol;
+
+  CoherencePolicy(Protocol protocol) {
+    this.protocol = protocol;
+  }
+
+  public Protocol getProtocol() {
+    return protocol;
+  }
 
   public static CacheBlock createBlock(Cache cache) {
     return createBlock(cache, new Address(-1));
   }
 
   public static CacheBlock createBlock(Cache cache, Address address) {
-    switch (CacheProperties.getCoherencePolicy()) {
-      case MSI:
-        return new MsiCacheBlock(cache, address);
-      case MUSI:
-        return new MusiCacheBlock(cache, address);
-      case MESI:
-        return new MesiCacheBlock(cache, address);
-      case DRAGON:
-        return new DragonCacheBlock(cache, address);
-      default:
-        return new MsiCacheBlock(cache, address);
-    }
+    return new CacheBlock(cache, address, CacheProperties.getProtocol());
+  }
+
+  private static Protocol msi() {
+    return Protocol.builder("MSI")
+        .states(M, S, I).writeBackOnEvict(M).shared(S)
+        .rejects(REMOTE_UPDATE) // MSI is an invalidation-based protocol.
+        .on(I, READ).issue(BusAction.BUSRD, S)
+        .on(I, WRITE).issue(BusAction.BUSRDX, M)
+        .on(S, WRITE).issue(BusAction.BUSRDX, M)
+        .on(M, WRITE).writeHit()
+        .on(M, REMOTE_READ).flush(S)
+        .on(M, REMOTE_WRITE).flush(I).invalidation()
+        .on(S, REMOTE_WRITE).to(I).invalidation()
+        .build();
+  }
+
+  private static Protocol mesi() {
+    return Protocol.builder("MESI")
+        .states(M, E, S, I).writeBackOnEvict(M).shared(S)
+        .rejects(REMOTE_UPDATE) // MESI is an invalidation-based protocol.
+        .on(I, READ).issue(BusAction.BUSRD, S, E)
+        .on(I, WRITE).issue(BusAction.BUSRDX, M)
+        .on(S, WRITE).issue(BusAction.BUSRDX, M)
+        .on(E, WRITE).to(M).writeHit()
+        .on(M, WRITE).writeHit()
+        .on(M, REMOTE_READ).flush(S)
+        .on(E, REMOTE_READ).to(S)
+        .on(M, REMOTE_WRITE).flush(I).invalidation()
+        .on(E, REMOTE_WRITE).to(I).invalidation()
+        .on(S, REMOTE_WRITE).to(I).invalidation()
+        .build();
+  }
+
+  /*
+   * MSI, except that a write to a shared block invalidates the other copies immediately instead
+   * of through a BusRdX.
+   */
+  private static Protocol musi() {
+    return Protocol.builder("MUSI")
+        .states(M, S, I).writeBackOnEvict(M).shared(S)
+        .rejects(REMOTE_UPDATE)
+        .on(I, READ).issue(BusAction.BUSRD, S)
+        .on(I, WRITE).issue(BusAction.BUSRDX, M)
+        .on(S, WRITE).broadcastWrite().to(M).writeHit()
+        .on(M, WRITE).writeHit()
+        .on(M, REMOTE_READ).flush(S)
+        .on(M, REMOTE_WRITE).flush(I).invalidation()
+        .on(S, REMOTE_WRITE).to(I).invalidation()
+        .build();
+  }
+
+  private static Protocol dragon() {
+    return Protocol.builder("DRAGON")
+        .states(E, SC, SM, M, I).writeBackOnEvict(SM, M).shared(SC, SM)
+        .rejects(REMOTE_WRITE) // Dragon sends updates instead of invalidations.
+        .on(I, READ).issue(BusAction.BUSRD, SC, E)
+        // A write miss reads the block, then immediately updates the other copies:
+        .on(I, WRITE).issue(BusAction.BUSRD, I).then(BusAction.BUSUPD, SM, M)
+        .on(E, WRITE).to(M).writeHit()
+        .on(M, WRITE).writeHit()
+        .on(SC, WRITE).issue(BusAction.BUSUPD, SM, M)
+        .on(SM, WRITE).issue(BusAction.BUSUPD, SM, M)
+        .on(E, REMOTE_READ).to(SC)
+        .on(M, REMOTE_READ).flush(SM)
+        .on(SM, REMOTE_READ).flush(SM)
+        .on(SM, REMOTE_UPDATE).to(SC)
+        .on(E, REMOTE_UPDATE).invalid()
+        .on(M, REMOTE_UPDATE).invalid()
+        .build();
+  }
+
+  /*
+   * MESI with an Owned state: a modified block that another cache reads stays dirty in the owner,
+   * which supplies it cache to cache, instead of being flushed to memory. Memory is only written
+   * when an M or O block is evicted. Memory supplies blocks held only in S.
+   */
+  private static Protocol moesi() {
+    return Protocol.builder("MOESI")
+        .states(M, O, E, S, I).writeBackOnEvict(M, O).shared(O, S).suppliesData(M, O, E)
+        .rejects(REMOTE_UPDATE)
+        .on(I, READ).issue(BusAction.BUSRD, S, E)
+        .on(I, WRITE).issue(BusAction.BUSRDX, M)
+        .on(S, WRITE).issue(BusAction.BUSRDX, M)
+        .on(O, WRITE).issue(BusAction.BUSRDX, M)
+        .on(E, WRITE).to(M).writeHit()
+        .on(M, WRITE).writeHit()
+        .on(M, REMOTE_READ).to(O)
+        .on(E, REMOTE_READ).to(S)
+        // The dirty data moves to the writer along with ownership:
+        .on(M, REMOTE_WRITE).to(I).invalidation()
+        .on(O, REMOTE_WRITE).to(I).invalidation()
+        .on(E, REMOTE_WRITE).to(I).invalidation()
+        .on(S, REMOTE_WRITE).to(I).invalidation()
+        .build();
+  }
+
+  /*
+   * MESI with a Forward state: of the caches sharing a clean block, only the one that read it
+   * last (in F) answers reads, and hands F on to the reader. Memory supplies blocks held only in
+   * S, e.g. once the forwarder has evicted its copy.
+   */
+  private static Protocol mesif() {
+    return Protocol.builder("MESIF")
+        .states(M, E, S, F, I).writeBackOnEvict(M).shared(S, F).suppliesData(M, E, F)
+        .rejects(REMOTE_UPDATE)
+        .on(I, READ).issue(BusAction.BUSRD, F, E)
+        .on(I, WRITE).issue(BusAction.BUSRDX, M)
+        .on(S, WRITE).issue(BusAction.BUSRDX, M)
+        .on(F, WRITE).issue(BusAction.BUSRDX, M)
+        .on(E, WRITE).to(M).writeHit()
+        .on(M, WRITE).writeHit()
+        .on(M, REMOTE_READ).flush(S)
+        .on(E, REMOTE_READ).to(S)
+        .on(F, REMOTE_READ).to(S)
+        .on(M, REMOTE_WRITE).flush(I).invalidation()
+        .on(E, REMOTE_WRITE).to(I).invalidation()
+        .on(S, REMOTE_WRITE).to(I).invalidation()
+        .on(F, REMOTE_WRITE).to(I).invalidation()
+        .build();
   }
 }
@@ -4,5 +4,7 @@ public enum CoherenceState {
   // M(E)SI protocol states:
   M, E, S, I,
   // Extra states for use in the Dragon protocol:
-  SC, SM
+  SC, SM,
+  // Owned (MOESI) and Forward (MESIF):
+  O, F
 }
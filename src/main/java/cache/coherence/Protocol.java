@@ -0,0 +1,148 @@
+package cache.coherence;
+
+import bus.Bus;
+import bus.BusAction;
+import bus.BusJob;
+import bus.StateEvaluator;
+import cache.Address;
+import cache.Cache;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A coherence protocol compiled into a state by event transition table. Every entry of the table
+ * is spread over primitive arrays indexed by state.ordinal() * EVENTS + event.ordinal(), so
+ * handling an event is a handful of array loads and flag tests rather than a nested switch per
+ * protocol. The final-state evaluators of the bus jobs are created once per entry, when the table
+ * is compiled. Protocols are defined with a ProtocolBuilder or read from a definition file with
+ * ProtocolParser.
+ */
+public final class Protocol {
+  static final int EVENTS = ProtocolEvent.values().length;
+  static final byte NONE = -1;
+
+  // The flags of a table entry:
+  static final int INVALID = 1; // The event should not happen in the state: log it.
+  static final int INVALIDATION = 2; // The event invalidated the local copy: count it.
+  static final int WRITE_HIT = 4; // A write finished without the bus: count a zero write latency.
+  static final int BROADCAST_WRITE = 8; // Invalidate the other copies without a bus job.
+
+  private static final CoherenceState[] STATES = CoherenceState.values();
+  private static final BusAction[] ACTIONS = BusAction.values();
+
+  private final String name;
+  private final byte[] nextState;
+  private final byte[] flushState;
+  private final byte[] jobAction;
+  private final StateEvaluator[] jobFinalState;
+  private final byte[] successorAction;
+  private final StateEvaluator[] successorFinalState;
+  private final byte[] flags;
+  private final boolean[] writeBackOnEvict; // Indexed by state.
+  private final boolean[] shared; // Indexed by state.
+  private final boolean[] suppliesData; // Indexed by state.
+  private final boolean invalidationBased; // Whether any state accepts REMOTE_WRITE.
+
+  Protocol(String name, byte[] nextState, byte[] flushState, byte[] jobAction,
+           StateEvaluator[] jobFinalState, byte[] successorAction,
+           StateEvaluator[] successorFinalState, byte[] flags, boolean[] writeBackOnEvict,
+           boolean[] shared, boolean[] suppliesData) {
+    this.name = name;
+    this.nextState = nextState;
+    this.flushState = flushState;
+    this.jobAction = jobAction;
+    this.jobFinalState = jobFinalState;
+    this.successorAction = successorAction;
+    this.successorFinalState = successorFinalState;
+    this.flags = flags;
+    this.writeBackOnEvict = writeBackOnEvict;
+    this.shared = shared;
+    this.suppliesData = suppliesData;
+    boolean invalidates = false;
+    for (CoherenceState state : STATES) {
+      invalidates |= (flags[index(state, ProtocolEvent.REMOTE_WRITE)] & INVALID) == 0;
+    }
+    this.invalidationBased = invalidates;
+  }
+
+  public static ProtocolBuilder builder(String name) {
+    return new ProtocolBuilder(name);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns whether other caches' writes invalidate copies (REMOTE_WRITE), rather than update them.
+   */
+  public boolean isInvalidationBased() {
+    return invalidationBased;
+  }
+
+  static int index(CoherenceState state, ProtocolEvent event) {
+    return state.ordinal() * EVENTS + event.ordinal();
+  }
+
+  /**
+   * Carries out the transition of the block's current state on the event.
+   */
+  void handle(CacheBlock block, ProtocolEvent event, Address address) {
+    int i = index(block.state, event);
+    int entryFlags = flags[i];
+    if ((entryFlags & INVALID) != 0) {
+      Logger.getLogger(getClass().getName()).log(Level.SEVERE,
+          "Invalid state in " + name + " " + event + ": " + block.state);
+      return;
+    }
+
+    Cache cache = block.cache;
+    if ((entryFlags & BROADCAST_WRITE) != 0) {
+      Bus.broadcastRemoteWrite(cache, address);
+    }
+    if (flushState[i] != NONE) {
+      Bus.flush(cache, address, STATES[flushState[i]]);
+    }
+    if (nextState[i] != NONE) {
+      block.state = STATES[nextState[i]];
+    }
+    if ((entryFlags & INVALIDATION) != 0) {
+      Bus.getStatistics().incrementBusInvalidations();
+      Bus.getLineProfiler().recordInvalidationReceived(address);
+    }
+    if ((entryFlags & WRITE_HIT) != 0) {
+      Bus.getStatistics().addWriteLatency(0);
+      cache.getStatistics().recordWriteLatency(0);
+    }
+    if (jobAction[i] != NONE) {
+      cache.setJob(createJob(i, cache, address));
+    }
+  }
+
+  private BusJob createJob(int i, Cache cache, Address address) {
+    if (successorAction[i] == NONE) {
+      return new BusJob(cache, address, ACTIONS[jobAction[i]], jobFinalState[i]);
+    }
+    BusJob successor = new BusJob(cache, address, ACTIONS[successorAction[i]],
+        successorFinalState[i]);
+    return new BusJob(cache, address, ACTIONS[jobAction[i]], jobFinalState[i], successor);
+  }
+
+  boolean writeBackOnEvict(CoherenceState state) {
+    return writeBackOnEvict[state.ordinal()];
+  }
+
+  boolean isShared(CoherenceState state) {
+    return shared[state.ordinal()];
+  }
+
+  boolean suppliesData(CoherenceState state) {
+    return suppliesData[state.ordinal()];
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
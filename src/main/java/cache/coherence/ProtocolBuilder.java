@@ -0,0 +1,294 @@
+package cache.coherence;
+
+import bus.Bus;
+import bus.BusAction;
+import bus.StateEvaluator;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A small DSL for defining coherence protocols, e.g.
+ *
+ * <pre>
+ *   Protocol.builder("MSI")
+ *       .states(M, S, I).writeBackOnEvict(M).shared(S)
+ *       .rejects(REMOTE_UPDATE)
+ *       .on(I, READ).issue(BusAction.BUSRD, S)
+ *       .on(M, REMOTE_READ).flush(S)
+ *       ...
+ *       .build();
+ * </pre>
+ *
+ * Events a declared state has no transition for leave the block unchanged. Events in undeclared
+ * states, or events the protocol rejects, are logged as errors when they happen.
+ */
+public class ProtocolBuilder {
+  private final String name;
+  private final Set<CoherenceState> states = EnumSet.noneOf(CoherenceState.class);
+  private final Set<CoherenceState> writeBack = EnumSet.noneOf(CoherenceState.class);
+  private final Set<CoherenceState> shared = EnumSet.noneOf(CoherenceState.class);
+  private final Set<CoherenceState> suppliers = EnumSet.noneOf(CoherenceState.class);
+  private final Set<ProtocolEvent> rejected = EnumSet.noneOf(ProtocolEvent.class);
+  private final Map<Integer, Transition> transitions = new HashMap<>();
+
+  ProtocolBuilder(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Declares the states of the protocol. I is always a state.
+   */
+  public ProtocolBuilder states(CoherenceState... states) {
+    this.states.addAll(Arrays.asList(states));
+    this.states.add(CoherenceState.I);
+    return this;
+  }
+
+  /**
+   * Declares the states whose blocks hold data memory does not, and must be written back when
+   * evicted.
+   */
+  public ProtocolBuilder writeBackOnEvict(CoherenceState... states) {
+    writeBack.addAll(Arrays.asList(states));
+    return this;
+  }
+
+  /**
+   * Declares the states in which other caches may hold copies of the block.
+   */
+  public ProtocolBuilder shared(CoherenceState... states) {
+    shared.addAll(Arrays.asList(states));
+    return this;
+  }
+
+  /**
+   * Declares the states whose blocks answer other caches' reads with the data, cache to cache. A
+   * read that no such block answers is served from memory. If no state is declared, every valid
+   * block answers.
+   */
+  public ProtocolBuilder suppliesData(CoherenceState... states) {
+    suppliers.addAll(Arrays.asList(states));
+    return this;
+  }
+
+  /**
+   * Declares that the event should never reach this protocol's blocks, in any state.
+   */
+  public ProtocolBuilder rejects(ProtocolEvent event) {
+    rejected.add(event);
+    return this;
+  }
+
+  /**
+   * Starts (or continues) the transition of the state on the event.
+   */
+  public Transition on(CoherenceState state, ProtocolEvent event) {
+    return transitions.computeIfAbsent(Protocol.index(state, event),
+        i -> new Transition(state, event));
+  }
+
+  /**
+   * Compiles the definition into a transition table.
+   *
+   * @throws IllegalStateException if a transition uses a state that was not declared, or
+   * issues a successor job without a first job.
+   */
+  public Protocol build() {
+    CoherenceState[] all = CoherenceState.values();
+    int size = all.length * Protocol.EVENTS;
+    byte[] nextState = filled(size);
+    byte[] flushState = filled(size);
+    byte[] jobAction = filled(size);
+    StateEvaluator[] jobFinalState = new StateEvaluator[size];
+    byte[] successorAction = filled(size);
+    StateEvaluator[] successorFinalState = new StateEvaluator[size];
+    byte[] flags = new byte[size];
+    boolean[] writeBackOnEvict = new boolean[all.length];
+    boolean[] isShared = new boolean[all.length];
+    boolean[] supplies = new boolean[all.length];
+
+    for (CoherenceState state : all) {
+      writeBackOnEvict[state.ordinal()] = writeBack.contains(state);
+      isShared[state.ordinal()] = shared.contains(state);
+      supplies[state.ordinal()] = suppliers.isEmpty()
+          ? state != CoherenceState.I
+          : suppliers.contains(state);
+      for (ProtocolEvent event : ProtocolEvent.values()) {
+        if (!states.contains(state) || rejected.contains(event)) {
+          flags[Protocol.index(state, event)] = Protocol.INVALID;
+        }
+      }
+    }
+
+    for (Map.Entry<Integer, Transition> entry : transitions.entrySet()) {
+      int i = entry.getKey();
+      Transition t = entry.getValue();
+      t.check();
+      nextState[i] = ordinal(t.next);
+      flushState[i] = ordinal(t.flush);
+      flags[i] |= t.flags;
+      if (t.job != null) {
+        jobAction[i] = (byte) t.job.ordinal();
+        jobFinalState[i] = evaluator(t.jobShared, t.jobAlone);
+      }
+      if (t.successor != null) {
+        successorAction[i] = (byte) t.successor.ordinal();
+        successorFinalState[i] = evaluator(t.successorShared, t.successorAlone);
+      }
+    }
+
+    return new Protocol(name, nextState, flushState, jobAction, jobFinalState, successorAction,
+        successorFinalState, flags, writeBackOnEvict, isShared, supplies);
+  }
+
+  private static byte[] filled(int size) {
+    byte[] array = new byte[size];
+    Arrays.fill(array, Protocol.NONE);
+    return array;
+  }
+
+  private static byte ordinal(CoherenceState state) {
+    return state == null ? Protocol.NONE : (byte) state.ordinal();
+  }
+
+  /*
+   * The final state of a job: ifShared if another cache holds the block when the job finishes,
+   * ifAlone otherwise.
+   */
+  private static StateEvaluator evaluator(CoherenceState ifShared, CoherenceState ifAlone) {
+    if (ifShared == ifAlone) {
+      return (local, a) -> ifShared;
+    }
+    return (local, a) -> Bus.remoteCacheContains(local, a) ? ifShared : ifAlone;
+  }
+
+  /**
+   * The actions taken when a block in a state sees an event, in the order they are carried out:
+   * broadcasting a write, flushing, changing state, counting an invalidation or a write hit, and
+   * issuing a bus job (and its successor).
+   */
+  public class Transition {
+    private final CoherenceState state;
+    private final ProtocolEvent event;
+    private CoherenceState next;
+    private CoherenceState flush;
+    private BusAction job;
+    private CoherenceState jobShared;
+    private CoherenceState jobAlone;
+    private BusAction successor;
+    private CoherenceState successorShared;
+    private CoherenceState successorAlone;
+    private int flags = 0;
+
+    private Transition(CoherenceState state, ProtocolEvent event) {
+      this.state = state;
+      this.event = event;
+    }
+
+    /**
+     * Moves the block to the state immediately.
+     */
+    public Transition to(CoherenceState state) {
+      next = state;
+      return this;
+    }
+
+    /**
+     * Counts a write that finished without using the bus.
+     */
+    public Transition writeHit() {
+      flags |= Protocol.WRITE_HIT;
+      return this;
+    }
+
+    /**
+     * Counts the block being invalidated by another cache.
+     */
+    public Transition invalidation() {
+      flags |= Protocol.INVALIDATION;
+      return this;
+    }
+
+    /**
+     * Invalidates the other caches' copies immediately, without a bus job.
+     */
+    public Transition broadcastWrite() {
+      flags |= Protocol.BROADCAST_WRITE;
+      return this;
+    }
+
+    /**
+     * Marks the event as one that should not happen in the state.
+     */
+    public Transition invalid() {
+      flags |= Protocol.INVALID;
+      return this;
+    }
+
+    /**
+     * Flushes the block to memory, leaving it in the state once the flush finishes.
+     */
+    public Transition flush(CoherenceState finalState) {
+      flush = finalState;
+      return this;
+    }
+
+    /**
+     * Issues a bus job that leaves the block in the state once it finishes.
+     */
+    public Transition issue(BusAction action, CoherenceState finalState) {
+      return issue(action, finalState, finalState);
+    }
+
+    /**
+     * Issues a bus job that leaves the block in ifShared if another cache holds the block when the
+     * job finishes, and in ifAlone otherwise.
+     */
+    public Transition issue(BusAction action, CoherenceState ifShared, CoherenceState ifAlone) {
+      job = action;
+      jobShared = ifShared;
+      jobAlone = ifAlone;
+      return this;
+    }
+
+    /**
+     * Issues a second bus job once the first finishes.
+     */
+    public Transition then(BusAction action, CoherenceState finalState) {
+      return then(action, finalState, finalState);
+    }
+
+    public Transition then(BusAction action, CoherenceState ifShared, CoherenceState ifAlone) {
+      successor = action;
+      successorShared = ifShared;
+      successorAlone = ifAlone;
+      return this;
+    }
+
+    public Transition on(CoherenceState state, ProtocolEvent event) {
+      return ProtocolBuilder.this.on(state, event);
+    }
+
+    public Protocol build() {
+      return ProtocolBuilder.this.build();
+    }
+
+    private void check() {
+      for (CoherenceState s : new CoherenceState[] {state, next, flush, jobShared, jobAlone,
+          successorShared, successorAlone}) {
+        if (s != null && !states.contains(s)) {
+          throw new IllegalStateException(name + ": " + state + " " + event
+              + " uses the undeclared state " + s);
+        }
+      }
+      if (successor != null && job == null) {
+        throw new IllegalStateException(name + ": " + state + " " + event
+            + " issues a successor job without a first job");
+      }
+    }
+  }
+}
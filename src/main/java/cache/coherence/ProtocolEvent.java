@@ -0,0 +1,13 @@
+package cache.coherence;
+
+/**
+ * The events a cache block reacts to: the local processor's accesses and the transactions other
+ * caches put on the bus.
+ */
+public enum ProtocolEvent {
+  READ, // The local processor reads the block.
+  WRITE, // The local processor writes the block.
+  REMOTE_READ, // Another cache's BusRd finished.
+  REMOTE_WRITE, // Another cache's BusRdX finished.
+  REMOTE_UPDATE // Another cache's BusUpd finished.
+}
@@ -0,0 +1,205 @@
+package cache.coherence;
+
+import bus.BusAction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads coherence protocols from definition files, one declaration or transition per line:
+ *
+ * <pre>
+ *   protocol MESI
+ *   states M E S I
+ *   writeback M
+ *   shared S
+ *   supplies M E S
+ *   reject REMOTE_UPDATE
+ *   # state event actions...
+ *   I READ         busrd S E
+ *   E WRITE        to M hit
+ *   M REMOTE_WRITE flush I invalidation
+ * </pre>
+ *
+ * The actions are "to X" (change state), "flush X", "busrd", "busrdx" or "busupd" followed by the
+ * final state, or by the final states if another cache does and does not hold the block, "then"
+ * followed by a second bus job, "hit" (a write hit), "invalidation", "broadcastwrite" and
+ * "invalid". They mean the same as the ProtocolBuilder methods of the same names. A state of "*"
+ * applies the transition to every declared state. Text after a '#' is ignored.
+ */
+public class ProtocolParser {
+  private ProtocolParser() { }
+
+  public static Protocol parse(Path file) throws IOException {
+    return parseLines(Files.readAllLines(file), file.toString());
+  }
+
+  /**
+   * Parses the lines of a definition.
+   *
+   * @param source the name of the definition used in error messages.
+   * @throws IOException if the definition is malformed.
+   */
+  public static Protocol parseLines(List<String> lines, String source) throws IOException {
+    ProtocolBuilder builder = null;
+    List<CoherenceState> states = new ArrayList<>();
+    for (int n = 0; n < lines.size(); n++) {
+      String line = lines.get(n);
+      int comment = line.indexOf('#');
+      if (comment >= 0) {
+        line = line.substring(0, comment);
+      }
+      line = line.trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+
+      String[] tokens = line.split("\\s+");
+      try {
+        String keyword = tokens[0].toLowerCase(Locale.ROOT);
+        if (keyword.equals("protocol")) {
+          expect(tokens.length == 2, "expected a protocol name");
+          builder = Protocol.builder(tokens[1]);
+          continue;
+        }
+        expect(builder != null, "the definition must start with a protocol line");
+        switch (keyword) {
+          case "states":
+            CoherenceState[] declared = states(tokens);
+            builder.states(declared);
+            states.addAll(Arrays.asList(declared));
+            break;
+          case "writeback":
+            builder.writeBackOnEvict(states(tokens));
+            break;
+          case "shared":
+            builder.shared(states(tokens));
+            break;
+          case "supplies":
+            builder.suppliesData(states(tokens));
+            break;
+          case "reject":
+            expect(tokens.length == 2, "expected one event");
+            builder.rejects(event(tokens[1]));
+            break;
+          default:
+            expect(tokens.length >= 3, "expected a state, an event and actions");
+            ProtocolEvent event = event(tokens[1]);
+            List<CoherenceState> from = tokens[0].equals("*")
+                ? states
+                : Arrays.asList(state(tokens[0]));
+            for (CoherenceState state : from) {
+              parseActions(builder.on(state, event), tokens);
+            }
+            break;
+        }
+      } catch (IllegalArgumentException e) {
+        throw new IOException(source + ":" + (n + 1) + ": " + e.getMessage());
+      }
+    }
+
+    if (builder == null) {
+      throw new IOException(source + ": no protocol defined");
+    }
+    try {
+      return builder.build();
+    } catch (IllegalStateException e) {
+      throw new IOException(source + ": " + e.getMessage());
+    }
+  }
+
+  private static void parseActions(ProtocolBuilder.Transition t, String[] tokens) {
+    boolean successor = false;
+    int i = 2;
+    while (i < tokens.length) {
+      String action = tokens[i++].toLowerCase(Locale.ROOT);
+      switch (action) {
+        case "to":
+          expect(i < tokens.length, "expected a state after to");
+          t.to(state(tokens[i++]));
+          break;
+        case "flush":
+          expect(i < tokens.length, "expected a state after flush");
+          t.flush(state(tokens[i++]));
+          break;
+        case "hit":
+          t.writeHit();
+          break;
+        case "invalidation":
+          t.invalidation();
+          break;
+        case "broadcastwrite":
+          t.broadcastWrite();
+          break;
+        case "invalid":
+          t.invalid();
+          break;
+        case "then":
+          successor = true;
+          break;
+        case "busrd":
+        case "busrdx":
+        case "busupd":
+          BusAction bus = BusAction.valueOf(action.toUpperCase(Locale.ROOT));
+          expect(i < tokens.length, "expected a final state after " + action);
+          CoherenceState ifShared = state(tokens[i++]);
+          CoherenceState ifAlone = ifShared;
+          if (i < tokens.length && isState(tokens[i])) {
+            ifAlone = state(tokens[i++]);
+          }
+          if (successor) {
+            t.then(bus, ifShared, ifAlone);
+          } else {
+            t.issue(bus, ifShared, ifAlone);
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("unknown action " + action);
+      }
+    }
+  }
+
+  private static CoherenceState[] states(String[] tokens) {
+    CoherenceState[] states = new CoherenceState[tokens.length - 1];
+    for (int i = 1; i < tokens.length; i++) {
+      states[i - 1] = state(tokens[i]);
+    }
+    return states;
+  }
+
+  private static boolean isState(String token) {
+    for (CoherenceState s : CoherenceState.values()) {
+      if (s.name().equals(token)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static CoherenceState state(String token) {
+    try {
+      return CoherenceState.valueOf(token);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("unknown state " + token);
+    }
+  }
+
+  private static ProtocolEvent event(String token) {
+    try {
+      return ProtocolEvent.valueOf(token.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("unknown event " + token);
+    }
+  }
+
+  private static void expect(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for every bus job (read, read-exclusive, update or eviction) that
+ * finishes, in simulated cycles.
+ */
+@Name("cachesim.BusTransaction")
+@Label("Bus Transaction")
+@Category("Cache Simulator")
+@Description("A bus job finished.")
+@StackTrace(false)
+public class BusTransactionEvent extends Event {
+  private static final EventType TYPE = EventType.getEventType(BusTransactionEvent.class);
+
+  @Label("Action")
+  String action;
+
+  @Label("Cache")
+  int cacheId;
+
+  @Label("Block Address")
+  long blockAddress;
+
+  @Label("Enqueued Cycle")
+  long enqueuedCycle;
+
+  @Label("Started Cycle")
+  long startedCycle;
+
+  @Label("Finished Cycle")
+  long finishedCycle;
+
+  @Label("Bytes")
+  int bytes;
+
+  /**
+   * Commits an event if the event is enabled in a running recording. Otherwise no event is built
+   * and the call costs no more than the enabled check.
+   */
+  public static void emit(String action, int cacheId, long blockAddress, long enqueuedCycle,
+                          long startedCycle, long finishedCycle, int bytes) {
+    if (!TYPE.isEnabled()) {
+      return;
+    }
+    BusTransactionEvent event = new BusTransactionEvent();
+    event.action = action;
+    event.cacheId = cacheId;
+    event.blockAddress = blockAddress;
+    event.enqueuedCycle = enqueuedCycle;
+    event.startedCycle = startedCycle;
+    event.finishedCycle = finishedCycle;
+    event.bytes = bytes;
+    event.commit();
+  }
+}
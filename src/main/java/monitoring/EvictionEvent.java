@@ -0,0 +1,45 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for every valid block evicted from a cache.
+ */
+@Name("cachesim.Eviction")
+@Label("Eviction")
+@Category("Cache Simulator")
+@Description("A cache evicted a valid block.")
+@StackTrace(false)
+public class EvictionEvent extends Event {
+  private static final EventType TYPE = EventType.getEventType(EvictionEvent.class);
+
+  @Label("Cache")
+  int cacheId;
+
+  @Label("Block Address")
+  long blockAddress;
+
+  @Label("State")
+  String state;
+
+  @Label("Cycle")
+  long cycle;
+
+  public static void emit(int cacheId, long blockAddress, String state, long cycle) {
+    if (!TYPE.isEnabled()) {
+      return;
+    }
+    EvictionEvent event = new EvictionEvent();
+    event.cacheId = cacheId;
+    event.blockAddress = blockAddress;
+    event.state = state;
+    event.cycle = cycle;
+    event.commit();
+  }
+}
@@ -0,0 +1,45 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for every flush of a block to memory, in simulated cycles.
+ */
+@Name("cachesim.Flush")
+@Label("Flush")
+@Category("Cache Simulator")
+@Description("One or more caches finished flushing a block to memory.")
+@StackTrace(false)
+public class FlushEvent extends Event {
+  private static final EventType TYPE = EventType.getEventType(FlushEvent.class);
+
+  @Label("Block Address")
+  long blockAddress;
+
+  @Label("Caches")
+  int caches;
+
+  @Label("Started Cycle")
+  long startedCycle;
+
+  @Label("Finished Cycle")
+  long finishedCycle;
+
+  public static void emit(long blockAddress, int caches, long startedCycle, long finishedCycle) {
+    if (!TYPE.isEnabled()) {
+      return;
+    }
+    FlushEvent event = new FlushEvent();
+    event.blockAddress = blockAddress;
+    event.caches = caches;
+    event.startedCycle = startedCycle;
+    event.finishedCycle = finishedCycle;
+    event.commit();
+  }
+}
@@ -0,0 +1,29 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * A periodic Flight Recorder event per processor with the instructions it has retired so far.
+ */
+@Name("cachesim.InstructionsRetired")
+@Label("Instructions Retired")
+@Category("Cache Simulator")
+@Description("The instructions a processor has retired and has remaining.")
+@Period("1 s")
+@StackTrace(false)
+public class InstructionsRetiredEvent extends Event {
+  @Label("Processor")
+  int processorId;
+
+  @Label("Instructions Retired")
+  long retired;
+
+  @Label("Instructions Remaining")
+  long remaining;
+}
@@ -0,0 +1,237 @@
+package monitoring;
+
+import bus.Bus;
+import jdk.jfr.FlightRecorder;
+import processor.Processor;
+import statistics.BusStatistics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes the progress of the running simulation to standard tooling: as an MBean for JMX
+ * clients (e.g. JConsole) and as periodic Flight Recorder events. The simulation itself is single
+ * threaded, so the values are read without synchronization from the JMX and Flight Recorder
+ * threads and may be a few cycles stale.
+ */
+public class SimulationMonitor implements SimulationMonitorMBean {
+  private static final SimulationMonitor instance = new SimulationMonitor();
+  private static boolean registered = false;
+
+  private volatile List<Processor> procs = Collections.emptyList();
+  private volatile boolean running = false;
+  private volatile long startNanos = System.nanoTime();
+  private volatile long endNanos = 0;
+
+  // The values at the previous periodic throughput event:
+  private long lastNanos = System.nanoTime();
+  private long lastCycle = 0;
+  private long lastInstructions = 0;
+
+  private SimulationMonitor() { }
+
+  public static SimulationMonitor getInstance() {
+    return instance;
+  }
+
+  /**
+   * Registers the MBean and the periodic Flight Recorder events. Only the first call has an effect.
+   * A failure to register is logged and does not affect the simulation.
+   */
+  public static synchronized void register() {
+    if (registered) {
+      return;
+    }
+    registered = true;
+    try {
+      ManagementFactory.getPlatformMBeanServer()
+          .registerMBean(instance, new ObjectName("cachesim:type=Simulation"));
+    } catch (JMException e) {
+      Logger.getLogger(SimulationMonitor.class.getName())
+          .log(Level.WARNING, "Could not register the simulation MBean.", e);
+    }
+    FlightRecorder.addPeriodicEvent(ThroughputEvent.class, instance::emitThroughput);
+    FlightRecorder.addPeriodicEvent(InstructionsRetiredEvent.class,
+        instance::emitInstructionsRetired);
+  }
+
+  /**
+   * Starts monitoring a simulation of the given processors.
+   */
+  public void attach(List<Processor> procs) {
+    this.procs = Collections.unmodifiableList(procs);
+    startNanos = System.nanoTime();
+    running = true;
+  }
+
+  /**
+   * Marks the simulation as finished. Its final values remain visible until the next one starts.
+   */
+  public void detach() {
+    endNanos = System.nanoTime();
+    running = false;
+  }
+
+  private synchronized void emitThroughput() {
+    long now = System.nanoTime();
+    long cycle = getCycle();
+    long instructions = sum(getInstructionsRetired());
+    double seconds = (now - lastNanos) / 1e9;
+
+    ThroughputEvent event = new ThroughputEvent();
+    event.cycle = cycle;
+    if (seconds > 0) {
+      // A new simulation restarts the cycle count, so a negative delta is counted from zero:
+      event.cyclesPerSecond = Math.max(0, cycle - lastCycle) / seconds;
+      event.instructionsPerSecond = Math.max(0, instructions - lastInstructions) / seconds;
+    }
+    event.progress = getProgress();
+    event.commit();
+
+    lastNanos = now;
+    lastCycle = cycle;
+    lastInstructions = instructions;
+  }
+
+  private void emitInstructionsRetired() {
+    for (Processor p : procs) {
+      InstructionsRetiredEvent event = new InstructionsRetiredEvent();
+      event.processorId = p.getId();
+      event.retired = p.getInstructionsRetired();
+      event.remaining = p.getInstructionsRemaining();
+      event.commit();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public long getCycle() {
+    return Bus.getCycle();
+  }
+
+  /**
+   * The average simulated cycles per second of wall time since the simulation started.
+   */
+  @Override
+  public double getCyclesPerSecond() {
+    double seconds = getElapsedNanos() / 1e9;
+    return seconds > 0 ? getCycle() / seconds : 0;
+  }
+
+  /**
+   * The fraction of all the processors' instructions that have been retired.
+   */
+  @Override
+  public double getProgress() {
+    long retired = sum(getInstructionsRetired());
+    long total = retired + sum(getInstructionsRemaining());
+    return total > 0 ? (double) retired / total : 0;
+  }
+
+  /**
+   * Estimates the wall time left from the instructions remaining and the average rate at which
+   * instructions have been retired so far, or -1 if there is no estimate yet.
+   */
+  @Override
+  public long getEstimatedSecondsRemaining() {
+    if (!running) {
+      return 0;
+    }
+    long retired = sum(getInstructionsRetired());
+    if (retired == 0) {
+      return -1;
+    }
+    double seconds = getElapsedNanos() / 1e9;
+    return (long) (seconds * sum(getInstructionsRemaining()) / retired);
+  }
+
+  @Override
+  public int getQueueDepth() {
+    return Bus.getQueueDepth();
+  }
+
+  @Override
+  public long getBusBytes() {
+    return Bus.getStatistics().getBytesWritten();
+  }
+
+  @Override
+  public int getBusReads() {
+    return Bus.getStatistics().getBusReads();
+  }
+
+  @Override
+  public int getBusReadExclusives() {
+    return Bus.getStatistics().getBusWrites();
+  }
+
+  @Override
+  public int getBusUpdates() {
+    return Bus.getStatistics().getBusUpdates();
+  }
+
+  @Override
+  public int getFlushes() {
+    return Bus.getStatistics().getFlushes();
+  }
+
+  @Override
+  public int getInvalidations() {
+    return Bus.getStatistics().getInvalidations();
+  }
+
+  /**
+   * The fraction of cycles the bus has been busy.
+   */
+  @Override
+  public double getBusUtilization() {
+    BusStatistics stats = Bus.getStatistics();
+    return stats.getCycles() > 0 ? (double) stats.getBusyCycles() / stats.getCycles() : 0;
+  }
+
+  @Override
+  public int getMaxQueueDepth() {
+    return Bus.getStatistics().getMaxQueueDepth();
+  }
+
+  @Override
+  public long[] getInstructionsRetired() {
+    return procs.stream().mapToLong(Processor::getInstructionsRetired).toArray();
+  }
+
+  @Override
+  public long[] getInstructionsRemaining() {
+    return procs.stream().mapToLong(Processor::getInstructionsRemaining).toArray();
+  }
+
+  @Override
+  public long[] getStallCycles() {
+    return procs.stream().mapToLong(p -> p.getStatistics().getStallCycles()).toArray();
+  }
+
+  @Override
+  public double[] getMissRates() {
+    return procs.stream().mapToDouble(p -> p.getStatistics().getDataMissRate()).toArray();
+  }
+
+  private long getElapsedNanos() {
+    return (running ? System.nanoTime() : endNanos) - startNanos;
+  }
+
+  private static long sum(long[] values) {
+    long sum = 0;
+    for (long v : values) {
+      sum += v;
+    }
+    return sum;
+  }
+}
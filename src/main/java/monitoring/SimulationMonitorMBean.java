@@ -0,0 +1,43 @@
+package monitoring;
+
+/**
+ * The live view of a running simulation exposed over JMX, under the name
+ * cachesim:type=Simulation.
+ */
+public interface SimulationMonitorMBean {
+  boolean isRunning();
+
+  long getCycle();
+
+  double getCyclesPerSecond();
+
+  double getProgress();
+
+  long getEstimatedSecondsRemaining();
+
+  int getQueueDepth();
+
+  long getBusBytes();
+
+  int getBusReads();
+
+  int getBusReadExclusives();
+
+  int getBusUpdates();
+
+  int getFlushes();
+
+  int getInvalidations();
+
+  double getBusUtilization();
+
+  int getMaxQueueDepth();
+
+  long[] getInstructionsRetired();
+
+  long[] getInstructionsRemaining();
+
+  long[] getStallCycles();
+
+  double[] getMissRates();
+}
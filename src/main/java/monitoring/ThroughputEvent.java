@@ -0,0 +1,33 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * A periodic Flight Recorder event with the simulation's throughput since the previous period.
+ */
+@Name("cachesim.Throughput")
+@Label("Simulation Throughput")
+@Category("Cache Simulator")
+@Description("Simulated cycles and retired instructions per second of wall time.")
+@Period("1 s")
+@StackTrace(false)
+public class ThroughputEvent extends Event {
+  @Label("Simulated Cycle")
+  long cycle;
+
+  @Label("Cycles per Second")
+  double cyclesPerSecond;
+
+  @Label("Instructions per Second")
+  double instructionsPerSecond;
+
+  @Label("Progress")
+  @Description("The fraction of all instructions retired.")
+  double progress;
+}
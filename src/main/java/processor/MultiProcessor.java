@@ -0,0 +1,165 @@
+package processor;
+
+import bus.Bus;
+import cache.Instruction;
+import monitoring.SimulationMonitor;
+import statistics.ProcessorStatistics;
+import statistics.TimeSeriesSampler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+public class MultiProcessor {
+  private List<Processor> procs = new ArrayList<>();
+  private final Synchronizer synchronizer = new Synchronizer(); // The traces' barriers and events.
+
+  /*
+   * The warm-up phase: caches and coherence state evolve normally during it, but all statistics
+   * are reset once its boundary is crossed. A warm-up that lasts the whole program resets nothing.
+   */
+  private long warmupLength = 0;
+  private WarmupUnit warmupUnit = WarmupUnit.INSTRUCTIONS;
+  private boolean functionalWarmup = false; // Run the warm-up without bus timing?
+  private boolean warmingUp = false;
+
+  private TimeSeriesSampler sampler = null; // Optionally samples the statistics over time.
+
+  public MultiProcessor() { }
+
+  /**
+   * Adds an instruction sequence to a processor in the multiprocessor.
+   */
+  public void addProcessorFor(List<Instruction> instructions) {
+    Processor p = new Processor(instructions, synchronizer);
+    procs.add(p);
+  }
+
+  /**
+   * Configures a warm-up phase of the given length. A functional warm-up executes the instructions
+   * without bus timing, which is only possible when the length is measured in instructions.
+   */
+  public void setWarmup(long length, WarmupUnit unit, boolean functional) {
+    warmupLength = Math.max(0, length);
+    warmupUnit = unit;
+    functionalWarmup = functional;
+    if (functional && unit != WarmupUnit.INSTRUCTIONS) {
+      Logger.getLogger(getClass().getName()).log(Level.WARNING,
+          "A functional warm-up can only be measured in instructions, running it with timing.");
+      functionalWarmup = false;
+    }
+  }
+
+  /**
+   * Samples the statistics with the given sampler while simulating, taking a last sample once the
+   * program finishes. The caller closes the sampler.
+   */
+  public void setSampler(TimeSeriesSampler sampler) {
+    this.sampler = sampler;
+  }
+
+  public void simulateProgram() {
+    SimulationMonitor.getInstance().attach(procs);
+    warmingUp = warmupLength > 0;
+    if (warmingUp && functionalWarmup) {
+      runFunctionalWarmup();
+    }
+
+    boolean allProcsFinished = procs.stream().allMatch(Processor::isFinished);
+    while (!allProcsFinished) {
+      procs.forEach(Processor::tick);
+      synchronizer.update(procs);
+      Bus.tick();
+      if (warmingUp && warmupFinished()) {
+        endWarmup();
+      }
+      if (sampler != null && sampler.isDue(Bus.getCycle())) {
+        sampler.sample(Bus.getCycle(), Bus.getQueueDepth(), Bus.getStatistics(), getStatistics());
+      }
+      allProcsFinished = procs.stream().allMatch(Processor::isFinished);
+    }
+    if (warmingUp) {
+      // The program finished before the warm-up did:
+      warnWarmupCoversProgram();
+    }
+
+    if (sampler != null) {
+      // Sample the final, partial interval:
+      sampler.sample(Bus.getCycle(), Bus.getQueueDepth(), Bus.getStatistics(), getStatistics());
+    }
+    SimulationMonitor.getInstance().detach();
+  }
+
+  /*
+   * Interleaves the processors' first warmupLength instructions one at a time with the bus in
+   * functional mode.
+   */
+  private void runFunctionalWarmup() {
+    Bus.setFunctional(true);
+    for (long i = 0; i < warmupLength; i++) {
+      boolean anyStepped = false;
+      for (Processor p : procs) {
+        anyStepped |= p.functionalStep();
+      }
+      synchronizer.update(procs);
+      if (!anyStepped) {
+        break;
+      }
+    }
+    Bus.setFunctional(false);
+    endWarmup();
+  }
+
+  private boolean warmupFinished() {
+    switch (warmupUnit) {
+      case CYCLES:
+        return Bus.getCycle() >= warmupLength;
+      case INSTRUCTIONS:
+        return procs.stream()
+            .allMatch(p -> p.isFinished() || p.getInstructionsRetired() >= warmupLength);
+      default:
+        return true;
+    }
+  }
+
+  private void endWarmup() {
+    if (procs.stream().noneMatch(Processor::hasInstructionsRemaining)) {
+      // Resetting now would leave no instructions to report on:
+      warnWarmupCoversProgram();
+      return;
+    }
+    Logger.getLogger(getClass().getName()).log(Level.INFO,
+        "Warm-up finished at bus cycle " + Bus.getCycle() + ", resetting statistics.");
+    procs.forEach(p -> p.getStatistics().reset());
+    Bus.getStatistics().reset();
+    Bus.getLineProfiler().reset();
+    Bus.getFalseSharingDetector().reset();
+    if (sampler != null) {
+      sampler.statisticsReset();
+    }
+    warmingUp = false;
+  }
+
+  /*
+   * Ends a warm-up that lasted the whole program without resetting the statistics, which are
+   * reported for the whole program instead.
+   */
+  private void warnWarmupCoversProgram() {
+    Logger.getLogger(getClass().getName()).log(Level.WARNING,
+        "The warm-up of " + warmupLength + " " + warmupUnit.toString().toLowerCase()
+            + " covers the whole program, reporting the statistics of the whole program.");
+    warmingUp = false;
+  }
+
+  public Synchronizer getSynchronizer() {
+    return synchronizer;
+  }
+
+  public List<ProcessorStatistics> getStatistics() {
+    return procs.stream()
+        .map(Processor::getStatistics)
+        .collect(Collectors.toCollection(ArrayList::new));
+  }
+}
@@ -0,0 +1,11 @@
+package processor;
+
+/**
+ * How the page table maps the virtual pages of the traces to physical frames, on first touch.
+ */
+public enum PageMapping {
+  NONE, // No translation: trace addresses are physical, and there is no TLB.
+  IDENTITY, // Every page maps to the frame of the same number.
+  RANDOM, // Pages map to random free frames, as from a fragmented free list.
+  PAGE_COLORING // Pages map to the next free frame of the same cache color (set index bits).
+}
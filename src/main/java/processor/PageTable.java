@@ -0,0 +1,156 @@
+package processor;
+
+import cache.CacheProperties;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * The page table the processors' TLBs translate virtual addresses through. All processors share
+ * it, as threads of one process do, so a virtual page maps to the same frame on every core. Frames
+ * are allocated the first time a page is touched, according to the page mapping. Translation is
+ * disabled (addresses are physical) unless a mapping is set.
+ */
+public class PageTable {
+  public static final int PHYSICAL_ADDRESS_BITS = 48; // The physical address space frames are in.
+
+  private static PageMapping mapping = PageMapping.NONE;
+  private static int pageSize = 4096; // The number of bytes in a page.
+  private static int tlbEntries = 64; // The number of translations each processor's TLB holds.
+  private static int walkCycles = 30; // The number of cycles a page walk on a TLB miss takes.
+  private static final long SEED = 1; // The seed of the RANDOM mapping, for reproducible runs.
+
+  private static final Map<Long, Long> frames = new HashMap<>(); // Virtual page to frame.
+  private static final Set<Long> usedFrames = new HashSet<>();
+  private static SplittableRandom random = new SplittableRandom(SEED);
+  private static long[] nextFrameOfColor = new long[0]; // Frames allocated per color, so far.
+
+  private PageTable() {}
+
+  public static boolean isEnabled() {
+    return mapping != PageMapping.NONE;
+  }
+
+  public static PageMapping getMapping() {
+    return mapping;
+  }
+
+  public static void setMapping(PageMapping pageMapping) {
+    mapping = pageMapping;
+  }
+
+  public static int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * Sets the page size in bytes, which must be a power of two of at least the block size.
+   */
+  public static void setPageSize(int size) throws Exception {
+    if (Integer.bitCount(size) != 1 || size < CacheProperties.getBlockSize()) {
+      throw new Exception("Page size must be a power of two of at least the block size.");
+    }
+    pageSize = size;
+  }
+
+  public static int getTlbEntries() {
+    return tlbEntries;
+  }
+
+  public static void setTlbEntries(int entries) {
+    tlbEntries = Math.max(1, entries);
+  }
+
+  public static int getWalkCycles() {
+    return walkCycles;
+  }
+
+  public static void setWalkCycles(int cycles) {
+    walkCycles = Math.max(0, cycles);
+  }
+
+  /**
+   * Returns the number of page colors: the pages that fit in one way of a cache, whose frames map
+   * to disjoint groups of sets.
+   */
+  public static int getColors() {
+    return Math.max(1,
+        CacheProperties.getNumSets() * CacheProperties.getBlockSize() / pageSize);
+  }
+
+  /**
+   * Returns the frame the virtual page maps to, allocating one if the page was never touched.
+   */
+  public static long getFrame(long page) {
+    Long frame = frames.get(page);
+    if (frame == null) {
+      frame = allocateFrame(page);
+      frames.put(page, frame);
+      usedFrames.add(frame);
+    }
+    return frame;
+  }
+
+  private static long allocateFrame(long page) {
+    long frameCount = (1L << PHYSICAL_ADDRESS_BITS) / pageSize;
+    switch (mapping) {
+      case RANDOM:
+        if (usedFrames.size() >= frameCount) {
+          throw new IllegalStateException("Out of physical frames for page " + page);
+        }
+        long frame;
+        do {
+          frame = random.nextLong(frameCount);
+        } while (usedFrames.contains(frame));
+        return frame;
+      case PAGE_COLORING:
+        return allocateColoredFrame(page, frameCount);
+      default:
+        return page;
+    }
+  }
+
+  /*
+   * Returns the next free frame of the page's color, or of the next color with a free frame once
+   * the page's own color has run out, as an allocator short of a color would.
+   */
+  private static long allocateColoredFrame(long page, long frameCount) {
+    int colors = getColors();
+    if (nextFrameOfColor.length != colors) {
+      // The cache or page size changed since the last reset, count the new colors' frames afresh:
+      nextFrameOfColor = new long[colors];
+    }
+    long framesPerColor = frameCount / colors;
+    int pageColor = (int)Long.remainderUnsigned(page, colors);
+    for (int i = 0; i < colors; i++) {
+      int color = (pageColor + i) % colors;
+      while (nextFrameOfColor[color] < framesPerColor) {
+        long frame = color + colors * nextFrameOfColor[color]++;
+        if (!usedFrames.contains(frame)) { // Taken already if the colors changed.
+          return frame;
+        }
+      }
+    }
+    throw new IllegalStateException("Out of physical frames for page " + page);
+  }
+
+  /**
+   * Returns the number of pages touched so far.
+   */
+  public static int getPagesMapped() {
+    return frames.size();
+  }
+
+  /**
+   * Forgets every mapping, e.g. before simulating the traces again.
+   */
+  public static void reset() {
+    frames.clear();
+    usedFrames.clear();
+    random = new SplittableRandom(SEED);
+    nextFrameOfColor = new long[getColors()];
+  }
+}
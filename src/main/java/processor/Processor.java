@@ -0,0 +1,360 @@
+package processor;
+
+import bus.Bus;
+import cache.Cache;
+import cache.CycleCountdown;
+import cache.Instruction;
+import cache.InstructionType;
+import cache.Address;
+import statistics.CycleCategory;
+import statistics.ProcessorStatistics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+public class Processor {
+  private Cache l1; // The processor's cache.
+
+  private CycleCountdown nonmemCountdown = new CycleCountdown(0); // A timer to wait out the cycles of an OTHER inst.
+  private final Tlb tlb = new Tlb(PageTable.getTlbEntries()); // The processor's translations.
+  private CycleCountdown walkCountdown = new CycleCountdown(0); // A timer to wait out a page walk.
+  private final Deque<Instruction> instructions; // The sequence of instructions to carry out.
+  private boolean syncPending = false; // Whether the cache is busy with an atomic or LL/SC access.
+  private boolean conditionalIssued = false; // Whether the next SC is waiting for its block.
+  private final Synchronizer synchronizer; // Enforces barriers and events with the other cores.
+
+  private final int id; // The unique processor ID.
+  private static int idCounter = 0; // A processor ID counter.
+  private final ProcessorStatistics stats;
+  private long instructionsRetired = 0; // The number of instructions taken off the sequence so far.
+  private long instructionCount; // The length of the whole sequence, with retried LL/SC pairs.
+
+  public Processor(List<Instruction> instructions, Synchronizer synchronizer) {
+    this.id = idCounter; // The unique processor ID.
+    stats = new ProcessorStatistics(id);
+    idCounter++;
+
+    l1 = new Cache(stats);
+    Bus.add(l1);
+    this.instructions = new ArrayDeque<>(instructions);
+    this.instructionCount = instructions.size();
+    this.synchronizer = synchronizer;
+  }
+
+  public static void reset() {
+    idCounter = 0;
+    Cache.reset();
+  }
+
+
+  public void tick() {
+    if (!nonmemCountdown.isFinished()) {
+      nonmemCountdown.tick();
+      stats.incrementCycles(CycleCategory.COMPUTE);
+    } else if (!walkCountdown.isFinished()) {
+      walkCountdown.tick();
+      stats.incrementCycles(CycleCategory.PAGE_WALK);
+    } else if (hasInstructionsRemaining() && !l1.isBlocking()
+        && instructions.peek().getType().hasAddress()
+        && !tlb.contains(instructions.peek().getValue())) {
+      // Walk the page table for the translation, the access is issued once the walk is done:
+      tlb.fill(instructions.peek().getValue());
+      stats.incrementTlbMisses();
+      walkCountdown = new CycleCountdown(Math.max(0, PageTable.getWalkCycles() - 1));
+      stats.incrementCycles(CycleCategory.PAGE_WALK);
+    } else if (hasInstructionsRemaining() && !l1.isBlocking()) {
+      syncPending = false;
+      Instruction instr = instructions.peek();
+      Address address = new Address(physicalAddress(instr));
+      CycleCategory category = CycleCategory.COMPUTE;
+      switch (instr.getType()) {
+        case OTHER:
+          nonmemCountdown = new CycleCountdown(instr.getValue());
+          retire();
+          break;
+        case LOAD:
+        case LOAD_LINKED:
+          if (l1.swapInFromVictimCache(address)) {
+            // Swapping the block back in from the victim cache took this cycle, the load hits next:
+            break;
+          }
+          if (!l1.contains(address) && !l1.hasBlockAvailableFor(address)) {
+            // Need to evict a block before loading the address, do that now:
+            l1.allocateBlockFor(address);
+          } else {
+            if (l1.contains(address)) {
+              stats.incrementReadHit();
+            } else {
+              stats.incrementReadMiss();
+              Bus.getLineProfiler().recordMiss(address, l1.getId());
+            }
+            Bus.getFalseSharingDetector().recordAccess(address, l1.getId());
+            if (instr.getType() == InstructionType.LOAD_LINKED) {
+              l1.reserve(address);
+              Bus.getStatistics().incrementLoadLinked();
+              syncPending = true;
+            }
+            l1.procRead(address);
+            retire();
+          }
+
+          break;
+        case STORE:
+          if (l1.swapInFromVictimCache(address)) {
+            // Swapping the block in from the victim cache took this cycle, the store hits next:
+            break;
+          }
+          if (!l1.acceptsStore(address)) {
+            // The write buffer is full, wait for it to drain:
+            category = CycleCategory.WRITE_BUFFER;
+          } else if (l1.bypassesStore(address)) {
+            stats.incrementWriteMiss();
+            Bus.getLineProfiler().recordMiss(address, l1.getId());
+            Bus.getFalseSharingDetector().recordAccess(address, l1.getId());
+            l1.writeAround(address);
+            retire();
+          } else if (!l1.contains(address) && !l1.hasBlockAvailableFor(address)) {
+            // Need to evict a block before storing the address, do that now:
+            l1.allocateBlockFor(address);
+          } else {
+            if (l1.contains(address)) {
+              stats.incrementWriteHit();
+            } else {
+              stats.incrementWriteMiss();
+              Bus.getLineProfiler().recordMiss(address, l1.getId());
+            }
+            Bus.getFalseSharingDetector().recordAccess(address, l1.getId());
+            l1.procWrite(address);
+            retire();
+          }
+          break;
+        case ATOMIC:
+          if (l1.hasBufferedStores()) {
+            // A locked access drains the write buffer first, as a fence does:
+            l1.getWriteBuffer().releasePartialLines();
+            category = CycleCategory.FENCE;
+          } else if (issueExclusiveStore(address)) {
+            Bus.getStatistics().recordAtomic(l1.procAtomicWrite(address));
+            syncPending = true;
+            retire();
+          }
+          break;
+        case STORE_CONDITIONAL:
+          if (conditionalIssued) {
+            // The block has been acquired, the store succeeds if no other cache wrote it meanwhile:
+            conditionalIssued = false;
+            finishStoreConditional(instr, address);
+          } else if (!l1.holdsReservation(address)) {
+            // The reservation was lost, fail without going to the bus:
+            finishStoreConditional(instr, address);
+          } else if (!l1.acceptsStore(address)) {
+            category = CycleCategory.WRITE_BUFFER;
+          } else if (issueExclusiveStore(address)) {
+            l1.procWrite(address);
+            syncPending = true;
+            if (l1.isBlocking()) {
+              conditionalIssued = true;
+            } else {
+              finishStoreConditional(instr, address);
+            }
+          }
+          break;
+        case FENCE:
+          if (l1.hasBufferedStores()) {
+            l1.getWriteBuffer().releasePartialLines();
+            category = CycleCategory.FENCE;
+          } else {
+            Bus.getStatistics().incrementFences();
+            retire();
+          }
+          break;
+        case BARRIER:
+          if (synchronizer.arriveAt(this, instr.getValue())) {
+            retire();
+          } else {
+            category = CycleCategory.BARRIER;
+          }
+          break;
+        case SIGNAL:
+          synchronizer.signal(instr.getValue());
+          retire();
+          break;
+        case WAIT:
+          if (synchronizer.await(this, instr.getValue())) {
+            retire();
+          } else {
+            category = CycleCategory.EVENT;
+          }
+          break;
+        default:
+          // Do nothing.
+          break;
+      }
+      stats.incrementCycles(category);
+    } else if (l1.isBlocking()) {
+      stats.incrementCycles(syncPending ? CycleCategory.ATOMIC : l1.getBlockingCategory());
+    } else {
+      // Done processing all instructions in the cache: write out any partially combined lines.
+      l1.getWriteBuffer().releasePartialLines();
+    }
+
+  }
+
+  /*
+   * Prepares the cache for a store of an atomic or a store-conditional, which always allocate,
+   * returning true once the store can be carried out. Swapping the block in from the victim cache
+   * or evicting a block to make room takes the cycle instead.
+   */
+  private boolean issueExclusiveStore(Address address) {
+    if (l1.swapInFromVictimCache(address)) {
+      // The store hits once the block is back in its set:
+      return false;
+    }
+    if (!l1.contains(address) && !l1.hasBlockAvailableFor(address)) {
+      l1.allocateBlockFor(address);
+      return false;
+    }
+    if (l1.contains(address)) {
+      stats.incrementWriteHit();
+    } else {
+      stats.incrementWriteMiss();
+      Bus.getLineProfiler().recordMiss(address, l1.getId());
+    }
+    Bus.getFalseSharingDetector().recordAccess(address, l1.getId());
+    return true;
+  }
+
+  /*
+   * Retires the store-conditional, which succeeds if the cache still holds the reservation. A
+   * failed store-conditional is retried along with its load-linked, as the program's retry loop
+   * would, so both are carried out again.
+   */
+  private void finishStoreConditional(Instruction instr, Address address) {
+    boolean succeeded = l1.holdsReservation(address);
+    Bus.getStatistics().recordStoreConditional(succeeded);
+    l1.clearReservation();
+    retire();
+    if (!succeeded) {
+      instructions.push(instr);
+      instructions.push(new Instruction(InstructionType.LOAD_LINKED, instr.getValue()));
+      instructionCount += 2;
+    }
+  }
+
+  /**
+   * Carries out the next instruction without any timing, relying on the bus being in functional
+   * mode so that every bus job the cache issues completes immediately. OTHER instructions are
+   * skipped. Returns false if there were no instructions left to carry out.
+   */
+  public boolean functionalStep() {
+    if (!hasInstructionsRemaining()) {
+      return false;
+    }
+
+    Instruction instr = instructions.peek();
+    if (instr.getType().hasAddress() && !tlb.contains(instr.getValue())) {
+      tlb.fill(instr.getValue());
+    }
+    Address address = new Address(physicalAddress(instr));
+    switch (instr.getType()) {
+      case LOAD:
+      case LOAD_LINKED:
+        l1.swapInFromVictimCache(address);
+        l1.allocateBlockFor(address);
+        if (instr.getType() == InstructionType.LOAD_LINKED) {
+          l1.reserve(address);
+        }
+        l1.procRead(address);
+        break;
+      case STORE:
+        l1.swapInFromVictimCache(address);
+        if (l1.bypassesStore(address)) {
+          l1.writeAround(address);
+          break;
+        }
+        l1.allocateBlockFor(address);
+        l1.procWrite(address);
+        break;
+      case ATOMIC:
+        l1.swapInFromVictimCache(address);
+        l1.allocateBlockFor(address);
+        l1.procAtomicWrite(address);
+        break;
+      case STORE_CONDITIONAL:
+        // Nothing comes between the LL and SC of a core here, so the SC fails only if the
+        // reservation was already lost; it is not retried.
+        if (l1.holdsReservation(address)) {
+          l1.swapInFromVictimCache(address);
+          l1.procWrite(address);
+        }
+        l1.clearReservation();
+        break;
+      case SIGNAL:
+        synchronizer.signal(instr.getValue());
+        break;
+      default:
+        // Non-memory instructions, fences, barriers and waits take no time in functional mode.
+        break;
+    }
+    retire();
+    return true;
+  }
+
+  /*
+   * Returns the physical address the instruction accesses, through the TLB, which must hold its
+   * translation. OTHER instructions and fences are not translated.
+   */
+  private long physicalAddress(Instruction instr) {
+    return !instr.getType().hasAddress()
+        ? instr.getValue() : tlb.translate(instr.getValue());
+  }
+
+  private void retire() {
+    instructions.pop();
+    instructionsRetired++;
+    stats.incrementInstructions();
+  }
+
+  /**
+   * Returns the number of instructions the processor has finished issuing.
+   */
+  public long getInstructionsRetired() {
+    return instructionsRetired;
+  }
+
+  /**
+   * Returns the number of instructions the processor has yet to issue.
+   */
+  public long getInstructionsRemaining() {
+    return instructionCount - instructionsRetired;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public boolean isFinished() {
+    return !hasInstructionsRemaining()
+        && !l1.isBlocking()
+        && l1.getWriteBuffer().isEmpty()
+        && walkCountdown.isFinished()
+        && nonmemCountdown.isFinished();
+  }
+
+  boolean hasInstructionsRemaining() {
+    return !instructions.isEmpty();
+  }
+
+  public ProcessorStatistics getStatistics() {
+    return stats;
+  }
+
+  @Override
+  public String toString() {
+    return String.join(", ",
+        "Processor ID: " + id,
+        "Current cycle: " + stats.getNumCycles(),
+        "Finished? " + isFinished());
+  }
+}
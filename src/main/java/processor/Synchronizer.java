@@ -0,0 +1,116 @@
+package processor;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Enforces the barriers and events of the traces across the processors of a multiprocessor.
+ * Processors report where they wait while they tick, and the multiprocessor resolves the waits
+ * once every processor has ticked, so that which processor ticks first makes no difference: a
+ * barrier (or a signal) reached in a cycle releases the waiting processors from the next cycle.
+ */
+public class Synchronizer {
+  private final Map<Processor, Long> barrierWaits = new HashMap<>(); // The barrier each waits at.
+  private final Map<Processor, Long> eventWaits = new HashMap<>(); // The event each waits for.
+  private final Set<Processor> released = new HashSet<>(); // May pass the barrier they wait at.
+  private final Set<Long> signalled = new HashSet<>();
+  private final Set<Long> pendingSignals = new HashSet<>(); // Signalled in the current cycle.
+
+  private long barriersCompleted = 0; // The number of times all processors met at a barrier.
+  private long deadlocks = 0; // The times every waiting processor was let go to avoid a deadlock.
+
+  /**
+   * Records that the processor waits at the barrier, returning whether it may pass it now.
+   */
+  boolean arriveAt(Processor processor, long barrier) {
+    if (released.remove(processor)) {
+      barrierWaits.remove(processor);
+      return true;
+    }
+    barrierWaits.put(processor, barrier);
+    return false;
+  }
+
+  /**
+   * Signals the event. Processors waiting for it see it from the next cycle.
+   */
+  void signal(long event) {
+    pendingSignals.add(event);
+  }
+
+  /**
+   * Records that the processor waits for the event, returning whether it has been signalled.
+   */
+  boolean await(Processor processor, long event) {
+    if (signalled.contains(event)) {
+      eventWaits.remove(processor);
+      return true;
+    }
+    eventWaits.put(processor, event);
+    return false;
+  }
+
+  /**
+   * Makes the signals of the cycle visible and releases the processors of every barrier that all
+   * processors have reached. A processor that has run out of instructions does not hold a barrier
+   * up. If every processor with instructions left waits and none can be released, the traces do
+   * not match up: the waits are logged and all of them are released.
+   */
+  void update(List<Processor> processors) {
+    signalled.addAll(pendingSignals);
+    pendingSignals.clear();
+    if (barrierWaits.isEmpty() && eventWaits.isEmpty()) {
+      return;
+    }
+
+    Set<Long> barriers = new HashSet<>();
+    for (Processor p : processors) {
+      if (barrierWaits.containsKey(p) && !released.contains(p)) {
+        barriers.add(barrierWaits.get(p));
+      }
+    }
+    boolean anyReleased = false;
+    for (long barrier : barriers) {
+      boolean complete = processors.stream()
+          .allMatch(p -> p.getInstructionsRemaining() == 0 || waitsAt(p, barrier));
+      if (complete) {
+        processors.stream().filter(p -> waitsAt(p, barrier)).forEach(released::add);
+        barriersCompleted++;
+        anyReleased = true;
+      }
+    }
+
+    boolean allWaiting = processors.stream().allMatch(p -> p.getInstructionsRemaining() == 0
+        || released.contains(p)
+        || barrierWaits.containsKey(p)
+        || (eventWaits.containsKey(p) && !signalled.contains(eventWaits.get(p))));
+    boolean anyRunning = processors.stream().anyMatch(p -> p.getInstructionsRemaining() > 0);
+    if (allWaiting && anyRunning && !anyReleased && released.isEmpty()) {
+      Logger.getLogger(getClass().getName()).log(Level.SEVERE,
+          "Every processor waits at a barrier or for an event that cannot be reached (barriers: "
+              + barrierWaits.values() + ", events: " + eventWaits.values()
+              + "), releasing all of them.");
+      released.addAll(barrierWaits.keySet());
+      eventWaits.values().forEach(signalled::add);
+      deadlocks++;
+    }
+  }
+
+  private boolean waitsAt(Processor processor, long barrier) {
+    Long waitingAt = barrierWaits.get(processor);
+    return waitingAt != null && waitingAt == barrier;
+  }
+
+  public long getBarriersCompleted() {
+    return barriersCompleted;
+  }
+
+  public long getDeadlocks() {
+    return deadlocks;
+  }
+}
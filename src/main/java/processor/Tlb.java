@@ -0,0 +1,53 @@
+package processor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A processor's translation lookaside buffer: the most recently used translations from virtual
+ * pages to frames, evicted least recently used first. A miss walks the shared page table. With
+ * translation disabled, every address is its own translation and the TLB never misses.
+ */
+public class Tlb {
+  private final Map<Long, Long> entries; // Virtual page to frame, least recently used first.
+
+  public Tlb(int capacity) {
+    entries = new LinkedHashMap<Long, Long>(capacity, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  private static long pageOf(long virtualAddress) {
+    return Math.floorDiv(virtualAddress, (long)PageTable.getPageSize());
+  }
+
+  /**
+   * Returns whether the TLB holds the translation of the address.
+   */
+  public boolean contains(long virtualAddress) {
+    return !PageTable.isEnabled() || entries.containsKey(pageOf(virtualAddress));
+  }
+
+  /**
+   * Returns the physical address of a virtual address whose translation the TLB holds.
+   */
+  public long translate(long virtualAddress) {
+    if (!PageTable.isEnabled()) {
+      return virtualAddress;
+    }
+    long frame = entries.get(pageOf(virtualAddress));
+    return frame * PageTable.getPageSize()
+        + Math.floorMod(virtualAddress, (long)PageTable.getPageSize());
+  }
+
+  /**
+   * Walks the page table for the translation of the address and keeps it.
+   */
+  public void fill(long virtualAddress) {
+    long page = pageOf(virtualAddress);
+    entries.put(page, PageTable.getFrame(page));
+  }
+}
@@ -0,0 +1,9 @@
+package processor;
+
+/**
+ * The unit in which the length of the warm-up phase is measured.
+ */
+public enum WarmupUnit {
+  INSTRUCTIONS, // Each processor must retire the given number of instructions.
+  CYCLES // The bus must have run the given number of cycles.
+}
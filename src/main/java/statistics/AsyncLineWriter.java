@@ -0,0 +1,94 @@
+package statistics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes lines to a file from a background thread. The queue between the caller and the writer
+ * thread holds up to CAPACITY lines. Writing a line only blocks the caller on I/O when the queue is
+ * full, so a slow file slows the caller down rather than growing the heap. An error writing the
+ * file is thrown by close(), and the lines after it are dropped.
+ */
+public class AsyncLineWriter implements AutoCloseable {
+  static final int CAPACITY = 4096;
+  private static final String END = new String("END"); // Compared by identity, not by value.
+
+  private final BlockingQueue<String> lines = new ArrayBlockingQueue<>(CAPACITY);
+  private final Thread writer;
+  private IOException failure = null; // The first error writing the file, read once joined.
+
+  public AsyncLineWriter(Path file) throws IOException {
+    BufferedWriter out = Files.newBufferedWriter(file);
+    writer = new Thread(() -> drain(out), "async-writer-" + file.getFileName());
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Queues a line to be written, waiting for room in the queue if it is full.
+   */
+  public void writeLine(String line) {
+    try {
+      lines.put(line);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /*
+   * Writes the queued lines until the end is queued. After an error the lines are still taken, so
+   * the caller never waits on a full queue, but they are dropped.
+   */
+  private void drain(BufferedWriter out) {
+    try (BufferedWriter w = out) {
+      for (String line = nextLine(); line != END; line = nextLine()) {
+        if (failure == null) {
+          try {
+            w.write(line);
+            w.newLine();
+          } catch (IOException e) {
+            failure = e;
+          }
+        }
+      }
+    } catch (IOException e) {
+      // Flushing the last lines when the file was closed failed:
+      if (failure == null) {
+        failure = e;
+      }
+    }
+  }
+
+  private String nextLine() {
+    while (true) {
+      try {
+        return lines.take();
+      } catch (InterruptedException e) {
+        // Only the end of the lines stops the writer, keep draining.
+      }
+    }
+  }
+
+  /**
+   * Waits for every queued line to be written and closes the file, throwing the first error
+   * writing it.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      lines.put(END);
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for the lines to be written.");
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package statistics;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing (linear probing) table from block addresses to slots, for statistics that keep
+ * primitive values per block. Subclasses hold their values in arrays indexed by slot and move them
+ * when the table grows, so recording into an existing slot allocates nothing.
+ */
+abstract class BlockTable {
+  static final long EMPTY = -1L; // Block addresses are never negative.
+  private static final int INITIAL_CAPACITY = 1 << 12;
+
+  long[] keys; // The block address in each slot, or EMPTY.
+  private int size = 0;
+
+  /**
+   * Replaces the value arrays with empty ones of the given capacity. During a resize, the old
+   * arrays must be kept until endResize is called.
+   */
+  abstract void allocateValues(int capacity);
+
+  /**
+   * Copies the values of a slot in the old value arrays into a slot of the new ones.
+   */
+  abstract void moveValues(int oldSlot, int newSlot);
+
+  /**
+   * Drops the old value arrays kept during a resize.
+   */
+  void endResize() {}
+
+  /**
+   * Returns the number of distinct blocks in the table.
+   */
+  public int getNumLines() {
+    return size;
+  }
+
+  /**
+   * Removes every block from the table.
+   */
+  void clear() {
+    keys = new long[INITIAL_CAPACITY];
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+    allocateValues(INITIAL_CAPACITY);
+    endResize();
+  }
+
+  /**
+   * Returns the slot of the block, inserting it if it is not yet in the table.
+   */
+  int slotFor(long block) {
+    int mask = keys.length - 1;
+    int slot = hash(block) & mask;
+    while (keys[slot] != block) {
+      if (keys[slot] == EMPTY) {
+        if ((size + 1) * 4 > keys.length * 3) {
+          // Keep the load factor under three quarters:
+          grow();
+          return slotFor(block);
+        }
+        keys[slot] = block;
+        size++;
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int hash(long block) {
+    long h = block * 0x9E3779B97F4A7C15L;
+    return (int)(h ^ (h >>> 32));
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    keys = new long[oldKeys.length * 2];
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+    allocateValues(keys.length);
+    for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+      if (oldKeys[oldSlot] != EMPTY) {
+        moveValues(oldSlot, slotFor(oldKeys[oldSlot]));
+      }
+    }
+    endResize();
+  }
+}
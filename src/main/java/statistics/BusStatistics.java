@@ -1,5 +1,8 @@
 package statistics;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class BusStatistics {
   private static long bytesWritten = 0L;
   private static int busWrites = 0;
@@ -9,6 +12,102 @@ public class BusStatistics {
   private static int busInvalidations = 0;
   private static long numWrites = 0;
   private static long writeLatencies = 0;
+  private static long busyCycles = 0; // The cycles any socket's bus (or router) was busy.
+  private static long idleCycles = 0; // The cycles every bus was idle.
+  private static long cycles = 0; // The cycles simulated.
+  private static long[] domainBusyCycles = new long[0]; // Per socket's bus or router.
+  private static int maxQueueDepth = 0;
+
+  /*
+    Where the data of BusRd and BusRdX transactions came from, and how memory was updated after
+    interventions that did not flush:
+   */
+  private static long interventions = 0; // Supplied by a cache holding the block dirty.
+  private static long cacheToCacheTransfers = 0; // Supplied by a cache holding a clean copy.
+  private static long memoryReads = 0; // Supplied by memory.
+  private static long parallelMemoryUpdates = 0; // Memory written along with the intervention.
+  private static long lazyMemoryUpdates = 0; // Memory written later, in idle bus cycles.
+  private static long coalescedMemoryUpdates = 0; // Lazy updates of a block already waiting.
+  // The blocks still waiting for a lazy update. Bus state rather than a count, so kept by a reset:
+  private static long pendingMemoryUpdates = 0;
+
+  /*
+    The flush (write-back) queue:
+   */
+  private static long flushCycles = 0; // Cycles in which at least one flush was being written.
+  private static long flushConflictCycles = 0; // Cycles a job waited for its block's flush.
+  private static long coalescedFlushes = 0; // Flushes of a block that was already queued.
+  private static int maxFlushQueueDepth = 0;
+
+  /*
+    The caches' write-back buffers:
+   */
+  private static long writeBackBufferInserts = 0; // Dirty victims parked in a buffer.
+  private static long writeBackBufferDrains = 0; // Victims written to memory from a buffer.
+  private static long writeBackBufferFullStalls = 0; // Victims written back with a full buffer.
+  private static long writeBackBufferSnoops = 0; // Snoops that hit a buffered victim.
+  private static long writeBackBufferReclaims = 0; // Misses served from the cache's own buffer.
+
+  /*
+    The caches' victim caches:
+   */
+  private static long victimCacheProbes = 0; // Misses in the sets that looked in the victim cache.
+  private static long victimCacheHits = 0; // Probes that found the block, and swapped it back.
+  private static long victimCacheBytesSaved = 0; // Bus bytes the hits did not have to transfer.
+  private static long victimCacheSnoops = 0; // Snoops that hit a victim cache entry.
+
+  /*
+    The caches' write buffers:
+   */
+  private static long writeBufferWrites = 0; // Blocks of buffered stores written to memory.
+  private static long fullLineWrites = 0; // Writes of a whole line, e.g. combined streaming stores.
+  private static long coalescedStores = 0; // Stores to a block that was already buffered.
+  private static int maxWriteBufferDepth = 0;
+  private static long sectorMisses = 0; // Accesses to a held block whose sector was not filled.
+
+  /*
+    Atomic and synchronization instructions:
+   */
+  private static long atomics = 0; // Atomic read-modify-writes carried out.
+  private static long busLockedAtomics = 0; // Atomics that had to lock the bus for their block.
+  private static long busLockCycles = 0; // Cycles the bus was held by a locked job.
+  private static long busLockWaitCycles = 0; // Cycles of waiting jobs held up by a locked bus.
+  private static long loadLinked = 0; // Load-linked instructions, including retries.
+  private static long storeConditionals = 0; // Store-conditionals that succeeded.
+  private static long failedStoreConditionals = 0; // Store-conditionals that failed and retried.
+  private static long brokenReservations = 0; // Reservations cleared by another cache's write.
+  private static long fences = 0;
+
+  /*
+    Traffic between sockets: memory accesses served by the accessing cache's socket (local) or by
+    another socket (remote), data and snoops sent across, and the use of the link between them:
+   */
+  private static long localMemoryReads = 0;
+  private static long remoteMemoryReads = 0;
+  private static long localMemoryWrites = 0;
+  private static long remoteMemoryWrites = 0;
+  private static long crossSocketTransfers = 0; // Blocks supplied by a cache in another socket.
+  private static long crossSocketSnoops = 0; // Invalidations and updates sent to other sockets.
+  private static long linkBytes = 0;
+  private static long linkBusyCycles = 0;
+  private static long linkWaitCycles = 0; // The cycles transfers waited for the link to be free.
+
+  /*
+    Network on chip traffic: the messages routed, the links they crossed and how long each link
+    was held, indexed by link:
+   */
+  private static long networkMessages = 0;
+  private static long networkHops = 0;
+  private static long networkBytes = 0;
+  private static long homeConflictCycles = 0; // Cycles jobs waited for a job for their block.
+  private static long[] networkLinkBusyCycles = new long[0];
+
+  /*
+    Per-core bus arbitration statistics, indexed by cache ID:
+   */
+  private static long[] coreWaitCycles = new long[0]; // Cycles spent waiting for bus grants.
+  private static long[] coreMaxWait = new long[0]; // The longest single wait for a grant.
+  private static long[] coreGrants = new long[0]; // The number of jobs granted the bus.
 
   public void addBytesWritten(int bytesTransferred) {
     bytesWritten += bytesTransferred;
@@ -30,6 +129,519 @@ public class BusStatistics {
     flushes++;
   }
 
+  public void incrementFlushCycles() {
+    flushCycles++;
+  }
+
+  public long getFlushCycles() {
+    return flushCycles;
+  }
+
+  public void incrementFlushConflictCycles() {
+    flushConflictCycles++;
+  }
+
+  public long getFlushConflictCycles() {
+    return flushConflictCycles;
+  }
+
+  public void incrementCoalescedFlushes() {
+    coalescedFlushes++;
+  }
+
+  public long getCoalescedFlushes() {
+    return coalescedFlushes;
+  }
+
+  public void updateMaxFlushQueueDepth(int depth) {
+    maxFlushQueueDepth = Math.max(maxFlushQueueDepth, depth);
+  }
+
+  public int getMaxFlushQueueDepth() {
+    return maxFlushQueueDepth;
+  }
+
+  public void incrementWriteBackBufferInserts() {
+    writeBackBufferInserts++;
+  }
+
+  public long getWriteBackBufferInserts() {
+    return writeBackBufferInserts;
+  }
+
+  public void incrementWriteBackBufferDrains() {
+    writeBackBufferDrains++;
+  }
+
+  public long getWriteBackBufferDrains() {
+    return writeBackBufferDrains;
+  }
+
+  public void incrementWriteBackBufferFullStalls() {
+    writeBackBufferFullStalls++;
+  }
+
+  public long getWriteBackBufferFullStalls() {
+    return writeBackBufferFullStalls;
+  }
+
+  public void incrementWriteBackBufferSnoops() {
+    writeBackBufferSnoops++;
+  }
+
+  public long getWriteBackBufferSnoops() {
+    return writeBackBufferSnoops;
+  }
+
+  public void incrementWriteBackBufferReclaims() {
+    writeBackBufferReclaims++;
+  }
+
+  public long getWriteBackBufferReclaims() {
+    return writeBackBufferReclaims;
+  }
+
+  public void incrementVictimCacheProbes() {
+    victimCacheProbes++;
+  }
+
+  public long getVictimCacheProbes() {
+    return victimCacheProbes;
+  }
+
+  /**
+   * Counts a victim cache hit, which saved the given number of bus bytes.
+   */
+  public void recordVictimCacheHit(int bytesSaved) {
+    victimCacheHits++;
+    victimCacheBytesSaved += bytesSaved;
+  }
+
+  public long getVictimCacheHits() {
+    return victimCacheHits;
+  }
+
+  public double getVictimCacheHitRate() {
+    return victimCacheProbes == 0 ? 0 : (double)victimCacheHits / victimCacheProbes;
+  }
+
+  public long getVictimCacheBytesSaved() {
+    return victimCacheBytesSaved;
+  }
+
+  public void incrementVictimCacheSnoops() {
+    victimCacheSnoops++;
+  }
+
+  public long getVictimCacheSnoops() {
+    return victimCacheSnoops;
+  }
+
+  /**
+   * Counts a write of buffered stores to memory, of the whole line or of only some words.
+   */
+  public void recordWriteBufferWrite(boolean fullLine) {
+    writeBufferWrites++;
+    if (fullLine) {
+      fullLineWrites++;
+    }
+  }
+
+  public long getWriteBufferWrites() {
+    return writeBufferWrites;
+  }
+
+  public long getFullLineWrites() {
+    return fullLineWrites;
+  }
+
+  public void incrementCoalescedStores() {
+    coalescedStores++;
+  }
+
+  public long getCoalescedStores() {
+    return coalescedStores;
+  }
+
+  public void updateMaxWriteBufferDepth(int depth) {
+    maxWriteBufferDepth = Math.max(maxWriteBufferDepth, depth);
+  }
+
+  public int getMaxWriteBufferDepth() {
+    return maxWriteBufferDepth;
+  }
+
+  public void incrementSectorMisses() {
+    sectorMisses++;
+  }
+
+  public long getSectorMisses() {
+    return sectorMisses;
+  }
+
+  /**
+   * Counts an atomic read-modify-write, and whether it had to lock the bus to acquire its block.
+   */
+  public void recordAtomic(boolean busLocked) {
+    atomics++;
+    if (busLocked) {
+      busLockedAtomics++;
+    }
+  }
+
+  public long getAtomics() {
+    return atomics;
+  }
+
+  public long getBusLockedAtomics() {
+    return busLockedAtomics;
+  }
+
+  /**
+   * Counts a cycle of the bus being held by a locked job, while the given number of jobs wait.
+   */
+  public void recordBusLockCycle(int waitingJobs) {
+    busLockCycles++;
+    busLockWaitCycles += waitingJobs;
+  }
+
+  public long getBusLockCycles() {
+    return busLockCycles;
+  }
+
+  public long getBusLockWaitCycles() {
+    return busLockWaitCycles;
+  }
+
+  public void incrementLoadLinked() {
+    loadLinked++;
+  }
+
+  public long getLoadLinked() {
+    return loadLinked;
+  }
+
+  /**
+   * Counts a store-conditional that succeeded, or that failed and is retried.
+   */
+  public void recordStoreConditional(boolean succeeded) {
+    if (succeeded) {
+      storeConditionals++;
+    } else {
+      failedStoreConditionals++;
+    }
+  }
+
+  public long getStoreConditionals() {
+    return storeConditionals;
+  }
+
+  public long getFailedStoreConditionals() {
+    return failedStoreConditionals;
+  }
+
+  public void incrementBrokenReservations() {
+    brokenReservations++;
+  }
+
+  public long getBrokenReservations() {
+    return brokenReservations;
+  }
+
+  public void incrementFences() {
+    fences++;
+  }
+
+  public long getFences() {
+    return fences;
+  }
+
+  public void recordMemoryAccess(boolean read, boolean remote) {
+    if (read && remote) {
+      remoteMemoryReads++;
+    } else if (read) {
+      localMemoryReads++;
+    } else if (remote) {
+      remoteMemoryWrites++;
+    } else {
+      localMemoryWrites++;
+    }
+  }
+
+  public long getLocalMemoryReads() {
+    return localMemoryReads;
+  }
+
+  public long getRemoteMemoryReads() {
+    return remoteMemoryReads;
+  }
+
+  public long getLocalMemoryWrites() {
+    return localMemoryWrites;
+  }
+
+  public long getRemoteMemoryWrites() {
+    return remoteMemoryWrites;
+  }
+
+  public void incrementCrossSocketTransfers() {
+    crossSocketTransfers++;
+  }
+
+  public long getCrossSocketTransfers() {
+    return crossSocketTransfers;
+  }
+
+  public void incrementCrossSocketSnoops() {
+    crossSocketSnoops++;
+  }
+
+  public long getCrossSocketSnoops() {
+    return crossSocketSnoops;
+  }
+
+  /**
+   * Records a transfer over the link between the sockets, which held the link for the given
+   * cycles after waiting for it to be free.
+   */
+  public void recordLinkTransfer(int bytes, int cycles, long waitCycles) {
+    linkBytes += bytes;
+    linkBusyCycles += cycles;
+    linkWaitCycles += waitCycles;
+  }
+
+  public long getLinkBytes() {
+    return linkBytes;
+  }
+
+  public long getLinkBusyCycles() {
+    return linkBusyCycles;
+  }
+
+  public long getLinkWaitCycles() {
+    return linkWaitCycles;
+  }
+
+  /**
+   * Records a message routed over the network on chip, crossing the given number of links.
+   */
+  public void recordNetworkMessage(int hops, int bytes) {
+    networkMessages++;
+    networkHops += hops;
+    networkBytes += bytes;
+  }
+
+  public void addLinkBusyCycles(int link, int cycles) {
+    if (link >= networkLinkBusyCycles.length) {
+      networkLinkBusyCycles = Arrays.copyOf(networkLinkBusyCycles, link + 1);
+    }
+    networkLinkBusyCycles[link] += cycles;
+  }
+
+  public void incrementHomeConflictCycles() {
+    homeConflictCycles++;
+  }
+
+  public long getHomeConflictCycles() {
+    return homeConflictCycles;
+  }
+
+  public long getNetworkMessages() {
+    return networkMessages;
+  }
+
+  public long getNetworkBytes() {
+    return networkBytes;
+  }
+
+  public double getAverageHopCount() {
+    return networkMessages == 0 ? 0 : (double)networkHops / networkMessages;
+  }
+
+  public long getLinkBusyCycles(int link) {
+    return link < networkLinkBusyCycles.length ? networkLinkBusyCycles[link] : 0;
+  }
+
+  /**
+   * Returns the message count, average hop count, the cycles jobs waited at their block's home node
+   * and the utilization of every link of the network on chip that carried a message, given the
+   * names of the links.
+   */
+  public String getNetworkReport(List<String> linkNames) {
+    StringBuilder report = new StringBuilder(String.format(
+        "Network messages: %d (%d bytes), average hop count %.2f%n"
+            + "Cycles jobs waited at the home node for a job for their block: %d%n"
+            + "Link utilization:",
+        networkMessages, networkBytes, getAverageHopCount(), homeConflictCycles));
+    for (int link = 0; link < networkLinkBusyCycles.length && link < linkNames.size(); link++) {
+      if (networkLinkBusyCycles[link] > 0) {
+        report.append(String.format("%n  %s: %d busy cycles (%.2f%%)", linkNames.get(link),
+            networkLinkBusyCycles[link],
+            cycles == 0 ? 0 : 100.0 * networkLinkBusyCycles[link] / cycles));
+      }
+    }
+    return report.toString();
+  }
+
+  public void incrementInterventions() {
+    interventions++;
+  }
+
+  public long getInterventions() {
+    return interventions;
+  }
+
+  public void incrementCacheToCacheTransfers() {
+    cacheToCacheTransfers++;
+  }
+
+  public long getCacheToCacheTransfers() {
+    return cacheToCacheTransfers;
+  }
+
+  public void incrementMemoryReads() {
+    memoryReads++;
+  }
+
+  public long getMemoryReads() {
+    return memoryReads;
+  }
+
+  public void incrementParallelMemoryUpdates() {
+    parallelMemoryUpdates++;
+  }
+
+  public long getParallelMemoryUpdates() {
+    return parallelMemoryUpdates;
+  }
+
+  public void incrementLazyMemoryUpdates() {
+    lazyMemoryUpdates++;
+  }
+
+  public long getLazyMemoryUpdates() {
+    return lazyMemoryUpdates;
+  }
+
+  public void setPendingMemoryUpdates(long blocks) {
+    pendingMemoryUpdates = blocks;
+  }
+
+  /**
+   * Returns the number of blocks waiting for a lazy memory update, which are not written if the
+   * program finishes first.
+   */
+  public long getPendingMemoryUpdates() {
+    return pendingMemoryUpdates;
+  }
+
+  public void incrementCoalescedMemoryUpdates() {
+    coalescedMemoryUpdates++;
+  }
+
+  public long getCoalescedMemoryUpdates() {
+    return coalescedMemoryUpdates;
+  }
+
+  /**
+   * Counts a cycle in which the bus was transferring data.
+   */
+  public void incrementBusyCycles() {
+    busyCycles++;
+  }
+
+  public long getBusyCycles() {
+    return busyCycles;
+  }
+
+  /**
+   * Counts a cycle in which the bus of the socket (or the router of the cache, on a network on
+   * chip) with the given index carried out a job.
+   */
+  public void incrementDomainBusyCycles(int domain) {
+    if (domain >= domainBusyCycles.length) {
+      domainBusyCycles = Arrays.copyOf(domainBusyCycles, domain + 1);
+    }
+    domainBusyCycles[domain]++;
+  }
+
+  public long getDomainBusyCycles(int domain) {
+    return domain < domainBusyCycles.length ? domainBusyCycles[domain] : 0;
+  }
+
+  public void incrementCycles() {
+    cycles++;
+  }
+
+  public long getCycles() {
+    return cycles;
+  }
+
+  /**
+   * Returns the busy cycles and utilization of each socket's bus, or each router of a network on
+   * chip, naming them by the given unit, e.g. "socket".
+   */
+  public String getUtilizationReport(String unit) {
+    StringBuilder report = new StringBuilder("Busy cycles per " + unit + ":");
+    for (int d = 0; d < domainBusyCycles.length; d++) {
+      report.append(String.format("%n  %s %d: %d (%.2f%%)",
+          Character.toUpperCase(unit.charAt(0)) + unit.substring(1), d, domainBusyCycles[d],
+          cycles == 0 ? 0 : 100.0 * domainBusyCycles[d] / cycles));
+    }
+    return report.toString();
+  }
+
+  /**
+   * Counts a cycle in which the bus had nothing to do.
+   */
+  public void incrementIdleCycles() {
+    idleCycles++;
+  }
+
+  public long getIdleCycles() {
+    return idleCycles;
+  }
+
+  public void updateMaxQueueDepth(int depth) {
+    maxQueueDepth = Math.max(maxQueueDepth, depth);
+  }
+
+  public int getMaxQueueDepth() {
+    return maxQueueDepth;
+  }
+
+  /**
+   * Records that a job from the given cache waited the given number of cycles for the bus.
+   */
+  public void addBusWait(int cacheId, long cycles) {
+    if (cacheId >= coreGrants.length) {
+      coreWaitCycles = Arrays.copyOf(coreWaitCycles, cacheId + 1);
+      coreMaxWait = Arrays.copyOf(coreMaxWait, cacheId + 1);
+      coreGrants = Arrays.copyOf(coreGrants, cacheId + 1);
+    }
+    coreWaitCycles[cacheId] += cycles;
+    coreMaxWait[cacheId] = Math.max(coreMaxWait[cacheId], cycles);
+    coreGrants[cacheId]++;
+  }
+
+  public long getBusWait(int cacheId) {
+    return cacheId < coreWaitCycles.length ? coreWaitCycles[cacheId] : 0;
+  }
+
+  /**
+   * Returns the total and worst bus wait of every core that used the bus.
+   */
+  public String getArbitrationReport() {
+    StringBuilder report = new StringBuilder("Bus wait per core:");
+    for (int core = 0; core < coreGrants.length; core++) {
+      report.append(String.format("%n  Core %d: %d cycles over %d grants (mean %.2f, max %d)",
+          core, coreWaitCycles[core], coreGrants[core],
+          coreGrants[core] == 0 ? 0 : (double)coreWaitCycles[core] / coreGrants[core],
+          coreMaxWait[core]));
+    }
+    return report.toString();
+  }
+
   public int getBusReads() {
     return busReads;
   }
@@ -53,7 +665,7 @@ public class BusStatistics {
   }
 
   public long getAverageWriteLatency() {
-    return writeLatencies / numWrites;//((long)getBusWrites() + getBusUpdates());
+    return numWrites == 0 ? 0 : writeLatencies / numWrites;
   }
 
   @Override
@@ -63,7 +675,52 @@ public class BusStatistics {
         + "\nBus writes: " + getBusWrites()
         + "\nBus updates: " + getBusUpdates()
         + "\nBus flushes: " + getFlushes()
+        + "\nCoalesced flushes: " + getCoalescedFlushes()
+        + "\nFlush cycles: " + getFlushCycles()
+        + "\nCycles jobs waited for a flush of their block: " + getFlushConflictCycles()
+        + "\nMax flush queue depth: " + getMaxFlushQueueDepth()
+        + "\nWrite-back buffer victims (drained): " + getWriteBackBufferInserts()
+        + " (" + getWriteBackBufferDrains() + ")"
+        + "\nWrite-back buffer full stalls: " + getWriteBackBufferFullStalls()
+        + "\nSnoops hitting write-back buffers: " + getWriteBackBufferSnoops()
+        + "\nMisses reclaimed from write-back buffers: " + getWriteBackBufferReclaims()
+        + String.format("%nVictim cache hits: %d of %d probes (%.2f%%), saving %d bus bytes",
+            getVictimCacheHits(), getVictimCacheProbes(), getVictimCacheHitRate() * 100,
+            getVictimCacheBytesSaved())
+        + "\nSnoops hitting victim caches: " + getVictimCacheSnoops()
+        + "\nWrite buffer writes (full lines): " + getWriteBufferWrites()
+        + " (" + getFullLineWrites() + ")"
+        + "\nCoalesced stores: " + getCoalescedStores()
+        + "\nMax write buffer depth: " + getMaxWriteBufferDepth()
+        + "\nSector misses: " + getSectorMisses()
+        + "\nAtomics (bus-locked): " + getAtomics() + " (" + getBusLockedAtomics() + ")"
+        + "\nBus locked cycles: " + getBusLockCycles()
+        + "\nCycles jobs waited on a locked bus: " + getBusLockWaitCycles()
+        + "\nLoad-linked: " + getLoadLinked()
+        + "\nStore-conditionals succeeded (failed): " + getStoreConditionals()
+        + " (" + getFailedStoreConditionals() + ")"
+        + "\nReservations broken by other caches' writes: " + getBrokenReservations()
+        + "\nFences: " + getFences()
         + "\nBus invalidations: " + getInvalidations()
+        + "\nInterventions (dirty cache-to-cache): " + getInterventions()
+        + "\nClean cache-to-cache transfers: " + getCacheToCacheTransfers()
+        + "\nMemory reads: " + getMemoryReads()
+        + "\nMemory updates in parallel with interventions: " + getParallelMemoryUpdates()
+        + "\nLazy memory updates (coalesced): " + getLazyMemoryUpdates()
+        + " (" + getCoalescedMemoryUpdates() + ")"
+        + "\nLazy memory updates still pending: " + getPendingMemoryUpdates()
+        + "\nMemory reads local (remote): " + getLocalMemoryReads()
+        + " (" + getRemoteMemoryReads() + ")"
+        + "\nMemory writes local (remote): " + getLocalMemoryWrites()
+        + " (" + getRemoteMemoryWrites() + ")"
+        + "\nCross-socket cache-to-cache transfers: " + getCrossSocketTransfers()
+        + "\nCross-socket invalidations and updates: " + getCrossSocketSnoops()
+        + "\nInter-socket link bytes (busy cycles): " + getLinkBytes()
+        + " (" + getLinkBusyCycles() + ")"
+        + "\nCycles transfers waited for the inter-socket link: " + getLinkWaitCycles()
+        + "\nBus busy cycles: " + getBusyCycles()
+        + "\nBus idle cycles: " + getIdleCycles()
+        + "\nMax bus queue depth: " + getMaxQueueDepth()
         + "\nAverage write latency: " + getAverageWriteLatency();
   }
 
@@ -76,6 +733,61 @@ public class BusStatistics {
     busInvalidations = 0;
     numWrites = 0;
     writeLatencies = 0;
+    busyCycles = 0;
+    idleCycles = 0;
+    cycles = 0;
+    domainBusyCycles = new long[0];
+    maxQueueDepth = 0;
+    flushCycles = 0;
+    flushConflictCycles = 0;
+    coalescedFlushes = 0;
+    maxFlushQueueDepth = 0;
+    writeBackBufferInserts = 0;
+    writeBackBufferDrains = 0;
+    writeBackBufferFullStalls = 0;
+    writeBackBufferSnoops = 0;
+    writeBackBufferReclaims = 0;
+    victimCacheProbes = 0;
+    victimCacheHits = 0;
+    victimCacheBytesSaved = 0;
+    victimCacheSnoops = 0;
+    writeBufferWrites = 0;
+    fullLineWrites = 0;
+    coalescedStores = 0;
+    maxWriteBufferDepth = 0;
+    sectorMisses = 0;
+    atomics = 0;
+    busLockedAtomics = 0;
+    busLockCycles = 0;
+    busLockWaitCycles = 0;
+    loadLinked = 0;
+    storeConditionals = 0;
+    failedStoreConditionals = 0;
+    brokenReservations = 0;
+    fences = 0;
+    localMemoryReads = 0;
+    remoteMemoryReads = 0;
+    localMemoryWrites = 0;
+    remoteMemoryWrites = 0;
+    crossSocketTransfers = 0;
+    crossSocketSnoops = 0;
+    linkBytes = 0;
+    linkBusyCycles = 0;
+    linkWaitCycles = 0;
+    networkMessages = 0;
+    networkHops = 0;
+    networkBytes = 0;
+    homeConflictCycles = 0;
+    networkLinkBusyCycles = new long[0];
+    interventions = 0;
+    cacheToCacheTransfers = 0;
+    memoryReads = 0;
+    parallelMemoryUpdates = 0;
+    lazyMemoryUpdates = 0;
+    coalescedMemoryUpdates = 0;
+    coreWaitCycles = new long[0];
+    coreMaxWait = new long[0];
+    coreGrants = new long[0];
   }
 
   public void incrementBusInvalidations() {
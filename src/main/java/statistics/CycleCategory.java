@@ -0,0 +1,28 @@
+package statistics;
+
+/**
+ * What a processor spent a cycle on.
+ */
+public enum CycleCategory {
+  COMPUTE("Compute"), // Issuing an instruction or working through an OTHER instruction.
+  BUS_QUEUE("Bus queue wait"), // Waiting for the bus to start the cache's job.
+  BUS_TRANSFER("Bus transfer wait"), // Waiting for the cache's job to finish on the bus.
+  FLUSH("Flush wait"), // Waiting for the cache to flush a block to memory.
+  EVICTION("Eviction wait"), // Waiting for a block to be evicted to make room.
+  WRITE_BUFFER("Write buffer wait"), // Waiting for room in the write buffer to store.
+  ATOMIC("Atomic wait"), // Waiting on the bus for an atomic, load-linked or store-conditional.
+  FENCE("Fence wait"), // Waiting for the write buffer to drain before a fence or an atomic.
+  BARRIER("Barrier wait"), // Waiting at a barrier for the other cores to reach it.
+  EVENT("Event wait"), // Waiting for another core to signal an event.
+  PAGE_WALK("Page walk"); // Walking the page table after a TLB miss.
+
+  private final String description;
+
+  CycleCategory(String description) {
+    this.description = description;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+}
@@ -0,0 +1,72 @@
+package statistics;
+
+import cache.coherence.CoherenceState;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the event files written by EventRecorder, oldest event first.
+ */
+public class EventDecoder {
+  private final long fromAddress;
+  private final long toAddress;
+  private final int cacheId;
+
+  /**
+   * @param fromAddress the lowest address to print (inclusive).
+   * @param toAddress the highest address to print (inclusive).
+   * @param cacheId the cache whose events to print, or -1 for all caches.
+   */
+  public EventDecoder(long fromAddress, long toAddress, int cacheId) {
+    this.fromAddress = fromAddress;
+    this.toAddress = toAddress;
+    this.cacheId = cacheId;
+  }
+
+  /**
+   * Prints every event in the file that passes the filters, one per line, and returns how many
+   * were printed.
+   */
+  public long decode(Path file, PrintStream out) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      if (buffer.getInt(0) != EventRecorder.MAGIC) {
+        throw new IOException("Not an event file: " + file);
+      } else if (buffer.getInt(4) != EventRecorder.VERSION) {
+        throw new IOException("Unsupported event file version " + buffer.getInt(4) + ": " + file);
+      }
+      int recordSize = buffer.getInt(8);
+      long capacity = buffer.getLong(12);
+      long recorded = buffer.getLong(EventRecorder.COUNT_POSITION);
+
+      // Once the ring buffer has wrapped around, the oldest record follows the newest one:
+      long first = recorded > capacity ? recorded - capacity : 0;
+      long printed = 0;
+      for (long i = first; i < recorded; i++) {
+        int position = (int)(EventRecorder.HEADER_SIZE + (i % capacity) * recordSize);
+        long address = buffer.getLong(position + 8);
+        int cache = buffer.getInt(position + 16);
+        if (Long.compareUnsigned(address, fromAddress) < 0
+            || Long.compareUnsigned(address, toAddress) > 0 || (cacheId >= 0 && cache != cacheId)) {
+          continue;
+        }
+        out.println(String.format("%12d  cache %3d  %-9s 0x%08x  %s -> %s",
+            buffer.getLong(position), cache, EventType.values()[buffer.get(position + 20)],
+            address, state(buffer.get(position + 21)), state(buffer.get(position + 22))));
+        printed++;
+      }
+      return printed;
+    }
+  }
+
+  private static String state(byte encoded) {
+    return encoded < 0 ? "-" : CoherenceState.values()[encoded].toString();
+  }
+}
@@ -0,0 +1,93 @@
+package statistics;
+
+import cache.Address;
+import cache.coherence.CoherenceState;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An opt-in recorder of coherence events. Events are written as fixed-size binary records into a
+ * ring buffer in a memory-mapped file, preallocated when the recorder is opened, so recording costs
+ * a handful of absolute puts and no allocation. Once the buffer is full, the oldest records are
+ * overwritten. When the recorder is not open, isEnabled is false and callers skip recording
+ * altogether. Use EventDecoder to read the file back.
+ *
+ * File layout (little endian): a header of magic, version, record size (ints), capacity and number
+ * of events recorded (longs), followed by the records. Each record holds the bus cycle and the
+ * address (longs), the cache ID (int), the event type and the old and new states (bytes, -1 for
+ * none) and one byte of padding.
+ */
+public class EventRecorder {
+  static final int MAGIC = 0x43455654; // "CEVT"
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  static final int RECORD_SIZE = 24;
+  static final int COUNT_POSITION = 20;
+
+  private FileChannel channel;
+  private MappedByteBuffer buffer;
+  private long capacity = 0;
+  private long recorded = 0;
+
+  public boolean isEnabled() {
+    return buffer != null;
+  }
+
+  /**
+   * Creates (or truncates) the file and maps a ring buffer of the given number of records.
+   */
+  public void open(Path file, long capacity) throws IOException {
+    close();
+    long fits = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE; // Records mapped in one buffer.
+    this.capacity = Math.max(1, Math.min(capacity, fits));
+    this.recorded = 0;
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+        HEADER_SIZE + this.capacity * RECORD_SIZE);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(4, VERSION);
+    buffer.putInt(8, RECORD_SIZE);
+    buffer.putLong(12, this.capacity);
+    buffer.putLong(COUNT_POSITION, 0);
+  }
+
+  public void record(long cycle, int cacheId, EventType type, Address address,
+                     CoherenceState oldState, CoherenceState newState) {
+    int position = (int)(HEADER_SIZE + (recorded % capacity) * RECORD_SIZE);
+    buffer.putLong(position, cycle);
+    buffer.putLong(position + 8, address.getAddress());
+    buffer.putInt(position + 16, cacheId);
+    buffer.put(position + 20, (byte)type.ordinal());
+    buffer.put(position + 21, encode(oldState));
+    buffer.put(position + 22, encode(newState));
+    recorded++;
+  }
+
+  private static byte encode(CoherenceState state) {
+    return state == null ? -1 : (byte)state.ordinal();
+  }
+
+  public long getRecorded() {
+    return recorded;
+  }
+
+  /**
+   * Writes the event count into the header, flushes the mapping and disables the recorder.
+   */
+  public void close() throws IOException {
+    if (buffer != null) {
+      buffer.putLong(COUNT_POSITION, recorded);
+      buffer.force();
+      buffer = null;
+      channel.close();
+      channel = null;
+    }
+  }
+}
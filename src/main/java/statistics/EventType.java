@@ -0,0 +1,15 @@
+package statistics;
+
+/**
+ * The coherence events the event recorder can record.
+ */
+public enum EventType {
+  BUS_RD, // A cache's BusRd finished; the states are the requesting cache's.
+  BUS_RDX, // A cache's BusRdX finished.
+  BUS_UPD, // A cache's BusUpd finished.
+  SNOOP_RD, // A cache saw a remote BusRd.
+  SNOOP_RDX, // A cache saw a remote BusRdX.
+  SNOOP_UPD, // A cache saw a remote BusUpd.
+  FLUSH, // A cache started flushing a block to memory; the new state is the one after the flush.
+  EVICT // A cache evicted a block.
+}
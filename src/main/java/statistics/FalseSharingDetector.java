@@ -0,0 +1,210 @@
+package statistics;
+
+import cache.Address;
+import cache.CacheProperties;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Optional detector for false sharing. For every block, it keeps a bitmask per cache of the words
+ * that cache has accessed since it last received the block. When a write invalidates or updates a
+ * remote copy and the writer and the remote cache have accessed disjoint words, the coherence
+ * traffic could have been avoided by padding the data onto separate blocks, and the event is
+ * counted as false sharing along with an estimate of the bus bytes and cycles it cost.
+ */
+public class FalseSharingDetector extends BlockTable {
+  private boolean enabled = false;
+  private int numCaches = 0;
+
+  private long[] wordMasks; // numCaches word masks per slot.
+  private long[] cachesInvolved; // A bit per cache (0 to 63) that took part in a sharing event.
+  private int[] falseEvents; // Invalidations and updates between caches using disjoint words.
+  private int[] trueEvents; // Invalidations and updates between caches using common words.
+  private long[] bytesWasted; // The estimated bus bytes spent on false sharing.
+  private long[] cyclesWasted; // The estimated bus cycles spent on false sharing.
+
+  private long[] oldWordMasks; // The previous value arrays, while the table grows.
+  private long[] oldCachesInvolved;
+  private int[] oldFalseEvents;
+  private int[] oldTrueEvents;
+  private long[] oldBytesWasted;
+  private long[] oldCyclesWasted;
+
+  public FalseSharingDetector() {
+    clear();
+  }
+
+  /**
+   * Enables the detector for the given number of caches, clearing anything recorded so far.
+   */
+  public void enable(int caches) {
+    numCaches = caches;
+    enabled = true;
+    clear();
+  }
+
+  public void disable() {
+    enabled = false;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void reset() {
+    clear();
+  }
+
+  /**
+   * Records that the cache with the given ID accessed the word of the address.
+   */
+  public void recordAccess(Address address, int cacheId) {
+    if (enabled && cacheId < numCaches) {
+      int slot = slotFor(address.getBlockAddress());
+      wordMasks[slot * numCaches + cacheId] |= wordBit(address);
+    }
+  }
+
+  /**
+   * Records that a write by the writer invalidated the receiver's copy of the address. The receiver
+   * starts a fresh word mask once it reads the block in again.
+   *
+   * @param bytes the estimated bus bytes the invalidation costs, e.g. refetching the block.
+   * @param cycles the estimated bus cycles the invalidation costs.
+   */
+  public void recordInvalidation(Address address, int writerId, int receiverId, int bytes,
+                                 int cycles) {
+    if (enabled && writerId < numCaches && receiverId < numCaches) {
+      int slot = record(address, writerId, receiverId, bytes, cycles);
+      wordMasks[slot * numCaches + receiverId] = 0;
+    }
+  }
+
+  /**
+   * Records that a write by the writer updated the receiver's copy of the address.
+   */
+  public void recordUpdate(Address address, int writerId, int receiverId, int bytes, int cycles) {
+    if (enabled && writerId < numCaches && receiverId < numCaches) {
+      record(address, writerId, receiverId, bytes, cycles);
+    }
+  }
+
+  private int record(Address address, int writerId, int receiverId, int bytes, int cycles) {
+    int slot = slotFor(address.getBlockAddress());
+    long writerWords = wordMasks[slot * numCaches + writerId];
+    long receiverWords = wordMasks[slot * numCaches + receiverId];
+    if (receiverWords != 0 && (writerWords & receiverWords) == 0) {
+      falseEvents[slot]++;
+      bytesWasted[slot] += bytes;
+      cyclesWasted[slot] += cycles;
+      cachesInvolved[slot] |= cacheBit(writerId) | cacheBit(receiverId);
+    } else {
+      trueEvents[slot]++;
+    }
+    return slot;
+  }
+
+  /*
+   * Returns the bit of the address's word within its block. Blocks of more than 64 words share
+   * each bit between neighbouring words.
+   */
+  private static long wordBit(Address address) {
+    int word = address.getOffset() / CacheProperties.WORD_SIZE;
+    int wordsPerBlock = CacheProperties.getWordsPerBlock();
+    if (wordsPerBlock > Long.SIZE) {
+      word = word * Long.SIZE / wordsPerBlock;
+    }
+    return 1L << word;
+  }
+
+  private static long cacheBit(int cacheId) {
+    return cacheId < Long.SIZE ? 1L << cacheId : 0L;
+  }
+
+  public long getFalseSharingEvents() {
+    long sum = 0;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != EMPTY) {
+        sum += falseEvents[slot];
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Returns a table of the k blocks with the most false sharing events, with totals.
+   */
+  public String report(int k) {
+    PriorityQueue<Integer> top = new PriorityQueue<>((a, b) ->
+        Integer.compare(falseEvents[a], falseEvents[b]));
+    int flagged = 0;
+    long totalEvents = 0;
+    long totalBytes = 0;
+    long totalCycles = 0;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != EMPTY && falseEvents[slot] > 0) {
+        flagged++;
+        totalEvents += falseEvents[slot];
+        totalBytes += bytesWasted[slot];
+        totalCycles += cyclesWasted[slot];
+        top.add(slot);
+        if (top.size() > k) {
+          top.poll();
+        }
+      }
+    }
+
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("False sharing on %d of %d lines: %d events, padding would save"
+        + " about %d bus bytes and %d bus cycles.%n", flagged, getNumLines(), totalEvents,
+        totalBytes, totalCycles));
+    report.append(String.format("%18s %10s %10s %8s %14s %14s%n", "Block address",
+        "False", "True", "Cores", "Bytes saved", "Cycles saved"));
+    Integer[] slots = top.toArray(new Integer[0]);
+    Arrays.sort(slots, (a, b) -> Integer.compare(falseEvents[b], falseEvents[a]));
+    for (int slot : slots) {
+      report.append(String.format("%18s %10d %10d %8d %14d %14d%n",
+          "0x" + Long.toHexString(keys[slot] << CacheProperties.getOffsetSize()),
+          falseEvents[slot], trueEvents[slot], Long.bitCount(cachesInvolved[slot]),
+          bytesWasted[slot], cyclesWasted[slot]));
+    }
+    return report.toString();
+  }
+
+  @Override
+  void allocateValues(int capacity) {
+    oldWordMasks = wordMasks;
+    oldCachesInvolved = cachesInvolved;
+    oldFalseEvents = falseEvents;
+    oldTrueEvents = trueEvents;
+    oldBytesWasted = bytesWasted;
+    oldCyclesWasted = cyclesWasted;
+    wordMasks = new long[capacity * numCaches];
+    cachesInvolved = new long[capacity];
+    falseEvents = new int[capacity];
+    trueEvents = new int[capacity];
+    bytesWasted = new long[capacity];
+    cyclesWasted = new long[capacity];
+  }
+
+  @Override
+  void moveValues(int oldSlot, int newSlot) {
+    System.arraycopy(oldWordMasks, oldSlot * numCaches, wordMasks, newSlot * numCaches, numCaches);
+    cachesInvolved[newSlot] = oldCachesInvolved[oldSlot];
+    falseEvents[newSlot] = oldFalseEvents[oldSlot];
+    trueEvents[newSlot] = oldTrueEvents[oldSlot];
+    bytesWasted[newSlot] = oldBytesWasted[oldSlot];
+    cyclesWasted[newSlot] = oldCyclesWasted[oldSlot];
+  }
+
+  @Override
+  void endResize() {
+    oldWordMasks = null;
+    oldCachesInvolved = null;
+    oldFalseEvents = null;
+    oldTrueEvents = null;
+    oldBytesWasted = null;
+    oldCyclesWasted = null;
+  }
+}
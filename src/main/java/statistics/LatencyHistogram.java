@@ -0,0 +1,110 @@
+package statistics;
+
+import java.util.Arrays;
+
+/**
+ * A log-bucketed latency histogram in the style of HdrHistogram. Values below 32 get a bucket each;
+ * above that, every power of two is split into 16 buckets, so a recorded value is known to within
+ * about 6%. Recording only increments an array element, so it can be done on every access.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Buckets below the first shift.
+  private static final int HALF = SUB_BUCKETS / 2; // Buckets per power of two above that.
+  private static final int NUM_BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+  private final long[] counts = new long[NUM_BUCKETS];
+  private long count = 0;
+  private long sum = 0;
+  private long max = 0;
+
+  /**
+   * Records one latency, in cycles. Negative values are recorded as zero.
+   */
+  public void record(long value) {
+    long v = Math.max(0, value);
+    counts[bucketOf(v)]++;
+    count++;
+    sum += v;
+    if (v > max) {
+      max = v;
+    }
+  }
+
+  private static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int)value;
+    }
+    int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+    return SUB_BUCKETS + (shift - 1) * HALF + (int)((value >>> shift) - HALF);
+  }
+
+  /*
+   * Returns the largest value that falls into the bucket.
+   */
+  private static long highestValueIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / HALF + 1;
+    long subBucket = (bucket - SUB_BUCKETS) % HALF + HALF;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  public double getMean() {
+    return count == 0 ? 0 : (double)sum / count;
+  }
+
+  /**
+   * Returns the value below which the given percentage of the recorded values fall, to within the
+   * precision of the buckets (and never more than the maximum recorded value).
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long)Math.ceil(percentile / 100.0 * count));
+    long seen = 0;
+    for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+      seen += counts[bucket];
+      if (seen >= rank) {
+        return Math.min(max, highestValueIn(bucket));
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Adds all of the other histogram's values to this one.
+   */
+  public void add(LatencyHistogram other) {
+    for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+      counts[bucket] += other.counts[bucket];
+    }
+    count += other.count;
+    sum += other.sum;
+    max = Math.max(max, other.max);
+  }
+
+  public void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    sum = 0;
+    max = 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count %d, mean %.2f, p50 %d, p90 %d, p99 %d, p99.9 %d, max %d",
+        getCount(), getMean(), getValueAtPercentile(50), getValueAtPercentile(90),
+        getValueAtPercentile(99), getValueAtPercentile(99.9), getMax());
+  }
+}
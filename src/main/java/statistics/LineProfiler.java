@@ -0,0 +1,153 @@
+package statistics;
+
+import cache.Address;
+import cache.CacheProperties;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Optional per-block statistics: misses, invalidations received and sent, flushes, bus updates and
+ * the set of caches that have held each block. Blocks are kept in an open-addressing table of
+ * primitive arrays, so recording an event allocates nothing unless the table has to grow. When
+ * disabled, every record method returns immediately.
+ */
+public class LineProfiler extends BlockTable {
+  /*
+   * The counters kept for every block, stored side by side in the counts array:
+   */
+  private static final int MISSES = 0;
+  private static final int INVALIDATIONS_RECEIVED = 1;
+  private static final int INVALIDATIONS_SENT = 2;
+  private static final int FLUSHES = 3;
+  private static final int UPDATES = 4;
+  private static final int NUM_COUNTERS = 5;
+
+  private boolean enabled = false;
+
+  private int[] counts; // NUM_COUNTERS counters per slot.
+  private long[] sharers; // A bit per cache that has missed on the block (caches 0 to 63).
+  private int[] oldCounts; // The previous value arrays, while the table grows.
+  private long[] oldSharers;
+
+  public LineProfiler() {
+    clear();
+  }
+
+  public void setEnabled(boolean isEnabled) {
+    enabled = isEnabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records that the cache with the given ID missed on the address.
+   */
+  public void recordMiss(Address address, int cacheId) {
+    if (enabled) {
+      int slot = slotFor(address.getBlockAddress());
+      counts[slot * NUM_COUNTERS + MISSES]++;
+      if (cacheId >= 0 && cacheId < Long.SIZE) {
+        sharers[slot] |= 1L << cacheId;
+      }
+    }
+  }
+
+  /**
+   * Records that a cache's copy of the address was invalidated by a remote write.
+   */
+  public void recordInvalidationReceived(Address address) {
+    increment(address, INVALIDATIONS_RECEIVED);
+  }
+
+  /**
+   * Records that a cache broadcast an invalidating write for the address.
+   */
+  public void recordInvalidationSent(Address address) {
+    increment(address, INVALIDATIONS_SENT);
+  }
+
+  public void recordFlush(Address address) {
+    increment(address, FLUSHES);
+  }
+
+  public void recordUpdate(Address address) {
+    increment(address, UPDATES);
+  }
+
+  private void increment(Address address, int counter) {
+    if (enabled) {
+      counts[slotFor(address.getBlockAddress()) * NUM_COUNTERS + counter]++;
+    }
+  }
+
+  /**
+   * Clears all recorded blocks, leaving the profiler enabled or disabled.
+   */
+  public void reset() {
+    clear();
+  }
+
+  /**
+   * Returns a table of the k blocks with the most coherence events (the sum of all counters).
+   */
+  public String report(int k) {
+    PriorityQueue<Integer> top = new PriorityQueue<>((a, b) -> Long.compare(total(a), total(b)));
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != EMPTY) {
+        top.add(slot);
+        if (top.size() > k) {
+          top.poll();
+        }
+      }
+    }
+
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("Top %d of %d lines by coherence events:%n", top.size(),
+        getNumLines()));
+    report.append(String.format("%18s %10s %10s %10s %10s %10s %8s%n", "Block address",
+        "Misses", "Inv. recv", "Inv. sent", "Flushes", "Updates", "Sharers"));
+    Integer[] slots = top.toArray(new Integer[0]);
+    Arrays.sort(slots, (a, b) -> Long.compare(total(b), total(a)));
+    for (int slot : slots) {
+      int base = slot * NUM_COUNTERS;
+      report.append(String.format("%18s %10d %10d %10d %10d %10d %8d%n",
+          "0x" + Long.toHexString(keys[slot] << CacheProperties.getOffsetSize()),
+          counts[base + MISSES], counts[base + INVALIDATIONS_RECEIVED],
+          counts[base + INVALIDATIONS_SENT], counts[base + FLUSHES], counts[base + UPDATES],
+          Long.bitCount(sharers[slot])));
+    }
+    return report.toString();
+  }
+
+  private long total(int slot) {
+    long sum = 0;
+    for (int i = 0; i < NUM_COUNTERS; i++) {
+      sum += counts[slot * NUM_COUNTERS + i];
+    }
+    return sum;
+  }
+
+  @Override
+  void allocateValues(int capacity) {
+    oldCounts = counts;
+    oldSharers = sharers;
+    counts = new int[capacity * NUM_COUNTERS];
+    sharers = new long[capacity];
+  }
+
+  @Override
+  void moveValues(int oldSlot, int newSlot) {
+    System.arraycopy(oldCounts, oldSlot * NUM_COUNTERS, counts, newSlot * NUM_COUNTERS,
+        NUM_COUNTERS);
+    sharers[newSlot] = oldSharers[oldSlot];
+  }
+
+  @Override
+  void endResize() {
+    oldCounts = null;
+    oldSharers = null;
+  }
+}
@@ -0,0 +1,51 @@
+package statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the bus traffic of the coherence policies a trace was simulated with, relative to the
+ * first policy simulated.
+ */
+public class PolicyComparison {
+  private final List<String> policies = new ArrayList<>();
+  private final List<long[]> results = new ArrayList<>(); // Cycles, bytes and flushes per policy.
+
+  /**
+   * Records the results of the policy's simulation. Must be called before the statistics are
+   * reset for the next policy.
+   */
+  public void add(String policy, BusStatistics stats) {
+    policies.add(policy);
+    results.add(new long[] {
+        stats.getCycles(),
+        stats.getBytesWritten(),
+        stats.getFlushes()
+    });
+  }
+
+  public int size() {
+    return policies.size();
+  }
+
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Policy comparison (change relative to ").append(policies.get(0)).append("):\n");
+    sb.append(String.format("%-12s %12s %9s %14s %9s %10s %9s%n",
+        "Policy", "Cycles", "", "Bus bytes", "", "Flushes", ""));
+    long[] base = results.get(0);
+    for (int i = 0; i < policies.size(); i++) {
+      long[] r = results.get(i);
+      sb.append(String.format("%-12s %12d %9s %14d %9s %10d %9s%n", policies.get(i),
+          r[0], change(r[0], base[0]), r[1], change(r[1], base[1]), r[2], change(r[2], base[2])));
+    }
+    return sb.toString();
+  }
+
+  private static String change(long value, long base) {
+    if (base == 0) {
+      return value == 0 ? "" : "(new)";
+    }
+    return String.format("%+.1f%%", 100.0 * (value - base) / base);
+  }
+}
@@ -1,5 +1,7 @@
 package statistics;
 
+import java.util.Arrays;
+
 /**
  * Processor-level statistics accumulator.
  */
@@ -11,6 +13,8 @@ public class ProcessorStatistics {
     The number of cycles that the processor has run.
    */
   private int cycleCount = 0;
+  private final long[] categoryCycles = new long[CycleCategory.values().length];
+  private long instructions = 0; // The number of instructions retired.
 
   private int writeHits = 0;
   private int writeMisses = 0;
@@ -20,6 +24,16 @@ public class ProcessorStatistics {
   private int privateAccesses = 0;
   private int sharedAccesses = 0;
 
+  private long tlbMisses = 0; // Memory accesses whose translation had to be walked.
+
+  /*
+    Latency distributions, in cycles:
+   */
+  private final LatencyHistogram readMissLatencies = new LatencyHistogram(); // Issue to data.
+  private final LatencyHistogram writeLatencies = new LatencyHistogram(); // Issue to ownership.
+  private final LatencyHistogram busQueueDelays = new LatencyHistogram(); // Enqueue to bus start.
+  private final LatencyHistogram flushStalls = new LatencyHistogram(); // Cache blocked by a flush.
+
   public ProcessorStatistics() {
     this.id = -1;
   }
@@ -50,10 +64,36 @@ public class ProcessorStatistics {
   }
 
   /**
-   * Increases the number of cycles the processor has run by one.
+   * Increases the number of cycles the processor has run by one, attributing it to the category.
    */
-  public void incrementCycles() {
+  public void incrementCycles(CycleCategory category) {
     cycleCount++;
+    categoryCycles[category.ordinal()]++;
+  }
+
+  /**
+   * Returns the number of cycles spent waiting on the cache, i.e. on anything but computing.
+   */
+  public long getStallCycles() {
+    long stalls = 0;
+    for (CycleCategory category : CycleCategory.values()) {
+      if (category != CycleCategory.COMPUTE) {
+        stalls += categoryCycles[category.ordinal()];
+      }
+    }
+    return stalls;
+  }
+
+  public long getCycles(CycleCategory category) {
+    return categoryCycles[category.ordinal()];
+  }
+
+  public void incrementInstructions() {
+    instructions++;
+  }
+
+  public long getInstructions() {
+    return instructions;
   }
 
   /**
@@ -103,23 +143,101 @@ public class ProcessorStatistics {
     return getWriteHits() + getWriteMisses();
   }
 
+  public void incrementTlbMisses() {
+    tlbMisses++;
+  }
+
+  public long getTlbMisses() {
+    return tlbMisses;
+  }
+
+  /**
+   * Returns the fraction of memory accesses that missed in the TLB.
+   */
+  public double getTlbMissRate() {
+    return getNumAccesses() == 0 ? 0 : (double)tlbMisses / getNumAccesses();
+  }
+
   public int getNumAccesses() {
     return getNumReads() + getNumWrites();
   }
 
+  public void recordReadMissLatency(long cycles) {
+    readMissLatencies.record(cycles);
+  }
+
+  public void recordWriteLatency(long cycles) {
+    writeLatencies.record(cycles);
+  }
+
+  public void recordBusQueueDelay(long cycles) {
+    busQueueDelays.record(cycles);
+  }
+
+  public void recordFlushStall(long cycles) {
+    flushStalls.record(cycles);
+  }
+
+  public LatencyHistogram getReadMissLatencies() {
+    return readMissLatencies;
+  }
+
+  public LatencyHistogram getWriteLatencies() {
+    return writeLatencies;
+  }
+
+  public LatencyHistogram getBusQueueDelays() {
+    return busQueueDelays;
+  }
+
+  public LatencyHistogram getFlushStalls() {
+    return flushStalls;
+  }
+
   public double getDataMissRate() {
     return ((double)getReadMisses() + getWriteMisses()) / getNumAccesses();
   }
 
+  /**
+   * Clears all of the counters, e.g. at the end of a warm-up phase.
+   */
+  public void reset() {
+    cycleCount = 0;
+    Arrays.fill(categoryCycles, 0);
+    instructions = 0;
+    writeHits = 0;
+    writeMisses = 0;
+    readHits = 0;
+    readMisses = 0;
+    privateAccesses = 0;
+    sharedAccesses = 0;
+    tlbMisses = 0;
+    readMissLatencies.reset();
+    writeLatencies.reset();
+    busQueueDelays.reset();
+    flushStalls.reset();
+  }
+
   public ProcessorStatistics combine(ProcessorStatistics other) {
     ProcessorStatistics sum = new ProcessorStatistics();
     sum.cycleCount = Math.max(cycleCount, other.cycleCount);
+    for (int i = 0; i < categoryCycles.length; i++) {
+      sum.categoryCycles[i] = categoryCycles[i] + other.categoryCycles[i];
+    }
+    sum.instructions = instructions + other.instructions;
     sum.writeHits = writeHits + other.writeHits;
     sum.writeMisses = writeMisses + other.writeMisses;
     sum.readHits = readHits + other.readHits;
     sum.readMisses = readMisses + other.readMisses;
     sum.privateAccesses = privateAccesses + other.privateAccesses;
     sum.sharedAccesses = sharedAccesses + other.sharedAccesses;
+    sum.tlbMisses = tlbMisses + other.tlbMisses;
+    for (ProcessorStatistics stats : new ProcessorStatistics[] {this, other}) {
+      sum.readMissLatencies.add(stats.readMissLatencies);
+      sum.writeLatencies.add(stats.writeLatencies);
+      sum.busQueueDelays.add(stats.busQueueDelays);
+      sum.flushStalls.add(stats.flushStalls);
+    }
 
     return sum;
   }
@@ -127,9 +245,51 @@ public class ProcessorStatistics {
   @Override
   public String toString() {
     return "Cycles: " + getNumCycles()
+        + "\nStall cycles: " + getStallCycles()
         + "\nData miss rate: " + String.format("%.8f", getDataMissRate())
         + "\nShared accesses: " + getSharedAccesses()
-        + "\nPrivate accesses: " + getPrivateAccesses();
+        + "\nPrivate accesses: " + getPrivateAccesses()
+        + String.format("%nTLB misses: %d (%.8f), page walk cycles: %d", getTlbMisses(),
+            getTlbMissRate(), getCycles(CycleCategory.PAGE_WALK))
+        + String.format("%nBarrier wait cycles: %d, event wait cycles: %d",
+            getCycles(CycleCategory.BARRIER), getCycles(CycleCategory.EVENT))
+        + "\n" + getCpiStack()
+        + "\n" + getLatencyReport();
+  }
+
+  /**
+   * Returns the cycles per instruction, broken down by what the cycles were spent on. For combined
+   * statistics, the cycles of all processors are added up.
+   */
+  public String getCpiStack() {
+    long total = 0;
+    for (long cycles : categoryCycles) {
+      total += cycles;
+    }
+
+    StringBuilder stack = new StringBuilder("CPI stack:");
+    for (CycleCategory category : CycleCategory.values()) {
+      long cycles = categoryCycles[category.ordinal()];
+      stack.append(String.format("%n  %-18s %8.4f (%d cycles, %.1f%%)", category.getDescription(),
+          perInstruction(cycles), cycles, total == 0 ? 0 : 100.0 * cycles / total));
+    }
+    stack.append(String.format("%n  %-18s %8.4f (%d instructions)", "Total",
+        perInstruction(total), instructions));
+    return stack.toString();
+  }
+
+  private double perInstruction(long cycles) {
+    return instructions == 0 ? 0 : (double)cycles / instructions;
+  }
+
+  /**
+   * Returns the latency percentiles, in cycles.
+   */
+  public String getLatencyReport() {
+    return "Read miss latency: " + readMissLatencies
+        + "\nWrite latency: " + writeLatencies
+        + "\nBus queueing delay: " + busQueueDelays
+        + "\nFlush stall time: " + flushStalls;
   }
 
 }
@@ -0,0 +1,151 @@
+package statistics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Snapshots the simulation every N bus cycles and streams the samples to a CSV or JSON lines file
+ * through an AsyncLineWriter. Each sample covers the cycles since the previous one: bus
+ * utilization, the bus queue depth at the sample, bytes transferred per cycle, the data miss rate
+ * and every processor's stall cycles.
+ */
+public class TimeSeriesSampler implements AutoCloseable {
+  /**
+   * The formats samples can be written in.
+   */
+  public enum Format {
+    CSV, JSON_LINES;
+
+    /**
+     * Returns CSV for files ending with ".csv" and JSON lines for anything else.
+     */
+    public static Format of(Path file) {
+      return file.toString().endsWith(".csv") ? CSV : JSON_LINES;
+    }
+  }
+
+  private final long interval;
+  private final Format format;
+  private final AsyncLineWriter out;
+  private boolean headerWritten = false;
+
+  /*
+   * The totals at the previous sample:
+   */
+  private long lastCycle = 0;
+  private long lastBusyCycles = 0;
+  private long lastBytes = 0;
+  private long lastAccesses = 0;
+  private long lastMisses = 0;
+  private long[] lastStalls = new long[0];
+
+  public TimeSeriesSampler(Path file, long interval) throws IOException {
+    this.interval = Math.max(1, interval);
+    this.format = Format.of(file);
+    this.out = new AsyncLineWriter(file);
+  }
+
+  /**
+   * Returns whether a sample is due in the given cycle.
+   */
+  public boolean isDue(long cycle) {
+    return cycle % interval == 0;
+  }
+
+  /**
+   * Takes a sample covering the cycles since the previous one, if there are any.
+   */
+  public void sample(long cycle, int queueDepth, BusStatistics bus,
+      List<ProcessorStatistics> procs) {
+    if (cycle <= lastCycle) {
+      return;
+    }
+    if (lastStalls.length != procs.size()) {
+      lastStalls = new long[procs.size()];
+    }
+
+    long accesses = 0;
+    long misses = 0;
+    long[] stalls = new long[procs.size()];
+    for (int i = 0; i < procs.size(); i++) {
+      ProcessorStatistics p = procs.get(i);
+      accesses += p.getNumAccesses();
+      misses += p.getReadMisses() + p.getWriteMisses();
+      stalls[i] = p.getStallCycles() - lastStalls[i];
+    }
+
+    double cycles = Math.max(1, cycle - lastCycle);
+    double utilization = (bus.getBusyCycles() - lastBusyCycles) / cycles;
+    double bytesPerCycle = (bus.getBytesWritten() - lastBytes) / cycles;
+    long windowAccesses = accesses - lastAccesses;
+    double missRate = windowAccesses == 0 ? 0 : (double)(misses - lastMisses) / windowAccesses;
+
+    if (!headerWritten) {
+      writeHeader(procs.size());
+    }
+    out.writeLine(format(cycle, utilization, queueDepth, bytesPerCycle, missRate, stalls));
+
+    lastCycle = cycle;
+    lastBusyCycles = bus.getBusyCycles();
+    lastBytes = bus.getBytesWritten();
+    lastAccesses = accesses;
+    lastMisses = misses;
+    for (int i = 0; i < procs.size(); i++) {
+      lastStalls[i] = procs.get(i).getStallCycles();
+    }
+  }
+
+  /**
+   * Forgets the totals of the previous sample, for when the statistics themselves have been reset.
+   */
+  public void statisticsReset() {
+    lastBusyCycles = 0;
+    lastBytes = 0;
+    lastAccesses = 0;
+    lastMisses = 0;
+    lastStalls = new long[lastStalls.length];
+  }
+
+  private void writeHeader(int numProcs) {
+    if (format == Format.CSV) {
+      StringBuilder header = new StringBuilder(
+          "cycle,bus_utilization,queue_depth,bytes_per_cycle,miss_rate");
+      for (int i = 0; i < numProcs; i++) {
+        header.append(",stall_cycles_").append(i);
+      }
+      out.writeLine(header.toString());
+    }
+    headerWritten = true;
+  }
+
+  private String format(long cycle, double utilization, int queueDepth, double bytesPerCycle,
+                        double missRate, long[] stalls) {
+    StringBuilder line = new StringBuilder();
+    if (format == Format.CSV) {
+      line.append(String.format(Locale.ROOT, "%d,%.4f,%d,%.4f,%.6f",
+          cycle, utilization, queueDepth, bytesPerCycle, missRate));
+      for (long stall : stalls) {
+        line.append(',').append(stall);
+      }
+    } else {
+      line.append(String.format(Locale.ROOT, "{\"cycle\":%d,\"busUtilization\":%.4f,"
+              + "\"queueDepth\":%d,\"bytesPerCycle\":%.4f,\"missRate\":%.6f,\"stallCycles\":[",
+          cycle, utilization, queueDepth, bytesPerCycle, missRate));
+      for (int i = 0; i < stalls.length; i++) {
+        line.append(i == 0 ? "" : ",").append(stalls[i]);
+      }
+      line.append("]}");
+    }
+    return line.toString();
+  }
+
+  /**
+   * Waits for all samples to be written and closes the file, throwing the first error writing it.
+   */
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
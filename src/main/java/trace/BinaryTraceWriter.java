@@ -0,0 +1,39 @@
+package trace;
+
+import cache.InstructionType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes instructions in the binary trace format (see TraceFormat.BINARY).
+ */
+public class BinaryTraceWriter implements TraceWriter {
+  private final DataOutputStream out;
+  private final byte[] record = new byte[RECORD_SIZE];
+
+  static final int RECORD_SIZE = 9;
+
+  public BinaryTraceWriter(Path file) throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    out.writeInt(TraceFormats.BINARY_MAGIC);
+    out.writeInt(TraceFormats.BINARY_VERSION);
+  }
+
+  @Override
+  public void write(InstructionType type, long value) throws IOException {
+    record[0] = (byte)TraceFormats.typeCode(type);
+    for (int i = 0; i < Long.BYTES; i++) {
+      record[RECORD_SIZE - 1 - i] = (byte)(value >>> (8 * i));
+    }
+    out.write(record);
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
@@ -0,0 +1,49 @@
+package trace;
+
+import cache.InstructionType;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes instructions in the text trace format. Lines are formatted by hand into a byte buffer,
+ * since String.format would dominate the cost of generating large traces.
+ */
+public class TextTraceWriter implements TraceWriter {
+  private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+
+  private final OutputStream out;
+  // The type (one or two digits), a space, "0x", up to 16 digits and a newline:
+  private final byte[] line = new byte[25];
+
+  public TextTraceWriter(Path file) throws IOException {
+    this.out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+  }
+
+  @Override
+  public void write(InstructionType type, long value) throws IOException {
+    int code = TraceFormats.typeCode(type);
+    int start = 0;
+    if (code >= 10) {
+      line[start++] = (byte)('0' + code / 10);
+    }
+    line[start] = (byte)('0' + code % 10);
+    line[start + 1] = ' ';
+    line[start + 2] = '0';
+    line[start + 3] = 'x';
+    int digits = Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 3) / 4);
+    for (int i = 0; i < digits; i++) {
+      line[start + 3 + digits - i] = HEX_DIGITS[(int)(value >>> (4 * i)) & 0xf];
+    }
+    line[start + 4 + digits] = '\n';
+    out.write(line, 0, start + 5 + digits);
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
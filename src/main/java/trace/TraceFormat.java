@@ -0,0 +1,53 @@
+package trace;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The on-disk formats a trace can be stored in.
+ */
+public enum TraceFormat {
+  /**
+   * One "type 0xvalue" line per instruction.
+   */
+  TEXT(".data"),
+  /**
+   * Fixed-size nine byte records (a type byte followed by a big-endian long value) after a short
+   * header. Much faster to write and read than the text format.
+   */
+  BINARY(".bin");
+
+  private final String extension;
+
+  TraceFormat(String extension) {
+    this.extension = extension;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  public TraceWriter open(Path file) throws IOException {
+    switch (this) {
+      case BINARY:
+        return new BinaryTraceWriter(file);
+      case TEXT:
+      default:
+        return new TextTraceWriter(file);
+    }
+  }
+
+  /**
+   * Returns the format of the given trace file, judging by its extension, or null if it is not a
+   * trace file.
+   */
+  public static TraceFormat of(Path file) {
+    String name = file.toString();
+    for (TraceFormat format : values()) {
+      if (name.endsWith(format.extension)) {
+        return format;
+      }
+    }
+    return null;
+  }
+}
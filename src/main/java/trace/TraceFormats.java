@@ -0,0 +1,94 @@
+package trace;
+
+import cache.InstructionType;
+
+/**
+ * Constants and conversions shared by the trace readers and writers.
+ */
+final class TraceFormats {
+  static final int BINARY_MAGIC = 0x43545243; // "CTRC"
+  /*
+   * The binary format's version, raised whenever instruction types are added. Each version adds
+   * codes after the last version's: version 1 has loads, stores and other instructions, version 2
+   * atomics, load-linked/store-conditional pairs and fences, and version 3 barriers, signals and
+   * waits.
+   */
+  static final int BINARY_VERSION = 3;
+  private static final int[] BINARY_TYPE_COUNTS = { 0, 3, 7, 10 }; // The types of each version.
+  static final int INVALID_CODE = 15; // Not the code of any type.
+
+  private TraceFormats() {}
+
+  /**
+   * Returns the numeric code of an instruction type in a trace.
+   */
+  static int typeCode(InstructionType type) {
+    switch (type) {
+      case LOAD:
+        return 0;
+      case STORE:
+        return 1;
+      case OTHER:
+        return 2;
+      case ATOMIC:
+        return 3;
+      case LOAD_LINKED:
+        return 4;
+      case STORE_CONDITIONAL:
+        return 5;
+      case FENCE:
+        return 6;
+      case BARRIER:
+        return 7;
+      case SIGNAL:
+        return 8;
+      case WAIT:
+        return 9;
+      default:
+        return INVALID_CODE;
+    }
+  }
+
+  /**
+   * Returns whether a binary trace of the given version can be read.
+   */
+  static boolean isSupportedVersion(int version) {
+    return version >= 1 && version <= BINARY_VERSION;
+  }
+
+  /**
+   * Returns the instruction type of a code in a binary trace of the given (supported) version. A
+   * code the version does not have, such as the code it wrote for an invalid instruction, is
+   * invalid.
+   */
+  static InstructionType typeOf(int code, int version) {
+    return code < BINARY_TYPE_COUNTS[version] ? typeOf(code) : InstructionType.INVALID;
+  }
+
+  static InstructionType typeOf(int code) {
+    switch (code) {
+      case 0:
+        return InstructionType.LOAD;
+      case 1:
+        return InstructionType.STORE;
+      case 2:
+        return InstructionType.OTHER;
+      case 3:
+        return InstructionType.ATOMIC;
+      case 4:
+        return InstructionType.LOAD_LINKED;
+      case 5:
+        return InstructionType.STORE_CONDITIONAL;
+      case 6:
+        return InstructionType.FENCE;
+      case 7:
+        return InstructionType.BARRIER;
+      case 8:
+        return InstructionType.SIGNAL;
+      case 9:
+        return InstructionType.WAIT;
+      default:
+        return InstructionType.INVALID;
+    }
+  }
+}
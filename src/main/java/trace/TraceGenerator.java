@@ -0,0 +1,205 @@
+package trace;
+
+import cache.CacheProperties;
+import cache.Instruction;
+import cache.InstructionType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates reproducible synthetic traces for a number of cores. Each core's trace depends only on
+ * the settings, the seed and the core's number, so the cores are generated in parallel.
+ */
+public class TraceGenerator {
+  private final WorkloadModel model;
+  private final int cores;
+
+  private long footprint = 64 * 1024; // The number of bytes each core's region spans.
+  private int blockSize = 16; // The cache block size the sharing patterns are laid out for.
+  private int stride = 64; // The distance, in bytes, between accesses of the STRIDED model.
+  private double writeRatio = 0.3; // The fraction of accesses that are stores, where applicable.
+  private double zipfExponent = 0.99; // The skew of the ZIPFIAN model.
+  private boolean shared = false; // Do all cores access the same region?
+  private long computeEvery = 0; // Insert an OTHER instruction after this many accesses (0: never).
+  private long computeCycles = 0; // The number of cycles each OTHER instruction takes.
+  private long barrierEvery = 0; // Insert a barrier after this many accesses (0: never).
+  private long seed = 1;
+
+  private ZipfianDistribution zipfian;
+
+  public TraceGenerator(WorkloadModel model, int cores) {
+    this.model = model;
+    this.cores = Math.max(1, cores);
+  }
+
+  public void setFootprint(long bytes) {
+    footprint = Math.max(blockSize, bytes / blockSize * blockSize);
+    zipfian = null;
+  }
+
+  public void setBlockSize(int bytes) {
+    blockSize = Math.max(CacheProperties.WORD_SIZE, bytes);
+    setFootprint(footprint);
+  }
+
+  public void setStride(int bytes) {
+    stride = Math.max(1, bytes);
+  }
+
+  public void setWriteRatio(double ratio) {
+    writeRatio = Math.min(1, Math.max(0, ratio));
+  }
+
+  public void setZipfExponent(double exponent) {
+    zipfExponent = exponent;
+    zipfian = null;
+  }
+
+  public void setShared(boolean isShared) {
+    shared = isShared;
+  }
+
+  public void setComputeGap(long every, long cycles) {
+    computeEvery = Math.max(0, every);
+    computeCycles = Math.max(0, cycles);
+  }
+
+  /**
+   * Makes every core meet the others at a barrier after every given number of accesses, as the
+   * phases of a bulk-synchronous program do. The barriers are numbered in order.
+   */
+  public void setBarrierInterval(long every) {
+    barrierEvery = Math.max(0, every);
+  }
+
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+  public int getCores() {
+    return cores;
+  }
+
+  public long getFootprint() {
+    return footprint;
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  public int getStride() {
+    return stride;
+  }
+
+  long getNumBlocks() {
+    return footprint / blockSize;
+  }
+
+  ZipfianDistribution getZipfian() {
+    return zipfian;
+  }
+
+  /**
+   * Returns the first address of the core's region.
+   */
+  long regionBase(int core) {
+    return shared ? 0 : core * footprint;
+  }
+
+  /**
+   * Returns the first address of the core's slice of the shared footprint, block aligned.
+   */
+  long bufferBase(int core) {
+    return (footprint / cores / blockSize) * blockSize * core;
+  }
+
+  InstructionType accessType(SplittableRandom random) {
+    return random.nextDouble() < writeRatio ? InstructionType.STORE : InstructionType.LOAD;
+  }
+
+  private void prepare() {
+    if (model == WorkloadModel.ZIPFIAN && zipfian == null) {
+      zipfian = new ZipfianDistribution(getNumBlocks(), zipfExponent);
+    }
+  }
+
+  /**
+   * Writes at least the given number of memory accesses for one core, plus any OTHER instructions
+   * and barriers.
+   */
+  public void generate(int core, long accesses, TraceWriter out) throws IOException {
+    prepare();
+    SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + core);
+    long emitted = 0;
+    long nextCompute = computeEvery;
+    long nextBarrier = barrierEvery;
+    for (long step = 0; emitted < accesses; step++) {
+      emitted += model.emit(this, core, step, random, out);
+      if (computeEvery > 0 && emitted >= nextCompute) {
+        out.write(InstructionType.OTHER, computeCycles);
+        nextCompute += computeEvery;
+      }
+      if (barrierEvery > 0 && emitted >= nextBarrier) {
+        out.write(InstructionType.BARRIER, nextBarrier / barrierEvery);
+        nextBarrier += barrierEvery;
+      }
+    }
+  }
+
+  /**
+   * Generates one core's trace in memory.
+   */
+  public List<Instruction> generate(int core, long accesses) {
+    List<Instruction> trace = new ArrayList<>();
+    try {
+      generate(core, accesses, (type, value) -> trace.add(new Instruction(type, value)));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return trace;
+  }
+
+  /**
+   * Generates every core's trace in memory, in parallel.
+   */
+  public List<List<Instruction>> generateAll(long accessesPerCore) {
+    prepare();
+    return IntStream.range(0, cores)
+        .parallel()
+        .mapToObj(core -> generate(core, accessesPerCore))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Writes one trace file per core into the directory, in parallel, and returns their paths.
+   */
+  public List<Path> writeAll(Path directory, long accessesPerCore, TraceFormat format)
+      throws IOException {
+    prepare();
+    String prefix = model.name().toLowerCase();
+    try {
+      return IntStream.range(0, cores)
+          .parallel()
+          .mapToObj(core -> {
+            Path file = directory.resolve(prefix + "_" + core + format.getExtension());
+            try (TraceWriter out = format.open(file)) {
+              generate(core, accessesPerCore, out);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            return file;
+          })
+          .collect(Collectors.toList());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+}
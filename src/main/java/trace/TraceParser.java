@@ -0,0 +1,101 @@
+package trace;
+
+import cache.Instruction;
+import cache.InstructionType;
+import javafx.util.Pair;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads memory traces into instruction sequences. Each line of a trace is an instruction type
+ * (0 for load, 1 for store, 2 for other, 3 for an atomic read-modify-write, 4 for load-linked, 5
+ * for store-conditional, 6 for a fence, 7 for a barrier, 8 to signal an event and 9 to wait for
+ * one) followed by a hexadecimal value.
+ */
+public class TraceParser {
+  private static final Pattern pattern = Pattern.compile("(\\d{1,2})\\s+0x([\\d a-f]+)\\s*");
+
+  private TraceParser() {}
+
+  public static List<Instruction> parseTrace(Path trace) throws IOException {
+    if (TraceFormat.of(trace) == TraceFormat.BINARY) {
+      return parseBinaryTrace(trace);
+    }
+    try (Stream<String> lines = Files.lines(trace)) {
+      return parseLines(lines);
+    }
+  }
+
+  /**
+   * Reads a trace in the binary format written by BinaryTraceWriter.
+   */
+  public static List<Instruction> parseBinaryTrace(Path trace) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(trace), 1 << 16))) {
+      if (in.readInt() != TraceFormats.BINARY_MAGIC) {
+        throw new IOException("Not a binary trace: " + trace);
+      }
+      int version = in.readInt();
+      if (!TraceFormats.isSupportedVersion(version)) {
+        throw new IOException("Unsupported binary trace version " + version + " (versions 1 to "
+            + TraceFormats.BINARY_VERSION + " are supported): " + trace);
+      }
+
+      List<Instruction> instructions = new ArrayList<>();
+      while (true) {
+        int type = in.read();
+        if (type < 0) {
+          break;
+        }
+        instructions.add(new Instruction(TraceFormats.typeOf(type, version), in.readLong()));
+      }
+      return instructions;
+    }
+  }
+
+  public static List<Instruction> parseLines(Stream<String> lines) {
+    return lines
+        .map(instr -> {
+          Matcher m = pattern.matcher(instr);
+          if (m.matches()) {
+            return new Pair<>(m.group(1), m.group(2));
+          } else {
+            Logger.getLogger(TraceParser.class.getName())
+                .log(Level.WARNING, "Could not parseTrace instruction: {}", instr);
+            return new Pair<>(String.valueOf(TraceFormats.INVALID_CODE), "-1");
+          }
+        })
+        .map(instr -> {
+          InstructionType type = TraceFormats.typeOf(Integer.parseInt(instr.getKey()));
+          switch (type) {
+            case OTHER:
+            case FENCE:
+            case BARRIER:
+            case SIGNAL:
+            case WAIT:
+              return new Instruction(type, Long.parseLong(instr.getValue(), 16));
+            case INVALID:
+              Logger.getLogger(TraceParser.class.getName())
+                  .log(Level.WARNING, "Invalid instruction: {}, cache.Address: {}",
+                      new Object[] {instr.getKey(), instr.getValue()});
+              return new Instruction(InstructionType.INVALID, Long.parseLong(instr.getValue(), 16));
+            default:
+              // Loads, stores and the atomic and synchronization accesses carry an address:
+              return new Instruction(type, Long.parseUnsignedLong(instr.getValue(), 16));
+          }
+        })
+        .collect(Collectors.toCollection(ArrayList::new));
+  }
+}
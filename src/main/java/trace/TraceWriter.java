@@ -0,0 +1,16 @@
+package trace;
+
+import cache.InstructionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A destination for generated trace instructions.
+ */
+public interface TraceWriter extends Closeable {
+  void write(InstructionType type, long value) throws IOException;
+
+  @Override
+  default void close() throws IOException {}
+}
@@ -0,0 +1,171 @@
+package trace;
+
+import cache.CacheProperties;
+import cache.InstructionType;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * The access patterns the trace generator can produce. Each model emits the accesses for one step
+ * of one core and returns how many memory accesses it emitted; steps are numbered from zero per
+ * core so that every core's trace can be generated independently.
+ */
+public enum WorkloadModel {
+  /**
+   * Each core scans its region one word at a time, wrapping around at the end of the footprint.
+   */
+  SEQUENTIAL {
+    @Override
+    int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+        throws IOException {
+      long offset = (step * CacheProperties.WORD_SIZE) % g.getFootprint();
+      out.write(g.accessType(random), g.regionBase(core) + offset);
+      return 1;
+    }
+  },
+  /**
+   * Each core walks its region with a fixed stride, wrapping around at the end of the footprint.
+   */
+  STRIDED {
+    @Override
+    int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+        throws IOException {
+      long offset = (step * g.getStride()) % g.getFootprint();
+      out.write(g.accessType(random), g.regionBase(core) + offset);
+      return 1;
+    }
+  },
+  /**
+   * Uniformly random words within each core's region.
+   */
+  UNIFORM_RANDOM {
+    @Override
+    int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+        throws IOException {
+      long word = random.nextLong(g.getFootprint() / CacheProperties.WORD_SIZE);
+      out.write(g.accessType(random), g.regionBase(core) + word * CacheProperties.WORD_SIZE);
+      return 1;
+    }
+  },
+  /**
+   * Blocks within each core's region drawn from a Zipfian distribution, so that a small hot set
+   * receives most of the accesses.
+   */
+  ZIPFIAN {
+    @Override
+    int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+        throws IOException {
+      long block = g.getZipfian().sample(random);
+      out.write(g.accessType(random), g.regionBase(core) + block * g.getBlockSize());
+      return 1;
+    }
+  },
+  /**
+   * Every core reads and then writes shared blocks in the same order, each starting one block
+   * after its predecessor, so that the blocks migrate from core to core.
+   */
+  MIGRATORY {
+    @Override
+    int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+        throws IOException {
+      long address = ((step + core) % g.getNumBlocks()) * g.getBlockSize();
+      out.write(InstructionType.LOAD, address);
+      out.write(InstructionType.STORE, address);
+      return 2;
+    }
+  },
+  /**
+   * The cores form a pipeline: each writes a chunk of its own buffer, then reads the same chunk of
+   * its predecessor's buffer.
+   */
+  PRODUCER_CONSUMER {
+    @Override
+    int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+        throws IOException {
+      long bufferWords = g.getFootprint() / CacheProperties.WORD_SIZE / g.getCores();
+      long chunkWords = Math.max(1, Math.min(bufferWords, CHUNK_WORDS));
+      long phase = step / chunkWords;
+      long word = (phase / 2 * chunkWords + step % chunkWords) % Math.max(1, bufferWords);
+      if (phase % 2 == 0) {
+        out.write(InstructionType.STORE, g.bufferBase(core) + word * CacheProperties.WORD_SIZE);
+      } else {
+        int producer = (core + g.getCores() - 1) % g.getCores();
+        out.write(InstructionType.LOAD, g.bufferBase(producer) + word * CacheProperties.WORD_SIZE);
+      }
+      return 1;
+    }
+  },
+  /**
+   * Each core accesses only its own word, but the words of neighbouring cores share a block.
+   */
+  FALSE_SHARING {
+    @Override
+    int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+        throws IOException {
+      int wordsPerBlock = g.getBlockSize() / CacheProperties.WORD_SIZE;
+      long address = (long)(core / wordsPerBlock) * g.getBlockSize()
+          + (core % wordsPerBlock) * CacheProperties.WORD_SIZE;
+      out.write(g.accessType(random), address);
+      return 1;
+    }
+  },
+  /**
+   * All cores contend for one lock: spin on it, take it, update data in the next block and release
+   * it again.
+   */
+  LOCK_PINGPONG {
+    @Override
+    int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+        throws IOException {
+      long lock = 0;
+      long data = g.getBlockSize();
+      out.write(InstructionType.LOAD, lock);
+      out.write(InstructionType.STORE, lock);
+      out.write(InstructionType.LOAD, data);
+      out.write(InstructionType.STORE, data);
+      out.write(InstructionType.STORE, lock);
+      return 5;
+    }
+  },
+  /**
+   * As LOCK_PINGPONG, but the lock is taken with an atomic swap and released after a fence.
+   */
+  LOCK_ATOMIC {
+    @Override
+    int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+        throws IOException {
+      long lock = 0;
+      long data = g.getBlockSize();
+      out.write(InstructionType.ATOMIC, lock);
+      out.write(InstructionType.LOAD, data);
+      out.write(InstructionType.STORE, data);
+      out.write(InstructionType.FENCE, 0);
+      out.write(InstructionType.STORE, lock);
+      return 4;
+    }
+  },
+  /**
+   * As LOCK_ATOMIC, but the lock is taken with a load-linked/store-conditional pair.
+   */
+  LOCK_LLSC {
+    @Override
+    int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+        throws IOException {
+      long lock = 0;
+      long data = g.getBlockSize();
+      out.write(InstructionType.LOAD_LINKED, lock);
+      out.write(InstructionType.STORE_CONDITIONAL, lock);
+      out.write(InstructionType.LOAD, data);
+      out.write(InstructionType.STORE, data);
+      out.write(InstructionType.FENCE, 0);
+      out.write(InstructionType.STORE, lock);
+      return 5;
+    }
+  };
+
+  private static final long CHUNK_WORDS = 64;
+
+  abstract int emit(TraceGenerator g, int core, long step, SplittableRandom random, TraceWriter out)
+      throws IOException;
+}
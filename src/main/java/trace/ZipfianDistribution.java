@@ -0,0 +1,50 @@
+package trace;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws ranks in [0, n) following a Zipfian distribution, using the constant-time method of Gray et
+ * al. ("Quickly Generating Billion-Record Synthetic Databases"). Rank 0 is the most popular. The
+ * zeta constant is computed once, so a single instance can be shared by all generating threads.
+ */
+public class ZipfianDistribution {
+  private final long n;
+  private final double theta;
+  private final double zetaN;
+  private final double alpha;
+  private final double eta;
+
+  /**
+   * @param n the number of items.
+   * @param theta the skew of the distribution, in (0, 1).
+   */
+  public ZipfianDistribution(long n, double theta) {
+    if (n < 1 || theta <= 0 || theta >= 1) {
+      throw new IllegalArgumentException("Zipfian distribution requires n >= 1 and 0 < theta < 1.");
+    }
+    this.n = n;
+    this.theta = theta;
+    this.zetaN = zeta(n, theta);
+    this.alpha = 1.0 / (1.0 - theta);
+    this.eta = (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+  }
+
+  public long sample(SplittableRandom random) {
+    double u = random.nextDouble();
+    double uz = u * zetaN;
+    if (uz < 1.0) {
+      return 0;
+    } else if (uz < 1.0 + Math.pow(0.5, theta)) {
+      return Math.min(1, n - 1);
+    }
+    return Math.min(n - 1, (long)(n * Math.pow(eta * u - eta + 1, alpha)));
+  }
+
+  private static double zeta(long n, double theta) {
+    double sum = 0;
+    for (long i = 1; i <= n; i++) {
+      sum += 1 / Math.pow(i, theta);
+    }
+    return sum;
+  }
+}
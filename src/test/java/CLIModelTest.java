@@ -0,0 +1,46 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cache.coherence.CoherencePolicy;
+import com.lexicalscope.jewel.cli.CliFactory;
+import com.lexicalscope.jewel.cli.Option;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CLIModelTest {
+  @Test
+  public void parsesTheBaselineCommandLine() throws Exception {
+    CLIModel model = CliFactory.parseArguments(CLIModel.class,
+        "-f", "/tmp/sim", "-p", "MESI", "MOESI", "-s", "-a", "2");
+
+    assertEquals(Collections.singletonList("/tmp/sim"), model.getFiles());
+    assertEquals(Arrays.asList(CoherencePolicy.MESI, CoherencePolicy.MOESI), model.getPolicies());
+    assertTrue(model.isSilent());
+    assertEquals(2, model.getAssociativity());
+    assertEquals(1024, model.getCacheSize());
+  }
+
+  @Test
+  public void noTwoOptionsShareAShortName() {
+    // Only the first character of a short name is used:
+    Map<Character, String> owners = new HashMap<>();
+    for (Method method : CLIModel.class.getMethods()) {
+      Option option = method.getAnnotation(Option.class);
+      if (option != null) {
+        for (String shortName : option.shortName()) {
+          if (shortName.isEmpty()) {
+            continue; // The option has a long name only.
+          }
+          String previous = owners.put(shortName.charAt(0), method.getName());
+          assertEquals("-" + shortName.charAt(0) + " of " + method.getName(), null, previous);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package bus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import cache.Address;
+import cache.Cache;
+import cache.coherence.CoherenceState;
+import statistics.ProcessorStatistics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FlushQueueTest {
+  private static final Address BLOCK = new Address(0x1000L);
+  private static final Address OTHER_BLOCK = new Address(0x2000L);
+
+  private Cache first;
+  private Cache second;
+
+  @Before
+  public void setUp() throws Exception {
+    Bus.reset();
+    Cache.reset();
+    first = new Cache(new ProcessorStatistics(0));
+    second = new Cache(new ProcessorStatistics(1));
+    first.setState(BLOCK, CoherenceState.M);
+    second.setState(BLOCK, CoherenceState.M);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    Bus.reset();
+    Cache.reset();
+  }
+
+  @Test
+  public void flushesOfAQueuedBlockAreCoalescedIntoOneWrite() {
+    FlushQueue queue = new FlushQueue(1);
+    assertTrue(queue.add(first, BLOCK, CoherenceState.S));
+    assertFalse(queue.add(second, BLOCK, CoherenceState.I));
+    assertFalse(queue.add(second, BLOCK, CoherenceState.S)); // Only the final state changes.
+    assertEquals(1, queue.size());
+    assertTrue(first.isBlocking());
+    assertTrue(second.isBlocking());
+
+    tick(queue, Bus.WRITE_TO_MEM_CYCLES);
+
+    // The one write released both caches, each in its own final state:
+    assertEquals(0, queue.size());
+    assertFalse(first.isBlocking());
+    assertFalse(second.isBlocking());
+    assertEquals(CoherenceState.S, first.getState(BLOCK));
+    assertEquals(CoherenceState.S, second.getState(BLOCK));
+  }
+
+  @Test
+  public void onlyTheOldestWritesWithinTheBandwidthProgress() {
+    first.setState(OTHER_BLOCK, CoherenceState.M);
+    FlushQueue queue = new FlushQueue(1);
+    queue.add(first, BLOCK, CoherenceState.I);
+    queue.add(first, OTHER_BLOCK, CoherenceState.I);
+    assertTrue(queue.contains(BLOCK));
+    assertTrue(queue.contains(OTHER_BLOCK));
+
+    tick(queue, Bus.WRITE_TO_MEM_CYCLES);
+    assertFalse(queue.contains(BLOCK));
+    assertTrue(queue.contains(OTHER_BLOCK));
+    assertTrue(first.isBlocking());
+
+    tick(queue, Bus.WRITE_TO_MEM_CYCLES);
+    assertEquals(0, queue.size());
+    assertFalse(first.isBlocking());
+    assertFalse(queue.tick());
+  }
+
+  @Test
+  public void writesWithinTheBandwidthProgressTogether() {
+    first.setState(OTHER_BLOCK, CoherenceState.M);
+    FlushQueue queue = new FlushQueue(2);
+    queue.add(first, BLOCK, CoherenceState.I);
+    queue.add(first, OTHER_BLOCK, CoherenceState.I);
+
+    tick(queue, Bus.WRITE_TO_MEM_CYCLES);
+    assertEquals(0, queue.size());
+    assertFalse(first.isBlocking());
+  }
+
+  @Test
+  public void theBusCountsCoalescedFlushes() {
+    Bus.add(first);
+    Bus.add(second);
+    Bus.flush(first, BLOCK, CoherenceState.S);
+    Bus.flush(second, BLOCK, CoherenceState.S);
+    assertEquals(1, Bus.getFlushQueueDepth());
+    assertEquals(1, Bus.getStatistics().getCoalescedFlushes());
+  }
+
+  private static void tick(FlushQueue queue, int cycles) {
+    for (int i = 0; i < cycles; i++) {
+      assertTrue(queue.tick());
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AddressTest {
+  private static final long FOUR_GB = 1L << 32;
+
+  @Before
+  public void setUp() throws Exception {
+    // 32 KB, 4-way, 64 B blocks: 6 offset bits, 7 index bits and 51 tag bits.
+    CacheProperties.setBlockSize(64);
+    CacheProperties.setAssociativity(4);
+    CacheProperties.setCacheSize(32 * 1024);
+  }
+
+  @Test
+  public void addressesFourGigabytesApartShareASetButNotATag() {
+    Address low = new Address(0x1234_5678L);
+    Address high = new Address(0x1234_5678L + FOUR_GB);
+
+    assertEquals(low.getIndex(), high.getIndex());
+    assertEquals(low.getOffset(), high.getOffset());
+    assertNotEquals(low.getTag(), high.getTag());
+    assertEquals(FOUR_GB >>> 13, high.getTag() - low.getTag());
+    assertNotEquals(low, high);
+    assertNotEquals(low.getBlockAddress(), high.getBlockAddress());
+  }
+
+  @Test
+  public void tagSetAndOffsetRoundTripWithTheTopBitSet() {
+    long[] addresses = {0x8000_0000_0000_0000L, 0xFFFF_FFFF_FFFF_FFFFL, 0xDEAD_BEEF_CAFE_F00DL};
+    int tagShift = CacheProperties.getIndexSize() + CacheProperties.getOffsetSize();
+    for (long raw : addresses) {
+      Address address = new Address(raw);
+
+      long rebuilt = (address.getTag() << tagShift)
+          | ((long)address.getIndex() << CacheProperties.getOffsetSize())
+          | address.getOffset();
+      assertEquals(Long.toHexString(raw), raw, rebuilt);
+      // The tag is taken unsigned: it keeps the top bit rather than extending the sign.
+      assertEquals(raw >>> tagShift, address.getTag());
+      assertEquals(raw >>> CacheProperties.getOffsetSize(), address.getBlockAddress());
+      assertEquals((int)(raw & 63), address.getOffset());
+      assertEquals((int)((raw >>> 6) & 127), address.getIndex());
+    }
+  }
+
+  @Test
+  public void equalAddressesHaveEqualHashCodes() {
+    Address a = new Address(0xFFFF_FFFF_0000_0040L);
+    Address b = new Address(0xFFFF_FFFF_0000_0044L); // The same block.
+
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+  }
+}
@@ -0,0 +1,95 @@
+package cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import bus.Bus;
+import cache.coherence.CoherencePolicy;
+import cache.coherence.CoherenceState;
+import statistics.ProcessorStatistics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VictimCacheTest {
+  // Direct-mapped 4 KB caches: addresses 4 KB apart share a set.
+  private static final Address A = new Address(0x0L);
+  private static final Address B = new Address(0x1000L);
+  private static final Address C = new Address(0x2000L);
+
+  private Cache cache;
+  private Cache other;
+
+  @Before
+  public void setUp() throws Exception {
+    CacheProperties.setBlockSize(16);
+    CacheProperties.setAssociativity(1);
+    CacheProperties.setCacheSize(4096);
+    CacheProperties.setCoherencePolicy(CoherencePolicy.MESI);
+    CacheProperties.setVictimCacheEntries(1);
+    Bus.reset();
+    Cache.reset();
+    Bus.setFunctional(true); // Bus jobs finish as soon as they are issued.
+    cache = new Cache(new ProcessorStatistics(0));
+    other = new Cache(new ProcessorStatistics(1));
+    Bus.add(cache);
+    Bus.add(other);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CacheProperties.setVictimCacheEntries(0);
+    CacheProperties.setCoherencePolicy(CoherencePolicy.MSI);
+    Bus.reset();
+    Cache.reset();
+  }
+
+  @Test
+  public void anEvictedBlockIsSwappedBackInForTheSetsBlock() {
+    read(A);
+    read(B); // Evicts A into the victim cache.
+    assertEquals(CoherenceState.E, cache.getVictimCache().getState(A));
+    assertTrue(cache.contains(A));
+
+    assertTrue(cache.swapInFromVictimCache(A));
+    assertEquals(CoherenceState.E, cache.getState(A));
+    assertFalse(cache.getVictimCache().contains(A));
+    // The set's block took A's place rather than being dropped:
+    assertEquals(CoherenceState.E, cache.getVictimCache().getState(B));
+    assertEquals(1, Bus.getStatistics().getVictimCacheHits());
+    assertEquals(CacheProperties.getBlockSize(), Bus.getStatistics().getVictimCacheBytesSaved());
+
+    // A hit in the set leaves the victim cache alone:
+    assertFalse(cache.swapInFromVictimCache(A));
+    assertEquals(1, Bus.getStatistics().getVictimCacheHits());
+  }
+
+  @Test
+  public void theVictimCacheHoldsOnlyTheMostRecentVictims() {
+    read(A);
+    read(B);
+    read(C); // Evicts B, displacing A from the one entry.
+    assertFalse(cache.contains(A));
+    assertTrue(cache.getVictimCache().contains(B));
+    assertFalse(cache.swapInFromVictimCache(A));
+  }
+
+  @Test
+  public void entriesAnswerSnoops() {
+    read(A);
+    read(B);
+    other.allocateBlockFor(A);
+    other.procWrite(A); // Invalidates the entry.
+    assertFalse(cache.contains(A));
+    assertFalse(cache.swapInFromVictimCache(A));
+    assertEquals(1, Bus.getStatistics().getVictimCacheSnoops());
+  }
+
+  private void read(Address address) {
+    cache.swapInFromVictimCache(address);
+    cache.allocateBlockFor(address);
+    cache.procRead(address);
+  }
+}
@@ -0,0 +1,130 @@
+package cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import bus.Bus;
+import cache.coherence.CoherencePolicy;
+import cache.coherence.CoherenceState;
+import statistics.ProcessorStatistics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WriteBufferTest {
+  // 16 B blocks of four words:
+  private static final Address A = new Address(0x1000L);
+  private static final Address B = new Address(0x2000L);
+
+  @Before
+  public void setUp() throws Exception {
+    CacheProperties.setBlockSize(16);
+    CacheProperties.setAssociativity(1);
+    CacheProperties.setCacheSize(4096);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CacheProperties.setWritePolicy(WritePolicy.WRITE_BACK);
+    CacheProperties.setWriteBufferEntries(8);
+    CacheProperties.setCoherencePolicy(CoherencePolicy.MSI);
+    Bus.reset();
+    Cache.reset();
+  }
+
+  @Test
+  public void storesToAWaitingBlockAreCoalesced() {
+    WriteBuffer buffer = new WriteBuffer(1, false);
+    assertTrue(buffer.add(word(A, 0), true));
+    assertFalse(buffer.add(word(A, 2), true));
+    assertFalse(buffer.add(word(A, 2), true)); // The same word again.
+    assertEquals(1, buffer.size());
+
+    // A full buffer still takes stores to the waiting block:
+    assertTrue(buffer.accepts(word(A, 3)));
+    assertFalse(buffer.accepts(B));
+
+    WriteBuffer.Entry entry = buffer.takeNext();
+    assertEquals(2, entry.getWordCount());
+    assertTrue(entry.isBypassed());
+    assertTrue(buffer.isEmpty());
+  }
+
+  @Test
+  public void aPlainBufferWritesTheOldestBlockFirst() {
+    WriteBuffer buffer = new WriteBuffer(4, false);
+    buffer.add(A, false);
+    buffer.add(B, false);
+    assertEquals(A, buffer.takeNext().getAddress());
+    assertEquals(B, buffer.takeNext().getAddress());
+    assertNull(buffer.takeNext());
+  }
+
+  @Test
+  public void aCombiningBufferHoldsPartialLinesBack() {
+    WriteBuffer buffer = new WriteBuffer(2, true);
+    buffer.add(A, true);
+    for (int word = 0; word < CacheProperties.getWordsPerBlock(); word++) {
+      buffer.add(word(B, word), true);
+    }
+
+    // The full line goes first, though it is younger:
+    WriteBuffer.Entry full = buffer.takeNext();
+    assertEquals(B, full.getAddress());
+    assertTrue(full.isFullLine());
+    assertNull(buffer.takeNext());
+
+    buffer.releasePartialLines();
+    assertEquals(A, buffer.takeNext().getAddress());
+  }
+
+  @Test
+  public void aFullCombiningBufferWritesItsOldestPartialLine() {
+    WriteBuffer buffer = new WriteBuffer(2, true);
+    buffer.add(A, true);
+    buffer.add(B, true);
+    assertEquals(A, buffer.takeNext().getAddress());
+    assertNull(buffer.takeNext());
+  }
+
+  @Test
+  public void theBusDrainsBufferedStoresInIdleCycles() throws Exception {
+    CacheProperties.setCoherencePolicy(CoherencePolicy.MESI);
+    CacheProperties.setWritePolicy(WritePolicy.NO_WRITE_ALLOCATE);
+    CacheProperties.setWriteBufferEntries(2);
+    Bus.reset();
+    Cache.reset();
+    Cache cache = new Cache(new ProcessorStatistics(0));
+    Cache other = new Cache(new ProcessorStatistics(1));
+    Bus.add(cache);
+    Bus.add(other);
+    other.setState(A, CoherenceState.S);
+
+    assertTrue(cache.bypassesStore(A));
+    cache.writeAround(word(A, 0));
+    cache.writeAround(word(A, 1));
+    assertEquals(1, Bus.getStatistics().getCoalescedStores());
+    assertTrue(cache.hasBufferedStores());
+
+    for (int i = 1; i < Bus.WRITE_TO_MEM_CYCLES; i++) {
+      Bus.tick();
+    }
+    assertTrue(cache.hasBufferedStores());
+    assertEquals(CoherenceState.S, other.getState(A));
+
+    // Written as one block, which invalidates the other copy:
+    Bus.tick();
+    assertFalse(cache.hasBufferedStores());
+    assertEquals(CoherenceState.I, other.getState(A));
+    assertEquals(1, Bus.getStatistics().getWriteBufferWrites());
+    assertEquals(0, Bus.getStatistics().getFullLineWrites());
+  }
+
+  private static Address word(Address block, int word) {
+    return new Address(block.getBlockAddress() * CacheProperties.getBlockSize()
+        + word * CacheProperties.WORD_SIZE);
+  }
+}
@@ -0,0 +1,63 @@
+package cache.coherence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ProtocolParserTest {
+  @Test
+  public void parsesADefinition() throws IOException {
+    Protocol protocol = ProtocolParser.parseLines(Arrays.asList(
+        "protocol MI # Comments and blank lines are skipped.",
+        "",
+        "states M I",
+        "writeback M",
+        "reject REMOTE_UPDATE",
+        "I READ  busrdx M",
+        "I WRITE busrdx M",
+        "M WRITE hit",
+        "M REMOTE_WRITE flush I invalidation"), "mi");
+    assertEquals("MI", protocol.getName());
+    assertTrue(protocol.isInvalidationBased());
+    assertTrue(protocol.writeBackOnEvict(CoherenceState.M));
+    assertFalse(protocol.isShared(CoherenceState.M));
+  }
+
+  @Test
+  public void rejectsAnUnknownState() {
+    assertMalformed("test:3: unknown state X",
+        "protocol BAD",
+        "states M S I",
+        "X READ busrd S");
+  }
+
+  @Test
+  public void rejectsABusJobWithoutAFinalState() {
+    assertMalformed("test:3: expected a final state after busrd",
+        "protocol BAD",
+        "states M S I",
+        "I READ busrd");
+  }
+
+  @Test
+  public void rejectsATransitionBeforeTheProtocolLine() {
+    assertMalformed("test:1: the definition must start with a protocol line",
+        "I READ busrd S",
+        "protocol BAD");
+  }
+
+  private static void assertMalformed(String message, String... lines) {
+    try {
+      ProtocolParser.parseLines(Arrays.asList(lines), "test");
+      fail("Parsed the malformed definition " + Arrays.toString(lines));
+    } catch (IOException expected) {
+      assertEquals(message, expected.getMessage());
+    }
+  }
+}
@@ -0,0 +1,269 @@
+package cache.coherence;
+
+import static cache.coherence.CoherenceState.*;
+import static cache.coherence.ProtocolEvent.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import bus.Bus;
+import cache.Address;
+import cache.Cache;
+import cache.CacheProperties;
+import statistics.ProcessorStatistics;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Checks the transition tables against the transitions of the hand-written MSI, MESI, MUSI and
+ * Dragon cache blocks they replaced. Every transition is carried out by a cache on a functional
+ * bus, so bus jobs and flushes finish as soon as they are issued.
+ */
+public class ProtocolTest {
+  private static final Address ADDRESS = new Address(0x1000L);
+
+  private Cache local;
+  private Cache remote;
+
+  @After
+  public void tearDown() throws Exception {
+    Bus.reset();
+    Cache.reset();
+    CacheProperties.setCoherencePolicy(CoherencePolicy.MSI);
+  }
+
+  @Test
+  public void msiMatchesTheOldTransitions() {
+    Protocol msi = CoherencePolicy.MSI.getProtocol();
+    assertLocal(msi, I, READ, S, S);
+    assertLocal(msi, I, WRITE, M, M);
+    assertLocal(msi, S, READ, S, S);
+    assertLocal(msi, S, WRITE, M, M);
+    assertLocal(msi, M, READ, M, M);
+    assertLocal(msi, M, WRITE, M, M);
+    assertRemote(msi, M, REMOTE_READ, S);
+    assertRemote(msi, S, REMOTE_READ, S);
+    assertRemote(msi, M, REMOTE_WRITE, I);
+    assertRemote(msi, S, REMOTE_WRITE, I);
+    assertRejected(msi, M, REMOTE_UPDATE);
+    assertRejected(msi, S, REMOTE_UPDATE);
+    assertBlockFlags(msi, new CoherenceState[] {M}, new CoherenceState[] {S});
+  }
+
+  @Test
+  public void mesiMatchesTheOldTransitions() {
+    assertMesi(CoherencePolicy.MESI.getProtocol());
+  }
+
+  @Test
+  public void musiMatchesTheOldTransitions() {
+    Protocol musi = CoherencePolicy.MUSI.getProtocol();
+    assertLocal(musi, I, READ, S, S);
+    assertLocal(musi, I, WRITE, M, M);
+    assertLocal(musi, S, READ, S, S);
+    assertLocal(musi, M, READ, M, M);
+    assertLocal(musi, M, WRITE, M, M);
+    assertRemote(musi, M, REMOTE_READ, S);
+    assertRemote(musi, M, REMOTE_WRITE, I);
+    assertRemote(musi, S, REMOTE_WRITE, I);
+    assertRejected(musi, S, REMOTE_UPDATE);
+    assertBlockFlags(musi, new CoherenceState[] {M}, new CoherenceState[] {S});
+
+    // A write to a shared block invalidates the other copies at once, without a bus job:
+    attach(musi);
+    local.setState(ADDRESS, S);
+    remote.setState(ADDRESS, S);
+    int reads = Bus.getStatistics().getBusReads();
+    int writes = Bus.getStatistics().getBusWrites();
+    local.procWrite(ADDRESS);
+    assertEquals(M, local.getState(ADDRESS));
+    assertEquals(I, remote.getState(ADDRESS));
+    assertEquals(reads, Bus.getStatistics().getBusReads());
+    assertEquals(writes, Bus.getStatistics().getBusWrites());
+  }
+
+  @Test
+  public void dragonMatchesTheOldTransitions() {
+    assertDragon(CoherencePolicy.DRAGON.getProtocol());
+  }
+
+  @Test
+  public void protocolFilesMatchTheBuiltInPolicies() throws IOException {
+    assertMesi(ProtocolParser.parse(Paths.get("protocols", "mesi.protocol")));
+    assertDragon(ProtocolParser.parse(Paths.get("protocols", "dragon.protocol")));
+  }
+
+  private void assertMesi(Protocol mesi) {
+    assertLocal(mesi, I, READ, S, E);
+    assertLocal(mesi, I, WRITE, M, M);
+    assertLocal(mesi, E, READ, E, E);
+    assertLocal(mesi, E, WRITE, M, M);
+    assertLocal(mesi, S, READ, S, S);
+    assertLocal(mesi, S, WRITE, M, M);
+    assertLocal(mesi, M, READ, M, M);
+    assertLocal(mesi, M, WRITE, M, M);
+    assertRemote(mesi, M, REMOTE_READ, S);
+    assertRemote(mesi, E, REMOTE_READ, S);
+    assertRemote(mesi, S, REMOTE_READ, S);
+    assertRemote(mesi, M, REMOTE_WRITE, I);
+    assertRemote(mesi, E, REMOTE_WRITE, I);
+    assertRemote(mesi, S, REMOTE_WRITE, I);
+    assertRejected(mesi, E, REMOTE_UPDATE);
+    assertBlockFlags(mesi, new CoherenceState[] {M}, new CoherenceState[] {S});
+  }
+
+  private void assertDragon(Protocol dragon) {
+    assertLocal(dragon, I, READ, SC, E);
+    assertLocal(dragon, I, WRITE, SM, M); // A BusRd followed by a BusUpd.
+    assertLocal(dragon, E, READ, E, E);
+    assertLocal(dragon, E, WRITE, M, M);
+    assertLocal(dragon, SC, READ, SC, SC);
+    assertLocal(dragon, SC, WRITE, SM, M);
+    assertLocal(dragon, SM, READ, SM, SM);
+    assertLocal(dragon, SM, WRITE, SM, M);
+    assertLocal(dragon, M, READ, M, M);
+    assertLocal(dragon, M, WRITE, M, M);
+    assertRemote(dragon, E, REMOTE_READ, SC);
+    assertRemote(dragon, M, REMOTE_READ, SM);
+    assertRemote(dragon, SC, REMOTE_READ, SC);
+    assertRemote(dragon, SM, REMOTE_READ, SM);
+    assertRemote(dragon, SC, REMOTE_UPDATE, SC);
+    assertRemote(dragon, SM, REMOTE_UPDATE, SC);
+    assertRejected(dragon, E, REMOTE_UPDATE);
+    assertRejected(dragon, M, REMOTE_UPDATE);
+    assertRejected(dragon, SC, REMOTE_WRITE);
+    assertBlockFlags(dragon, new CoherenceState[] {SM, M}, new CoherenceState[] {SC, SM});
+  }
+
+  /*
+   * Asserts the local cache's state once the processor's access in the state finishes, with
+   * another cache holding a shared copy of the block and with no other copy.
+   */
+  private void assertLocal(Protocol protocol, CoherenceState from, ProtocolEvent event,
+                           CoherenceState ifShared, CoherenceState ifAlone) {
+    CoherenceState sharer = protocol.isShared(S) ? S : SC;
+    assertEquals(protocol + " " + from + " " + event + " shared", ifShared,
+        afterLocal(protocol, from, event, sharer));
+    assertEquals(protocol + " " + from + " " + event + " alone", ifAlone,
+        afterLocal(protocol, from, event, I));
+  }
+
+  private CoherenceState afterLocal(Protocol protocol, CoherenceState from, ProtocolEvent event,
+                                    CoherenceState sharer) {
+    attach(protocol);
+    if (from != I) {
+      local.setState(ADDRESS, from);
+    }
+    if (sharer != I) {
+      remote.setState(ADDRESS, sharer);
+    }
+    local.allocateBlockFor(ADDRESS);
+    if (event == READ) {
+      local.procRead(ADDRESS);
+    } else {
+      local.procWrite(ADDRESS);
+    }
+    return local.getState(ADDRESS);
+  }
+
+  /*
+   * Asserts the local cache's state once it snooped another cache's job in the state.
+   */
+  private void assertRemote(Protocol protocol, CoherenceState from, ProtocolEvent event,
+                            CoherenceState to) {
+    attach(protocol);
+    local.setState(ADDRESS, from);
+    int invalidations = Bus.getStatistics().getInvalidations();
+    snoop(event);
+    assertEquals(protocol + " " + from + " " + event, to, local.getState(ADDRESS));
+    // Only a copy lost to another cache's write is counted as an invalidation:
+    assertEquals(protocol + " " + from + " " + event + " invalidations",
+        event == REMOTE_WRITE ? invalidations + 1 : invalidations,
+        Bus.getStatistics().getInvalidations());
+  }
+
+  /*
+   * Asserts that the event is logged as an error in the state, leaving the block unchanged.
+   */
+  private void assertRejected(Protocol protocol, CoherenceState from, ProtocolEvent event) {
+    attach(protocol);
+    local.setState(ADDRESS, from);
+    List<LogRecord> errors = new ArrayList<>();
+    Handler handler = new Handler() {
+      @Override
+      public void publish(LogRecord record) {
+        errors.add(record);
+      }
+
+      @Override
+      public void flush() { }
+
+      @Override
+      public void close() { }
+    };
+    Logger logger = Logger.getLogger(Protocol.class.getName());
+    logger.addHandler(handler);
+    logger.setUseParentHandlers(false); // Keep the expected error out of the test output.
+    try {
+      snoop(event);
+    } finally {
+      logger.removeHandler(handler);
+      logger.setUseParentHandlers(true);
+    }
+    assertEquals(protocol + " " + from + " " + event, 1, errors.size());
+    assertEquals(protocol + " " + from + " " + event, from, local.getState(ADDRESS));
+  }
+
+  private void assertBlockFlags(Protocol protocol, CoherenceState[] writeBack,
+                                CoherenceState[] shared) {
+    List<CoherenceState> writtenBack = List.of(writeBack);
+    List<CoherenceState> sharedStates = List.of(shared);
+    for (CoherenceState state : CoherenceState.values()) {
+      CacheBlock block = new CacheBlock(null, ADDRESS, protocol);
+      block.setState(state);
+      assertEquals(protocol + " " + state + " write back", writtenBack.contains(state),
+          block.writeBackOnEvict());
+      assertEquals(protocol + " " + state + " shared", sharedStates.contains(state),
+          block.isShared());
+    }
+  }
+
+  private void snoop(ProtocolEvent event) {
+    switch (event) {
+      case REMOTE_READ:
+        local.remoteRead(ADDRESS);
+        break;
+      case REMOTE_WRITE:
+        local.remoteWrite(ADDRESS);
+        break;
+      case REMOTE_UPDATE:
+        local.remoteUpdate(ADDRESS);
+        break;
+      default:
+        throw new IllegalArgumentException("Not a snooped event: " + event);
+    }
+  }
+
+  /*
+   * Attaches two fresh caches following the protocol to a functional bus.
+   */
+  private void attach(Protocol protocol) {
+    CacheProperties.setProtocol(protocol);
+    Bus.reset();
+    Cache.reset();
+    Bus.setFunctional(true);
+    local = new Cache(new ProcessorStatistics(0));
+    remote = new Cache(new ProcessorStatistics(1));
+    Bus.add(local);
+    Bus.add(remote);
+    assertTrue(local.getState(ADDRESS) == I && remote.getState(ADDRESS) == I);
+  }
+}
@@ -0,0 +1,69 @@
+package processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cache.CacheProperties;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PageTableTest {
+  @Before
+  public void setUp() throws Exception {
+    // 32 KB, 4-way, 64 B blocks: 8 KB a way, two colors of 4 KB pages.
+    CacheProperties.setBlockSize(64);
+    CacheProperties.setAssociativity(4);
+    CacheProperties.setCacheSize(32 * 1024);
+    PageTable.setPageSize(4096);
+    PageTable.setMapping(PageMapping.PAGE_COLORING);
+    PageTable.reset();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    PageTable.setMapping(PageMapping.NONE);
+    PageTable.setPageSize(4096);
+    PageTable.reset();
+  }
+
+  @Test
+  public void coloredFramesKeepThePageColorAndAreNotReused() {
+    int colors = PageTable.getColors();
+    Set<Long> frames = new HashSet<>();
+    for (long page = 0; page < 64; page++) {
+      long frame = PageTable.getFrame(page);
+      assertEquals(page % colors, frame % colors);
+      assertTrue("Frame " + frame + " reused", frames.add(frame));
+    }
+  }
+
+  @Test
+  public void colorsChangingWithoutAResetStillGiveFreeFrames() throws Exception {
+    Set<Long> frames = new HashSet<>();
+    for (long page = 0; page < 16; page++) {
+      frames.add(PageTable.getFrame(page));
+    }
+
+    // 1 KB pages give eight colors, more than were counted at the reset:
+    PageTable.setPageSize(1024);
+    int colors = PageTable.getColors();
+    for (long page = 16; page < 80; page++) {
+      long frame = PageTable.getFrame(page);
+      assertEquals(page % colors, frame % colors);
+      assertTrue("Frame " + frame + " reused", frames.add(frame));
+    }
+  }
+
+  @Test
+  public void pagesWithTheTopBitSetGetAColor() {
+    long page = -1L; // Unsigned, the last page.
+    long frame = PageTable.getFrame(page);
+    int colors = PageTable.getColors();
+    assertEquals(Long.remainderUnsigned(page, colors), frame % colors);
+  }
+}
@@ -0,0 +1,128 @@
+package processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import bus.Bus;
+import cache.Instruction;
+import cache.InstructionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SynchronizerTest {
+  private static final int MAX_CYCLES = 10_000; // Fails a test that never finishes.
+
+  private final Synchronizer synchronizer = new Synchronizer();
+  private final List<Processor> processors = new ArrayList<>();
+  private final List<LogRecord> errors = new ArrayList<>();
+  private final Handler handler = new Handler() {
+    @Override
+    public void publish(LogRecord record) {
+      errors.add(record);
+    }
+
+    @Override
+    public void flush() { }
+
+    @Override
+    public void close() { }
+  };
+
+  @Before
+  public void setUp() throws Exception {
+    Bus.reset();
+    Processor.reset();
+    Logger logger = Logger.getLogger(Synchronizer.class.getName());
+    logger.addHandler(handler);
+    logger.setUseParentHandlers(false); // Keep the expected errors out of the test output.
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    Logger logger = Logger.getLogger(Synchronizer.class.getName());
+    logger.removeHandler(handler);
+    logger.setUseParentHandlers(true);
+    Bus.reset();
+    Processor.reset();
+  }
+
+  @Test
+  public void aBarrierReleasesEveryProcessorOnceAllArrive() {
+    addProcessor(barrier(1), other(1));
+    addProcessor(other(20), barrier(1), other(1));
+    run();
+    assertEquals(1, synchronizer.getBarriersCompleted());
+    assertEquals(0, synchronizer.getDeadlocks());
+    assertTrue(errors.isEmpty());
+  }
+
+  @Test
+  public void aFinishedProcessorDoesNotHoldABarrierUp() {
+    addProcessor(barrier(1), other(1));
+    addProcessor(other(1));
+    run();
+    assertEquals(1, synchronizer.getBarriersCompleted());
+    assertEquals(0, synchronizer.getDeadlocks());
+  }
+
+  @Test
+  public void mismatchedBarriersAreReleasedOnce() {
+    addProcessor(barrier(1), other(1));
+    addProcessor(barrier(2), other(1));
+    run();
+    assertEquals(0, synchronizer.getBarriersCompleted());
+    assertEquals(1, synchronizer.getDeadlocks());
+    assertEquals(1, errors.size());
+  }
+
+  @Test
+  public void aWaitForAnEventNeverSignalledIsReleased() {
+    addProcessor(new Instruction(InstructionType.WAIT, 7), other(1));
+    addProcessor(barrier(1), other(1));
+    run();
+    assertEquals(1, synchronizer.getDeadlocks());
+    assertEquals(1, errors.size());
+  }
+
+  @Test
+  public void aSignalledEventIsNotADeadlock() {
+    addProcessor(new Instruction(InstructionType.WAIT, 7), other(1));
+    addProcessor(other(20), new Instruction(InstructionType.SIGNAL, 7), other(1));
+    run();
+    assertEquals(0, synchronizer.getDeadlocks());
+    assertTrue(errors.isEmpty());
+  }
+
+  private void addProcessor(Instruction... instructions) {
+    processors.add(new Processor(Arrays.asList(instructions), synchronizer));
+  }
+
+  /*
+   * Ticks the processors the way the multiprocessor does until they all finish.
+   */
+  private void run() {
+    for (int cycle = 0; !processors.stream().allMatch(Processor::isFinished); cycle++) {
+      assertTrue("Still running after " + MAX_CYCLES + " cycles", cycle < MAX_CYCLES);
+      processors.forEach(Processor::tick);
+      synchronizer.update(processors);
+      Bus.tick();
+    }
+  }
+
+  private static Instruction barrier(long id) {
+    return new Instruction(InstructionType.BARRIER, id);
+  }
+
+  private static Instruction other(long cycles) {
+    return new Instruction(InstructionType.OTHER, cycles);
+  }
+}
@@ -0,0 +1,55 @@
+package statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.Test;
+
+public class AsyncLineWriterTest {
+  private static final int LINES = 4 * AsyncLineWriter.CAPACITY;
+
+  @Test
+  public void writesMoreLinesThanTheQueueHoldsInOrder() throws IOException {
+    Path file = Files.createTempFile("lines", ".txt");
+    try {
+      try (AsyncLineWriter writer = new AsyncLineWriter(file)) {
+        for (int i = 0; i < LINES; i++) {
+          writer.writeLine(Integer.toString(i));
+        }
+      }
+
+      List<String> written = Files.readAllLines(file);
+      assertEquals(LINES, written.size());
+      for (int i = 0; i < LINES; i++) {
+        assertEquals(Integer.toString(i), written.get(i));
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void closeThrowsTheErrorWritingTheFile() throws IOException {
+    // Every write to /dev/full fails for lack of space:
+    Path full = Paths.get("/dev/full");
+    assumeTrue(Files.isWritable(full));
+
+    AsyncLineWriter writer = new AsyncLineWriter(full);
+    for (int i = 0; i < LINES; i++) {
+      writer.writeLine("A line that does not fit on the device.");
+    }
+    try {
+      writer.close();
+      fail("Closed without the write error");
+    } catch (IOException expected) {
+      // The device ran out of space.
+    }
+  }
+}
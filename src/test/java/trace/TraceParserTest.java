@@ -0,0 +1,88 @@
+package trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import cache.Instruction;
+import cache.InstructionType;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TraceParserTest {
+  private Path trace;
+
+  @Before
+  public void setUp() throws Exception {
+    trace = Files.createTempFile("trace", ".bin");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(trace);
+  }
+
+  @Test
+  public void binaryTraceRoundTripsEveryInstructionType() throws IOException {
+    InstructionType[] types = {
+        InstructionType.LOAD, InstructionType.STORE, InstructionType.OTHER,
+        InstructionType.ATOMIC, InstructionType.LOAD_LINKED, InstructionType.STORE_CONDITIONAL,
+        InstructionType.FENCE, InstructionType.BARRIER, InstructionType.SIGNAL,
+        InstructionType.WAIT};
+    try (BinaryTraceWriter writer = new BinaryTraceWriter(trace)) {
+      for (int i = 0; i < types.length; i++) {
+        writer.write(types[i], 0x1000L * i);
+      }
+    }
+
+    List<Instruction> instructions = TraceParser.parseBinaryTrace(trace);
+    assertEquals(types.length, instructions.size());
+    for (int i = 0; i < types.length; i++) {
+      assertEquals(types[i], instructions.get(i).getType());
+      assertEquals(0x1000L * i, instructions.get(i).getValue());
+    }
+  }
+
+  @Test
+  public void olderVersionsKeepTheirInvalidCodes() throws IOException {
+    // Version 1 wrote invalid instructions as 3, version 2 as 9:
+    writeBinaryTrace(1, 0, 3);
+    assertEquals(InstructionType.LOAD, TraceParser.parseBinaryTrace(trace).get(0).getType());
+    assertEquals(InstructionType.INVALID, TraceParser.parseBinaryTrace(trace).get(1).getType());
+
+    writeBinaryTrace(2, 3, 9);
+    assertEquals(InstructionType.ATOMIC, TraceParser.parseBinaryTrace(trace).get(0).getType());
+    assertEquals(InstructionType.INVALID, TraceParser.parseBinaryTrace(trace).get(1).getType());
+  }
+
+  @Test
+  public void unknownVersionsAreRejected() throws IOException {
+    for (int version : new int[] {0, TraceFormats.BINARY_VERSION + 1}) {
+      writeBinaryTrace(version, 0);
+      try {
+        TraceParser.parseBinaryTrace(trace);
+        fail("Read a binary trace of version " + version);
+      } catch (IOException expected) {
+        // The version is not one the parser understands.
+      }
+    }
+  }
+
+  private void writeBinaryTrace(int version, int... typeCodes) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(trace))) {
+      out.writeInt(TraceFormats.BINARY_MAGIC);
+      out.writeInt(version);
+      for (int code : typeCodes) {
+        out.writeByte(code);
+        out.writeLong(0x40L);
+      }
+    }
+  }
+}